@@ -0,0 +1,134 @@
+package swd392.eventmanagement.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result against the committed baseline and exits non-zero when a
+ * benchmark allocates more per operation than the baseline by more than the tolerance,
+ * or when its score regresses by more than the score tolerance. Allocation per operation
+ * is hardware independent; scores move with the machine, so they get a wider tolerance
+ * and smaller slowdowns are only reported.
+ * <p>
+ * Usage: {@code BaselineCheck <result.json> <baseline.json> <tolerance> [score-tolerance]},
+ * where the score tolerance defaults to twice the allocation tolerance. To publish a new
+ * baseline, copy {@code target/jmh-result.json} over {@code src/jmh/baseline/jmh-baseline.json}.
+ */
+public final class BaselineCheck {
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+    // Escape analysis varies a little between runs; ignore allocation noise below this
+    private static final double ALLOC_SLACK_BYTES = 16;
+
+    private BaselineCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: BaselineCheck <result.json> <baseline.json> <tolerance> [score-tolerance]");
+            System.exit(2);
+        }
+        File resultFile = new File(args[0]);
+        File baselineFile = new File(args[1]);
+        double tolerance = Double.parseDouble(args[2]);
+        double scoreTolerance = args.length > 3 ? Double.parseDouble(args[3]) : tolerance * 2;
+        if (!resultFile.isFile() || !baselineFile.isFile()) {
+            System.err.println("Missing JMH result or baseline file, skipping comparison");
+            return;
+        }
+
+        Map<String, JsonNode> results = load(resultFile);
+        Map<String, JsonNode> baseline = load(baselineFile);
+        int allocRegressions = 0;
+        int scoreRegressions = 0;
+        int slower = 0;
+
+        System.out.printf("%-75s %14s %14s %8s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, JsonNode> entry : results.entrySet()) {
+            JsonNode current = entry.getValue();
+            JsonNode base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.printf("%-75s %14s %14.3f %8s%n", entry.getKey(), "-", score(current), "new");
+                continue;
+            }
+
+            boolean higherIsBetter = "thrpt".equals(current.path("mode").asText());
+            double change = change(score(base), score(current));
+            double regression = higherIsBetter ? -change : change;
+            String verdict = "";
+            if (regression > scoreTolerance) {
+                verdict = "  REGRESSION";
+                scoreRegressions++;
+            } else if (regression > tolerance) {
+                verdict = "  slower (advisory)";
+                slower++;
+            }
+            System.out.printf("%-75s %14.3f %14.3f %+7.1f%%%s%n", entry.getKey(),
+                    score(base), score(current), change * 100, verdict);
+
+            double baseAlloc = alloc(base);
+            double currentAlloc = alloc(current);
+            if (baseAlloc >= 0 && currentAlloc >= 0
+                    && currentAlloc > baseAlloc * (1 + tolerance) + ALLOC_SLACK_BYTES) {
+                System.out.printf("%-75s %12.0f B %12.0f B %8s  REGRESSION%n", entry.getKey() + " alloc/op",
+                        baseAlloc, currentAlloc, "");
+                allocRegressions++;
+            }
+        }
+
+        if (slower > 0) {
+            System.out.printf("%d benchmarks slower than the baseline by more than %.0f%% but within %.0f%%; "
+                    + "timings depend on the machine, so this does not fail the build%n",
+                    slower, tolerance * 100, scoreTolerance * 100);
+        }
+        if (allocRegressions > 0 || scoreRegressions > 0) {
+            System.err.printf("%d allocation regressions beyond %.0f%% and %d score regressions beyond %.0f%% "
+                    + "of the baseline%n", allocRegressions, tolerance * 100, scoreRegressions, scoreTolerance * 100);
+            System.exit(1);
+        }
+        System.out.println("No regressions against the baseline");
+    }
+
+    private static Map<String, JsonNode> load(File file) throws IOException {
+        Map<String, JsonNode> runs = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            runs.put(key(run), run);
+        }
+        return runs;
+    }
+
+    private static String key(JsonNode run) {
+        StringBuilder key = new StringBuilder(run.path("benchmark").asText().replace("swd392.eventmanagement.", ""));
+        Iterator<Map.Entry<String, JsonNode>> params = run.path("params").fields();
+        while (params.hasNext()) {
+            Map.Entry<String, JsonNode> param = params.next();
+            key.append(':').append(param.getKey()).append('=').append(param.getValue().asText());
+        }
+        return key.append(" [").append(run.path("mode").asText()).append(']').toString();
+    }
+
+    private static double score(JsonNode run) {
+        return run.path("primaryMetric").path("score").asDouble();
+    }
+
+    private static double alloc(JsonNode run) {
+        Iterator<Map.Entry<String, JsonNode>> metrics = run.path("secondaryMetrics").fields();
+        while (metrics.hasNext()) {
+            Map.Entry<String, JsonNode> metric = metrics.next();
+            // JMH prefixes profiler metrics with a middle dot
+            if (metric.getKey().endsWith(ALLOC_NORM)) {
+                return metric.getValue().path("score").asDouble();
+            }
+        }
+        return -1;
+    }
+
+    private static double change(double base, double current) {
+        return base == 0 ? 0 : (current - base) / base;
+    }
+}
@@ -0,0 +1,108 @@
+package swd392.eventmanagement.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+import swd392.eventmanagement.audit.AuditLog;
+import swd392.eventmanagement.metrics.AuthMetrics;
+import swd392.eventmanagement.model.entity.Role;
+import swd392.eventmanagement.model.entity.User;
+import swd392.eventmanagement.security.domain.DomainRegistry;
+import swd392.eventmanagement.security.jwt.AccessTokenRevocationList;
+import swd392.eventmanagement.security.jwt.JwtUtils;
+import swd392.eventmanagement.security.jwt.SigningKeyRing;
+
+import java.util.Set;
+
+/**
+ * Builds the auth components outside of a Spring context, wired with the same
+ * defaults as application.properties, so benchmarks run without a database or network.
+ */
+public final class BenchmarkFixtures {
+    public static final String JWT_SECRET = "ZpnrQXGVyPJGhXMYy6BUyaWSt2vAGxqzU4bTYJcKXQH8SwCdPLbcKD9fNzJP3H4V";
+    public static final int JWT_EXPIRATION_MS = 86400000;
+    public static final long REFRESH_EXPIRATION_MS = 604800000L;
+
+    private BenchmarkFixtures() {
+    }
+
+    public static JwtUtils jwtUtils(int verifiedCacheSize) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", JWT_EXPIRATION_MS);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheSize", verifiedCacheSize);
+        ReflectionTestUtils.setField(jwtUtils, "authMetrics", authMetrics());
+        ReflectionTestUtils.setField(jwtUtils, "auditLog", auditLog());
+        ReflectionTestUtils.setField(jwtUtils, "revocationList", revocationList());
+        ReflectionTestUtils.setField(jwtUtils, "signingKeyRing", signingKeyRing());
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+        return jwtUtils;
+    }
+
+    // Same meters as production, kept in memory so recording cost is part of the measurement
+    public static AuthMetrics authMetrics() {
+        return new AuthMetrics(new SimpleMeterRegistry());
+    }
+
+    // Started like the real bean; the AUDIT logger is below the benchmark log level
+    public static AuditLog auditLog() {
+        AuditLog auditLog = new AuditLog();
+        ReflectionTestUtils.setField(auditLog, "bufferSize", 8192);
+        ReflectionTestUtils.setField(auditLog, "summaryWindowMs", 10000L);
+        ReflectionTestUtils.setField(auditLog, "maxRepeatsPerWindow", 5);
+        ReflectionTestUtils.setField(auditLog, "idleWaitMs", 10L);
+        ReflectionTestUtils.setField(auditLog, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(auditLog, "start");
+        return auditLog;
+    }
+
+    // ES256 ring holding one active key, as after the first start
+    public static SigningKeyRing signingKeyRing() {
+        SigningKeyRing signingKeyRing = new SigningKeyRing();
+        ReflectionTestUtils.setField(signingKeyRing, "algorithm", "ES256");
+        ReflectionTestUtils.setField(signingKeyRing, "rotationIntervalMs", 604800000L);
+        ReflectionTestUtils.setField(signingKeyRing, "publishAheadMs", 900000L);
+        ReflectionTestUtils.setField(signingKeyRing, "tokenLifetimeMs", (long) JWT_EXPIRATION_MS);
+        ReflectionTestUtils.setField(signingKeyRing, "keyEncryptionSecret", JWT_SECRET);
+        ReflectionTestUtils.setField(signingKeyRing, "legacySecret", JWT_SECRET);
+        InMemoryRepositories repositories = new InMemoryRepositories();
+        ReflectionTestUtils.setField(signingKeyRing, "signingKeyRepository", repositories.jwtSigningKeyRepository());
+        ReflectionTestUtils.setField(signingKeyRing, "transactionManager", repositories.transactionManager());
+        ReflectionTestUtils.invokeMethod(signingKeyRing, "init");
+        return signingKeyRing;
+    }
+
+    // Sized like production with nothing revoked, the happy path every request takes
+    public static AccessTokenRevocationList revocationList() {
+        AccessTokenRevocationList revocationList = new AccessTokenRevocationList();
+        ReflectionTestUtils.setField(revocationList, "expectedEntries", 100000);
+        ReflectionTestUtils.setField(revocationList, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(revocationList, "revokedTokenRepository",
+                new InMemoryRepositories().revokedTokenRepository());
+        ReflectionTestUtils.invokeMethod(revocationList, "load");
+        return revocationList;
+    }
+
+    public static DomainRegistry domainRegistry() {
+        DomainRegistry registry = new DomainRegistry();
+        ReflectionTestUtils.setField(registry, "allowedDomains", "fpt.edu.vn,gmail.com");
+        ReflectionTestUtils.setField(registry, "studentDomain", "fpt.edu.vn");
+        ReflectionTestUtils.setField(registry, "lecturerDomain", "gmail.com");
+        ReflectionTestUtils.setField(registry, "defaultRole", "ROLE_LECTURER");
+        ReflectionTestUtils.setField(registry, "rulesFile", "");
+        registry.reload();
+        return registry;
+    }
+
+    public static User user(long id) {
+        Role role = new Role();
+        role.setId(1);
+        role.setName("ROLE_STUDENT");
+
+        User user = new User();
+        user.setId(id);
+        user.setEmail("student" + id + "@fpt.edu.vn");
+        user.setFullName("Benchmark Student " + id);
+        user.setProviderUserId("google-" + id);
+        user.setRoles(Set.of(role));
+        return user;
+    }
+}
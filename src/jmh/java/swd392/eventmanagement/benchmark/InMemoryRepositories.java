@@ -0,0 +1,121 @@
+package swd392.eventmanagement.benchmark;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import swd392.eventmanagement.model.entity.JwtSigningKey;
+import swd392.eventmanagement.model.entity.User;
+import swd392.eventmanagement.repository.JwtSigningKeyRepository;
+import swd392.eventmanagement.repository.RefreshTokenRepository;
+import swd392.eventmanagement.repository.RevokedTokenRepository;
+import swd392.eventmanagement.repository.UserRepository;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Map-backed stand-ins for the repositories on the refresh path. Only the methods
+ * that path calls are implemented; anything else throws, so a benchmark that
+ * silently starts touching more of the repository fails loudly instead.
+ */
+public final class InMemoryRepositories {
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    private final Map<ByteBuffer, StoredToken> tokens = new ConcurrentHashMap<>();
+    private final Map<String, JwtSigningKey> signingKeys = new ConcurrentHashMap<>();
+
+    public void addUser(User user) {
+        users.put(user.getId(), user);
+    }
+
+    public void addToken(byte[] tokenHash, Long userId, LocalDateTime expiryDate) {
+        tokens.put(ByteBuffer.wrap(tokenHash), new StoredToken(userId, expiryDate));
+    }
+
+    public UserRepository userRepository() {
+        return proxy(UserRepository.class, (name, args) -> switch (name) {
+            case "findById" -> Optional.ofNullable(users.get((Long) args[0]));
+            default -> unsupported(name);
+        });
+    }
+
+    public RefreshTokenRepository refreshTokenRepository() {
+        return proxy(RefreshTokenRepository.class, (name, args) -> switch (name) {
+            case "rotate" -> rotate((byte[]) args[0], (byte[]) args[1], (LocalDateTime) args[2], (LocalDateTime) args[3]);
+            case "revokeFamilyOnReuse" -> 0;
+            default -> unsupported(name);
+        });
+    }
+
+    public RevokedTokenRepository revokedTokenRepository() {
+        return proxy(RevokedTokenRepository.class, (name, args) -> switch (name) {
+            case "findByExpiresAtAfter", "findByRevokedAtAfter" -> List.of();
+            default -> unsupported(name);
+        });
+    }
+
+    public JwtSigningKeyRepository jwtSigningKeyRepository() {
+        return proxy(JwtSigningKeyRepository.class, (name, args) -> switch (name) {
+            case "findByExpiresAtAfterOrderByActivatesAtAsc" -> signingKeys.values().stream()
+                    .filter(key -> key.getExpiresAt().isAfter((LocalDateTime) args[0]))
+                    .sorted(Comparator.comparing(JwtSigningKey::getActivatesAt))
+                    .collect(Collectors.toCollection(ArrayList::new));
+            case "save" -> {
+                JwtSigningKey key = (JwtSigningKey) args[0];
+                signingKeys.put(key.getKid(), key);
+                yield key;
+            }
+            case "retireBefore", "deleteExpired", "lockKeyCreation" -> 0;
+            default -> unsupported(name);
+        });
+    }
+
+    // The maps need no transactions; begin, commit and rollback do nothing
+    public PlatformTransactionManager transactionManager() {
+        return proxy(PlatformTransactionManager.class,
+                (name, args) -> "getTransaction".equals(name) ? new SimpleTransactionStatus() : null);
+    }
+
+    // Same outcome as the native CTE: the presented token is consumed and its successor
+    // stored. The consumed row is dropped rather than kept revoked so long runs stay flat.
+    private Optional<Long> rotate(byte[] oldHash, byte[] newHash, LocalDateTime now, LocalDateTime expiryDate) {
+        StoredToken current = tokens.remove(ByteBuffer.wrap(oldHash));
+        if (current == null || !current.expiryDate.isAfter(now)) {
+            return Optional.empty();
+        }
+        tokens.put(ByteBuffer.wrap(newHash), new StoredToken(current.userId, expiryDate));
+        return Optional.of(current.userId);
+    }
+
+    private static Object unsupported(String method) {
+        throw new UnsupportedOperationException("Not available in the benchmark stand-in: " + method);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> type.getSimpleName() + " stand-in";
+                };
+            }
+            return handler.invoke(method.getName(), args);
+        });
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    private record StoredToken(Long userId, LocalDateTime expiryDate) {
+    }
+}
@@ -0,0 +1,129 @@
+package swd392.eventmanagement.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures time to first request: from launching the JVM until the health endpoint
+ * first answers 200, for the plain jar as deployed before the prod profile and for each
+ * step of the fast-startup build (prod profile, CDS archive, AOT code). Every mode is
+ * started {@code runs} times and killed after its first answer; the median is reported.
+ * <p>
+ * Uses only the JDK, so the fast-startup profile runs it as a source file:
+ * {@code java StartupBenchmark.java <startup-dir> <jar> <runs> <port> <result.json>}.
+ * The application reads its database and Google settings from the environment as usual.
+ */
+public final class StartupBenchmark {
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+    private static final long POLL_MILLIS = 10;
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 5) {
+            System.err.println("Usage: StartupBenchmark <startup-dir> <jar> <runs> <port> <result.json>");
+            System.exit(2);
+        }
+        Path dir = Path.of(args[0]);
+        String jar = args[1];
+        int runs = Integer.parseInt(args[2]);
+        int port = Integer.parseInt(args[3]);
+        Path resultFile = Path.of(args[4]);
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String fatJar = dir.getParent().resolve(jar).toString();
+        String extractedJar = dir.resolve(jar).toString();
+        String server = "--server.port=" + port;
+
+        List<Mode> modes = List.of(
+                new Mode("jar ddl-auto=update", List.of(java, "-jar", fatJar, server,
+                        "--spring.jpa.hibernate.ddl-auto=update")),
+                new Mode("jar prod", List.of(java, "-jar", fatJar, server, "--spring.profiles.active=prod")),
+                new Mode("extracted prod cds", List.of(java,
+                        "-XX:SharedArchiveFile=" + dir.resolve("application.jsa"),
+                        "-jar", extractedJar, server, "--spring.profiles.active=prod")),
+                new Mode("extracted prod cds aot", List.of(java,
+                        "-XX:SharedArchiveFile=" + dir.resolve("application-aot.jsa"), "-Dspring.aot.enabled=true",
+                        "-jar", extractedJar, server, "--spring.profiles.active=prod")));
+
+        URI health = URI.create("http://localhost:" + port + "/actuator/health");
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        Path logs = dir.resolve("logs");
+        Files.createDirectories(logs);
+
+        List<Result> results = new ArrayList<>();
+        for (Mode mode : modes) {
+            long[] millis = new long[runs];
+            for (int run = 0; run < runs; run++) {
+                File log = logs.resolve(mode.name.replace(' ', '-') + "-" + run + ".log").toFile();
+                millis[run] = timeToFirstRequest(mode.command, health, client, log);
+            }
+            Arrays.sort(millis);
+            results.add(new Result(mode.name, millis[runs / 2], millis[0], millis[runs - 1]));
+        }
+
+        System.out.printf("%-26s %10s %10s %10s%n", "mode", "median ms", "min ms", "max ms");
+        for (Result result : results) {
+            System.out.printf("%-26s %10d %10d %10d%n", result.mode, result.medianMillis, result.minMillis,
+                    result.maxMillis);
+        }
+        Files.writeString(resultFile, toJson(results));
+    }
+
+    private static long timeToFirstRequest(List<String> command, URI health, HttpClient client, File log)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(log).start();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(health).timeout(Duration.ofSeconds(1)).build();
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue()
+                            + ", see " + log);
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (IOException notListeningYet) {
+                    // Keep polling until the server is up
+                }
+                Thread.sleep(POLL_MILLIS);
+            }
+            throw new IllegalStateException("No healthy answer within " + TIMEOUT + ", see " + log);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static String toJson(List<Result> results) {
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            json.append(String.format(Locale.ROOT,
+                    "  {\"mode\": \"%s\", \"medianMillis\": %d, \"minMillis\": %d, \"maxMillis\": %d}%s%n",
+                    result.mode, result.medianMillis, result.minMillis, result.maxMillis,
+                    i < results.size() - 1 ? "," : ""));
+        }
+        return json.append("]\n").toString();
+    }
+
+    private record Mode(String name, List<String> command) {
+    }
+
+    private record Result(String mode, long medianMillis, long minMillis, long maxMillis) {
+    }
+}
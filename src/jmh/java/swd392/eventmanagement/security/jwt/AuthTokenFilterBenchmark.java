@@ -0,0 +1,92 @@
+package swd392.eventmanagement.security.jwt;
+
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+import swd392.eventmanagement.benchmark.BenchmarkFixtures;
+import swd392.eventmanagement.security.service.PrincipalCache;
+import swd392.eventmanagement.security.service.RoleEpochRegistry;
+import swd392.eventmanagement.security.service.UserDetailsServiceImpl;
+import swd392.eventmanagement.security.service.UserPrincipal;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One pass of the JWT filter for an authenticated request. {@code claimsPrincipal} builds
+ * the principal from the token; {@code staleRolesFallback} has the role epoch bumped so
+ * the filter falls back to the (stubbed) user lookup.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class AuthTokenFilterBenchmark {
+    private static final long USER_ID = 42L;
+    private static final long STALE_USER_ID = 43L;
+
+    private AuthTokenFilter filter;
+    private MockHttpServletRequest currentRequest;
+    private MockHttpServletRequest staleRequest;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        JwtUtils jwtUtils = BenchmarkFixtures.jwtUtils(10000);
+
+        RoleEpochRegistry roleEpochRegistry = new RoleEpochRegistry();
+        ReflectionTestUtils.setField(roleEpochRegistry, "principalCache", new PrincipalCache());
+        roleEpochRegistry.apply(STALE_USER_ID, 1);
+
+        filter = new AuthTokenFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "userDetailsService", new StubUserDetailsService());
+        ReflectionTestUtils.setField(filter, "roleEpochRegistry", roleEpochRegistry);
+        ReflectionTestUtils.setField(filter, "authMetrics", BenchmarkFixtures.authMetrics());
+
+        currentRequest = request(jwtUtils.generateAccessToken(
+                USER_ID, "student42@fpt.edu.vn", "Student 42", List.of("ROLE_STUDENT"), 0));
+        staleRequest = request(jwtUtils.generateAccessToken(
+                STALE_USER_ID, "student43@fpt.edu.vn", "Student 43", List.of("ROLE_STUDENT"), 0));
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object claimsPrincipal(Blackhole blackhole) throws Exception {
+        return filter(currentRequest, blackhole);
+    }
+
+    @Benchmark
+    public Object staleRolesFallback(Blackhole blackhole) throws Exception {
+        return filter(staleRequest, blackhole);
+    }
+
+    private Object filter(MockHttpServletRequest request, Blackhole blackhole) throws Exception {
+        FilterChain chain = (req, res) -> blackhole.consume(req);
+        try {
+            filter.doFilterInternal(request, response, chain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", "Bearer " + token);
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+
+    private static class StubUserDetailsService extends UserDetailsServiceImpl {
+        @Override
+        public UserDetails loadUserByUsername(String email) {
+            return new UserPrincipal(STALE_USER_ID, email, List.of(new SimpleGrantedAuthority("ROLE_STUDENT")));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package swd392.eventmanagement.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import swd392.eventmanagement.benchmark.BenchmarkFixtures;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access token issue and verification. {@code cached} goes through the verified-token
+ * cache as a repeat request would; {@code uncached} pays for the HMAC check and JSON
+ * parse every time, as the first request with a new token does.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class JwtUtilsBenchmark {
+    private static final List<String> ROLES = List.of("ROLE_STUDENT");
+
+    private JwtUtils cachedJwtUtils;
+    private JwtUtils uncachedJwtUtils;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedJwtUtils = BenchmarkFixtures.jwtUtils(10000);
+        uncachedJwtUtils = BenchmarkFixtures.jwtUtils(0);
+        token = cachedJwtUtils.generateAccessToken(42L, "student42@fpt.edu.vn", "Student 42", ROLES, 0);
+        cachedJwtUtils.validateAndGetClaims(token);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return cachedJwtUtils.generateAccessToken(42L, "student42@fpt.edu.vn", "Student 42", ROLES, 0);
+    }
+
+    @Benchmark
+    public boolean validateCached() {
+        return cachedJwtUtils.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public boolean validateUncached() {
+        return uncachedJwtUtils.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public Claims parseClaimsCached() {
+        return cachedJwtUtils.getClaimsFromJwtToken(token);
+    }
+
+    @Benchmark
+    public Claims parseClaimsUncached() {
+        return uncachedJwtUtils.getClaimsFromJwtToken(token);
+    }
+}
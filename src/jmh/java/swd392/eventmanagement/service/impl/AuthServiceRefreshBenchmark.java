@@ -0,0 +1,66 @@
+package swd392.eventmanagement.service.impl;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import swd392.eventmanagement.benchmark.BenchmarkFixtures;
+import swd392.eventmanagement.benchmark.InMemoryRepositories;
+import swd392.eventmanagement.model.dto.response.TokenRefreshResponse;
+import swd392.eventmanagement.security.service.PrincipalCache;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refresh token rotation through the real {@link RefreshTokenServiceImpl} and
+ * {@link AuthServiceImpl}, with the repositories replaced by in-memory maps. Measures
+ * the CPU side of a refresh (hashing, token generation, access token signing);
+ * database round trips are not included.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class AuthServiceRefreshBenchmark {
+    private InMemoryRepositories repositories;
+    private AuthServiceImpl authService;
+
+    @Setup
+    public void setUp() {
+        repositories = new InMemoryRepositories();
+        repositories.addUser(BenchmarkFixtures.user(42L));
+
+        RefreshTokenServiceImpl refreshTokenService = new RefreshTokenServiceImpl();
+        ReflectionTestUtils.setField(refreshTokenService, "refreshTokenDurationMs", BenchmarkFixtures.REFRESH_EXPIRATION_MS);
+        ReflectionTestUtils.setField(refreshTokenService, "refreshTokenRepository", repositories.refreshTokenRepository());
+        ReflectionTestUtils.setField(refreshTokenService, "userRepository", repositories.userRepository());
+        PrincipalCache principalCache = new PrincipalCache();
+        ReflectionTestUtils.setField(principalCache, "userRepository", repositories.userRepository());
+        ReflectionTestUtils.setField(refreshTokenService, "principalCache", principalCache);
+        ReflectionTestUtils.setField(refreshTokenService, "auditLog", BenchmarkFixtures.auditLog());
+
+        authService = new AuthServiceImpl();
+        ReflectionTestUtils.setField(authService, "jwtUtils", BenchmarkFixtures.jwtUtils(10000));
+        ReflectionTestUtils.setField(authService, "refreshTokenService", refreshTokenService);
+        ReflectionTestUtils.setField(authService, "authMetrics", BenchmarkFixtures.authMetrics());
+        ReflectionTestUtils.setField(authService, "auditLog", BenchmarkFixtures.auditLog());
+    }
+
+    // Each thread follows its own rotation chain, as one client session would
+    @State(Scope.Thread)
+    public static class Session {
+        String refreshToken;
+
+        @Setup
+        public void login(AuthServiceRefreshBenchmark benchmark) {
+            refreshToken = RefreshTokenCodec.generate();
+            benchmark.repositories.addToken(RefreshTokenCodec.hash(refreshToken), 42L,
+                    LocalDateTime.now().plusDays(7));
+        }
+    }
+
+    @Benchmark
+    public TokenRefreshResponse refreshToken(Session session) {
+        TokenRefreshResponse response = authService.refreshToken(session.refreshToken);
+        session.refreshToken = response.getRefreshToken();
+        return response;
+    }
+}
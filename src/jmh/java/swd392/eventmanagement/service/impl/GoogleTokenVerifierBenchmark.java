@@ -0,0 +1,37 @@
+package swd392.eventmanagement.service.impl;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import swd392.eventmanagement.benchmark.BenchmarkFixtures;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Domain allow-list check done on every Google login. Rejected emails are left out:
+ * they log a warning per call, which would dominate the measurement.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class GoogleTokenVerifierBenchmark {
+    @Param({"student42@fpt.edu.vn", "Lecturer.Name@GMAIL.COM"})
+    public String email;
+
+    private GoogleTokenVerifierServiceImpl verifier;
+
+    @Setup
+    public void setUp() {
+        verifier = new GoogleTokenVerifierServiceImpl();
+        ReflectionTestUtils.setField(verifier, "domainRegistry", BenchmarkFixtures.domainRegistry());
+    }
+
+    @Benchmark
+    public boolean isAllowedDomain() {
+        return verifier.isAllowedDomain(email);
+    }
+
+    @Benchmark
+    public String resolveRole() {
+        return verifier.resolveRole(email);
+    }
+}
@@ -0,0 +1,24 @@
+package swd392.eventmanagement.audit;
+
+public enum AuditEventType {
+    LOGIN_SUCCESS(false),
+    LOGIN_FAILURE(true),
+    DOMAIN_DENIED(true),
+    REFRESH_SUCCESS(false),
+    REFRESH_FAILURE(true),
+    REFRESH_TOKEN_REUSE(false),
+    LOGOUT(false),
+    LOGOUT_FAILURE(true),
+    TOKEN_REJECTED(true);
+
+    // Failures can be triggered at will by a client, so repeats are summarized
+    private final boolean summarized;
+
+    AuditEventType(boolean summarized) {
+        this.summarized = summarized;
+    }
+
+    public boolean isSummarized() {
+        return summarized;
+    }
+}
@@ -0,0 +1,102 @@
+package swd392.eventmanagement.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Security audit stream for logins, refreshes, logouts, token rejects and domain
+ * denials. Request threads only publish into a ring buffer; a background writer
+ * formats the events and appends them to the AUDIT logger, which logback-spring.xml
+ * routes to a rotated file.
+ */
+@Component
+public class AuditLog {
+    private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+    private static final Logger auditLogger = LoggerFactory.getLogger("AUDIT");
+    private static final int DRAIN_BATCH = 512;
+
+    @Value("${app.audit.buffer-size:8192}")
+    private int bufferSize;
+
+    @Value("${app.audit.summary-window-ms:10000}")
+    private long summaryWindowMs;
+
+    @Value("${app.audit.max-repeats-per-window:5}")
+    private int maxRepeatsPerWindow;
+
+    @Value("${app.audit.idle-wait-ms:10}")
+    private long idleWaitMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private AuditRingBuffer buffer;
+    private AuditSummarizer summarizer;
+    private Counter droppedCounter;
+    private Thread writer;
+    private volatile boolean running;
+
+    private final Consumer<String> sink = auditLogger::info;
+
+    @PostConstruct
+    void start() {
+        buffer = new AuditRingBuffer(bufferSize);
+        summarizer = new AuditSummarizer(summaryWindowMs, maxRepeatsPerWindow);
+        droppedCounter = Counter.builder("auth.audit.dropped")
+                .description("Audit events dropped because the writer fell a full buffer behind")
+                .register(meterRegistry);
+        running = true;
+        writer = new Thread(this::runWriteLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    public void publish(AuditEventType type, String subject, String detail) {
+        if (!buffer.offer(type, System.currentTimeMillis(), subject, detail)) {
+            droppedCounter.increment();
+        }
+    }
+
+    private void runWriteLoop() {
+        long idleWaitNanos = TimeUnit.MILLISECONDS.toNanos(idleWaitMs);
+        while (running) {
+            try {
+                int drained = buffer.drain(this::write, DRAIN_BATCH);
+                summarizer.flush(System.currentTimeMillis(), sink);
+                if (drained == 0) {
+                    LockSupport.parkNanos(idleWaitNanos);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Audit writer failed: {}", e.getMessage());
+            }
+        }
+        while (buffer.drain(this::write, DRAIN_BATCH) > 0) {
+            // Flush what was published before shutdown
+        }
+        summarizer.flushAll(System.currentTimeMillis(), sink);
+    }
+
+    private void write(AuditEventType type, long timestamp, String subject, String detail) {
+        summarizer.accept(type, timestamp, subject, detail, sink);
+    }
+}
@@ -0,0 +1,86 @@
+package swd392.eventmanagement.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded multi-producer, single-consumer ring of preallocated event slots. Producers
+ * claim a sequence with a CAS and publish the slot with a volatile write; nothing is
+ * allocated and no lock is taken. When the consumer falls a full ring behind, new
+ * events are rejected rather than blocking the caller.
+ */
+final class AuditRingBuffer {
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+
+    AuditRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+        }
+        mask = capacity - 1;
+    }
+
+    boolean offer(AuditEventType type, long timestamp, String subject, String detail) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed.get() >= slots.length) {
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        Slot slot = slots[(int) sequence & mask];
+        slot.type = type;
+        slot.timestamp = timestamp;
+        slot.subject = subject;
+        slot.detail = detail;
+        slot.sequence = sequence;
+        return true;
+    }
+
+    /**
+     * Hands up to {@code max} published events to {@code handler} in order. Must only be
+     * called from the single consumer thread.
+     */
+    int drain(Handler handler, int max) {
+        long sequence = consumed.get();
+        int drained = 0;
+        while (drained < max) {
+            Slot slot = slots[(int) sequence & mask];
+            if (slot.sequence != sequence) {
+                break;
+            }
+            AuditEventType type = slot.type;
+            long timestamp = slot.timestamp;
+            String subject = slot.subject;
+            String detail = slot.detail;
+            slot.subject = null;
+            slot.detail = null;
+            sequence++;
+            consumed.lazySet(sequence);
+            handler.handle(type, timestamp, subject, detail);
+            drained++;
+        }
+        return drained;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    @FunctionalInterface
+    interface Handler {
+        void handle(AuditEventType type, long timestamp, String subject, String detail);
+    }
+
+    private static final class Slot {
+        private volatile long sequence = -1;
+        private AuditEventType type;
+        private long timestamp;
+        private String subject;
+        private String detail;
+    }
+}
@@ -0,0 +1,94 @@
+package swd392.eventmanagement.audit;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Formats audit events into lines and collapses floods of repeated failures: within
+ * each window the first {@code maxRepeats} events with the same type and subject are
+ * written as-is, the rest are counted and reported in one summary line when the
+ * window closes. Single-threaded; only the audit writer calls it.
+ */
+final class AuditSummarizer {
+    private final long windowMs;
+    private final int maxRepeats;
+    private final Map<String, Repeat> repeats = new HashMap<>();
+    private final StringBuilder line = new StringBuilder(256);
+
+    AuditSummarizer(long windowMs, int maxRepeats) {
+        this.windowMs = windowMs;
+        this.maxRepeats = maxRepeats;
+    }
+
+    void accept(AuditEventType type, long timestamp, String subject, String detail, Consumer<String> out) {
+        if (type.isSummarized()) {
+            Repeat repeat = repeats.computeIfAbsent(type.name() + '|' + subject,
+                    key -> new Repeat(type, subject, timestamp));
+            if (++repeat.count > maxRepeats) {
+                repeat.lastDetail = detail;
+                return;
+            }
+        }
+        out.accept(format(timestamp, type.name(), subject, detail, null));
+    }
+
+    /**
+     * Closes windows older than {@code windowMs}, emitting a summary for each one that
+     * had events suppressed.
+     */
+    void flush(long now, Consumer<String> out) {
+        close(now, false, out);
+    }
+
+    void flushAll(long now, Consumer<String> out) {
+        close(now, true, out);
+    }
+
+    private void close(long now, boolean all, Consumer<String> out) {
+        Iterator<Repeat> iterator = repeats.values().iterator();
+        while (iterator.hasNext()) {
+            Repeat repeat = iterator.next();
+            if (!all && now - repeat.windowStart < windowMs) {
+                continue;
+            }
+            iterator.remove();
+            if (repeat.count > maxRepeats) {
+                out.accept(format(now, repeat.type.name() + "_SUMMARY", repeat.subject, repeat.lastDetail,
+                        "suppressed=" + (repeat.count - maxRepeats) + " total=" + repeat.count
+                                + " window_ms=" + (now - repeat.windowStart)));
+            }
+        }
+    }
+
+    private String format(long timestamp, String type, String subject, String detail, String extra) {
+        line.setLength(0);
+        line.append(Instant.ofEpochMilli(timestamp)).append(' ').append(type);
+        if (subject != null) {
+            line.append(" subject=").append(subject);
+        }
+        if (extra != null) {
+            line.append(' ').append(extra);
+        }
+        if (detail != null) {
+            line.append(" detail=\"").append(detail.replace('"', '\'').replace('\n', ' ')).append('"');
+        }
+        return line.toString();
+    }
+
+    private static final class Repeat {
+        private final AuditEventType type;
+        private final String subject;
+        private final long windowStart;
+        private int count;
+        private String lastDetail;
+
+        private Repeat(AuditEventType type, String subject, long windowStart) {
+            this.type = type;
+            this.subject = subject;
+            this.windowStart = windowStart;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package swd392.eventmanagement.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+import swd392.eventmanagement.model.entity.Role;
+import swd392.eventmanagement.model.entity.User;
+import swd392.eventmanagement.security.service.PrincipalCache;
+import swd392.eventmanagement.security.service.RoleEpochRegistry;
+import swd392.eventmanagement.service.impl.RoleCache;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the second-level cache coherent across nodes. Row triggers on users,
+ * user_roles and roles (migration V8) send {@code table:id} over Postgres NOTIFY on
+ * commit, whatever wrote the row (JPA, native upserts or the login batch writer), and
+ * every node LISTENs on one dedicated connection and evicts the matching entries by
+ * key. Taking a role away also sends {@code role_version:userId:version} (migration V9)
+ * for the {@link RoleEpochRegistry}, so the listener runs even with the second-level
+ * cache off.
+ */
+@Component
+public class EntityCacheInvalidator {
+    private static final Logger logger = LoggerFactory.getLogger(EntityCacheInvalidator.class);
+    private static final String CHANNEL = "entity_cache";
+    private static final String ROLE_VERSION_PREFIX = "role_version:";
+    private static final String USER_ROLES_COLLECTION = User.class.getName() + ".roles";
+
+    @Value("${app.cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.cache.invalidation.poll-timeout-ms:10000}")
+    private int pollTimeoutMs;
+
+    @Value("${app.cache.invalidation.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    @Value("${app.datasource.replicas.urls:}")
+    private String replicaUrls;
+
+    @Value("${app.datasource.replicas.max-lag-ms:1000}")
+    private long replicaMaxLagMs;
+
+    @Value("${app.datasource.replicas.health-check-ms:1000}")
+    private long replicaHealthCheckMs;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private RoleCache roleCache;
+
+    @Autowired
+    private RoleEpochRegistry roleEpochRegistry;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache cache;
+    private Counter reconnects;
+    private Thread listener;
+    private ScheduledExecutorService repeater;
+    private long repeatAfterMs;
+    private volatile Connection connection;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        if (!enabled) {
+            return;
+        }
+        reconnects = Counter.builder("cache.invalidation.reconnects")
+                .description("Times the cache invalidation listener had to reconnect")
+                .register(meterRegistry);
+        if (!replicaUrls.isBlank()) {
+            // A read on a lagging replica can cache the old row again right after the eviction;
+            // replicas further behind than max-lag-ms are not read from, so evicting again then is enough
+            repeatAfterMs = replicaMaxLagMs + replicaHealthCheckMs;
+            repeater = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "cache-invalidation-repeat");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        running = true;
+        listener = new Thread(this::runListenLoop, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (repeater != null) {
+            repeater.shutdownNow();
+        }
+        if (listener != null) {
+            closeQuietly(connection);
+            listener.interrupt();
+            listener.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    // A cached email resolving to this user under an old address is caught when the user is loaded
+    public void evictUser(Long userId) {
+        cache.evictEntityData(User.class, userId);
+        cache.evictCollectionData(USER_ROLES_COLLECTION, userId);
+        principalCache.evict(userId);
+    }
+
+    public void evictUserRoles(Long userId) {
+        cache.evictCollectionData(USER_ROLES_COLLECTION, userId);
+    }
+
+    public void evictRole(Integer roleId) {
+        cache.evictEntityData(Role.class, roleId);
+        roleCache.reload();
+    }
+
+    void apply(String payload) {
+        if (payload.startsWith(ROLE_VERSION_PREFIX)) {
+            // The new version travels with the notification, so no query on this thread
+            String[] userAndVersion = payload.substring(ROLE_VERSION_PREFIX.length()).split(":");
+            roleEpochRegistry.apply(Long.valueOf(userAndVersion[0]), Integer.parseInt(userAndVersion[1]));
+            meterRegistry.counter("cache.invalidation.received", "table", "role_version").increment();
+            return;
+        }
+        String table = evict(payload);
+        if (table == null) {
+            return;
+        }
+        meterRegistry.counter("cache.invalidation.received", "table", table).increment();
+        if (repeater != null) {
+            repeater.schedule(() -> evict(payload), repeatAfterMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private String evict(String payload) {
+        int separator = payload.indexOf(':');
+        if (separator < 0) {
+            return null;
+        }
+        String table = payload.substring(0, separator);
+        String id = payload.substring(separator + 1);
+        switch (table) {
+            case "users" -> evictUser(Long.valueOf(id));
+            case "user_roles" -> evictUserRoles(Long.valueOf(id));
+            case "roles" -> evictRole(Integer.valueOf(id));
+            default -> {
+                return null;
+            }
+        }
+        return table;
+    }
+
+    private void runListenLoop() {
+        while (running) {
+            try (Connection listening = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                connection = listening;
+                try (Statement statement = listening.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Anything sent while we were not listening is lost
+                cache.evictAllRegions();
+                roleEpochRegistry.reload();
+                logger.info("Listening for cache invalidations on channel {}", CHANNEL);
+
+                PGConnection pgConnection = listening.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null && notifications.length > 0) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    } else if (!listening.isValid(pollTimeoutMs / 1000 + 1)) {
+                        throw new SQLException("Listener connection is no longer valid");
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                reconnects.increment();
+                logger.warn("Cache invalidation listener failed, reconnecting in {} ms: {}",
+                        reconnectDelayMs, e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+                // Shutting down
+            }
+        }
+    }
+}
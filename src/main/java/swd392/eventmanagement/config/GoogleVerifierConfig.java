@@ -0,0 +1,46 @@
+package swd392.eventmanagement.config;
+
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import swd392.eventmanagement.security.google.FileGoogleKeySource;
+import swd392.eventmanagement.security.google.GoogleKeySource;
+import swd392.eventmanagement.security.google.HttpGoogleKeySource;
+
+import java.nio.file.Path;
+
+/**
+ * Google ID token verification beans. Lazy, like the verifier service that uses them,
+ * to keep the Google HTTP client and JSON stack off the startup path.
+ */
+@Lazy
+@Configuration
+public class GoogleVerifierConfig {
+
+    @Bean
+    JsonFactory googleJsonFactory() {
+        return GsonFactory.getDefaultInstance();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.auth.google.key-source", havingValue = "file")
+    GoogleKeySource fileGoogleKeySource(
+            JsonFactory googleJsonFactory,
+            @Value("${app.auth.google.key-file}") String keyFile,
+            @Value("${app.auth.google.key-file-reload-ms:3600000}") long reloadIntervalMs) {
+        return new FileGoogleKeySource(Path.of(keyFile), googleJsonFactory, reloadIntervalMs);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.auth.google.key-source", havingValue = "http", matchIfMissing = true)
+    GoogleKeySource httpGoogleKeySource(
+            JsonFactory googleJsonFactory,
+            @Value("${app.auth.google.certs-url:https://www.googleapis.com/oauth2/v1/certs}") String certsUrl) {
+        return new HttpGoogleKeySource(new NetHttpTransport(), googleJsonFactory, certsUrl);
+    }
+}
@@ -0,0 +1,37 @@
+package swd392.eventmanagement.config;
+
+/**
+ * Pins read-only work on the current thread to the primary while a {@link Pin} is
+ * open, for reads that must see a write the replicas may not have replayed yet.
+ * Pins nest; a no-op when no replicas are configured.
+ */
+public final class PrimaryReads {
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private PrimaryReads() {
+    }
+
+    public static Pin pin() {
+        DEPTH.get()[0]++;
+        return Pin.INSTANCE;
+    }
+
+    public static boolean isPinned() {
+        return DEPTH.get()[0] > 0;
+    }
+
+    public static final class Pin implements AutoCloseable {
+        private static final Pin INSTANCE = new Pin();
+
+        private Pin() {
+        }
+
+        @Override
+        public void close() {
+            int[] depth = DEPTH.get();
+            if (depth[0] > 0 && --depth[0] == 0) {
+                DEPTH.remove();
+            }
+        }
+    }
+}
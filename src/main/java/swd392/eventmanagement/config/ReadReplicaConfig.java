@@ -0,0 +1,76 @@
+package swd392.eventmanagement.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends {@code @Transactional(readOnly = true)} work to the replicas listed in
+ * app.datasource.replicas.urls and everything else to the primary. The lazy proxy
+ * defers fetching the physical connection until the first statement, by which time
+ * the transaction's read-only flag decides the target. Without replicas configured
+ * Spring Boot's single pool is used unchanged.
+ */
+@Configuration
+@ConditionalOnExpression("'${app.datasource.replicas.urls:}' != ''")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    ReplicaDataSource replicaDataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            DataSourceProperties properties,
+            MeterRegistry meterRegistry,
+            @Value("${app.datasource.replicas.urls}") String urls,
+            @Value("${app.datasource.replicas.username:${spring.datasource.username}}") String username,
+            @Value("${app.datasource.replicas.password:${spring.datasource.password}}") String password,
+            @Value("${app.datasource.replicas.pool-size:20}") int poolSize,
+            @Value("${app.datasource.replicas.connection-timeout-ms:1000}") long connectionTimeoutMs,
+            @Value("${app.datasource.replicas.max-lag-ms:1000}") long maxLagMs) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (String url : urls.split(",")) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + pools.size());
+            config.setJdbcUrl(url.trim());
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setDriverClassName(properties.determineDriverClassName());
+            config.setMaximumPoolSize(poolSize);
+            config.setConnectionTimeout(connectionTimeoutMs);
+            config.setReadOnly(true);
+            // A replica that is down at startup must not keep the application from starting
+            config.setInitializationFailTimeout(-1);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            pools.add(new HikariDataSource(config));
+        }
+        return new ReplicaDataSource(primaryDataSource, pools, maxLagMs, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                          ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,178 @@
+package swd392.eventmanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out read-only connections from the replica pools in round-robin order,
+ * skipping replicas that failed their last health check or lag the primary by more
+ * than {@code maxLagMs}. Falls back to the primary when no replica qualifies or the
+ * current thread is pinned through {@link PrimaryReads}.
+ */
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+    private static final String PRIMARY_LSN_SQL = "SELECT pg_current_wal_lsn()::text";
+
+    // Caught up with the primary counts as no lag, so an idle primary does not look like lag. A
+    // replica that lost its WAL stream falls behind the primary and ages from its last replay.
+    private static final String LAG_SQL = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_replay_lsn() >= CAST(? AS pg_lsn) THEN 0
+                ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000
+            END
+            """;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagMs;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter fallbacks;
+    private final Counter pinned;
+
+    public ReplicaDataSource(DataSource primary, List<HikariDataSource> pools, long maxLagMs,
+                             MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = pools.stream().map(Replica::new).toList();
+        this.maxLagMs = maxLagMs;
+        this.fallbacks = Counter.builder("db.replica.fallback")
+                .description("Read-only connections sent to the primary because no replica qualified")
+                .register(meterRegistry);
+        this.pinned = Counter.builder("db.replica.pinned")
+                .description("Read-only connections sent to the primary for read-your-writes")
+                .register(meterRegistry);
+        for (Replica replica : replicas) {
+            Gauge.builder("db.replica.lag", replica, r -> r.healthy ? r.lagMs : Double.NaN)
+                    .description("Replication lag seen at the last health check")
+                    .baseUnit("milliseconds")
+                    .tag("replica", replica.pool.getPoolName())
+                    .register(meterRegistry);
+        }
+        checkReplicas();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection(target -> target.getConnection(username, password));
+    }
+
+    private Connection getConnection(ConnectionSource source) throws SQLException {
+        if (PrimaryReads.isPinned()) {
+            pinned.increment();
+            return source.get(primary);
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy && replica.lagMs <= maxLagMs) {
+                try {
+                    return source.get(replica.pool);
+                } catch (SQLException e) {
+                    replica.markDown(e);
+                }
+            }
+        }
+        fallbacks.increment();
+        return source.get(primary);
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.health-check-ms:1000}")
+    public void checkReplicas() {
+        String primaryLsn = primaryLsn();
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(LAG_SQL)) {
+                statement.setString(1, primaryLsn);
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    long lagMs = rs.getLong(1);
+                    // Behind the primary without ever having replayed a transaction
+                    replica.markUp(rs.wasNull() ? Long.MAX_VALUE : lagMs);
+                }
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+    }
+
+    // Without the primary's position every replica is judged by the age of its last replay
+    private String primaryLsn() {
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(PRIMARY_LSN_SQL)) {
+            rs.next();
+            return rs.getString(1);
+        } catch (SQLException e) {
+            logger.debug("Could not read the primary WAL position: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Overrides a replica's health-check result; used by tests.
+     */
+    void setStatus(int index, boolean healthy, long lagMs) {
+        Replica replica = replicas.get(index);
+        replica.lagMs = lagMs;
+        replica.healthy = healthy;
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get(DataSource target) throws SQLException;
+    }
+
+    private static final class Replica {
+        private final HikariDataSource pool;
+        // Assumed up until the first check, so a replica that is down at startup gets logged
+        private volatile boolean healthy = true;
+        private volatile long lagMs;
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+
+        private void markUp(long lagMs) {
+            this.lagMs = lagMs;
+            if (!healthy) {
+                healthy = true;
+                logger.info("Replica {} is available, lag {} ms", pool.getPoolName(), lagMs);
+            }
+        }
+
+        private void markDown(SQLException e) {
+            if (healthy) {
+                healthy = false;
+                logger.warn("Replica {} is unavailable, reads fall back to the primary: {}",
+                        pool.getPoolName(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package swd392.eventmanagement.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded Caffeine caches behind Hibernate's second-level cache. Every region is
+ * created up front with hibernate.javax.cache.missing_cache_strategy=fail, so a new
+ * {@code @Cache} or {@code @NaturalIdCache} region must be added here. The query cache
+ * stays off, since its regions can only be cleared as a whole. Other nodes' writes
+ * arrive through {@link swd392.eventmanagement.cache.EntityCacheInvalidator}; the TTL
+ * only bounds staleness if a notification is ever lost.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+    // Region names used in the @Cache and @NaturalIdCache annotations on the entities
+    public static final String USERS_REGION = "users";
+    public static final String USER_ROLES_REGION = "users.roles";
+    public static final String ROLES_REGION = "roles";
+    public static final String USER_BY_EMAIL_REGION = "users.by-email";
+
+    @Bean(destroyMethod = "close")
+    CacheManager hibernateCacheManager(
+            @Value("${app.cache.entity.max-size:50000}") long maxSize,
+            @Value("${app.cache.entity.ttl-ms:600000}") long ttlMs) {
+        // The provider's default manager is shared by the whole JVM; each context gets its own
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+        cacheManager.createCache(USERS_REGION, bounded(maxSize, ttlMs));
+        cacheManager.createCache(USER_ROLES_REGION, bounded(maxSize, ttlMs));
+        cacheManager.createCache(USER_BY_EMAIL_REGION, bounded(maxSize, ttlMs));
+        cacheManager.createCache(ROLES_REGION, bounded(1000, ttlMs));
+        return cacheManager;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(long maxSize, long ttlMs) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        if (ttlMs > 0) {
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MILLISECONDS.toNanos(ttlMs)));
+        }
+        return configuration;
+    }
+}
@@ -1,8 +1,10 @@
 package swd392.eventmanagement.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -13,6 +15,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import swd392.eventmanagement.security.jwt.AuthTokenFilter;
+import swd392.eventmanagement.security.ratelimit.RateLimitFilter;
 
 import java.util.Arrays;
 
@@ -20,12 +23,15 @@ import java.util.Arrays;
 @EnableWebSecurity
 public class SecurityConfig {
     private final AuthTokenFilter authTokenFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final String allowedOrigins;
 
     public SecurityConfig(
             AuthTokenFilter authTokenFilter,
+            RateLimitFilter rateLimitFilter,
             @Value("${spring.web.cors.allowed-origins}") String allowedOrigins) {
         this.authTokenFilter = authTokenFilter;
+        this.rateLimitFilter = rateLimitFilter;
         this.allowedOrigins = allowedOrigins;
     }
     
@@ -38,8 +44,15 @@ public class SecurityConfig {
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**").permitAll()
+                .requestMatchers("/.well-known/jwks.json").permitAll()
+                .requestMatchers(EndpointRequest.to("health")).permitAll()
+                .requestMatchers(EndpointRequest.to("prometheus", "metrics")).hasRole("ADMIN")
+                .requestMatchers(HttpMethod.GET, "/api/events").permitAll()
+                .requestMatchers(HttpMethod.POST, "/api/events").hasAnyRole("LECTURER", "ADMIN")
+                .requestMatchers(HttpMethod.POST, "/api/events/*/check-ins").hasAnyRole("LECTURER", "ADMIN")
                 .anyRequest().authenticated())
-            .addFilterBefore(authTokenFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(authTokenFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterBefore(rateLimitFilter, AuthTokenFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,36 @@
+package swd392.eventmanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Extra wiring for {@code spring.threads.virtual.enabled=true}. Spring Boot already
+ * moves Tomcat, {@code @Async} and {@code @Scheduled} work onto virtual threads; this
+ * puts an admission guard in front of every Hikari pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean
+    static BeanPostProcessor connectionAdmissionPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    logger.info("Guarding pool {} with {} connection permits", beanName, hikari.getMaximumPoolSize());
+                    // One connectionTimeout for permit and pool together; closing the guard closes the pool
+                    return new BoundedConnectionDataSource(
+                            hikari, hikari.getMaximumPoolSize(), hikari.getConnectionTimeout());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,23 +1,69 @@
 package swd392.eventmanagement.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import swd392.eventmanagement.exception.RateLimitExceededException;
 import swd392.eventmanagement.model.dto.request.GoogleTokenRequest;
 import swd392.eventmanagement.model.dto.request.TokenRefreshRequest;
+import swd392.eventmanagement.model.dto.response.UserProfileResponse;
+import swd392.eventmanagement.security.service.UserPrincipal;
 import swd392.eventmanagement.service.AuthService;
+import swd392.eventmanagement.service.UserService;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
+    // Browsers must revalidate, but may keep the body for the 304
+    private static final CacheControl PROFILE_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private UserService userService;
+
+    /**
+     * The caller's profile, read from the verified access token without touching the
+     * database. {@code fresh=true} reads the stored profile instead, for when a name or
+     * role change must show before the next token refresh. Either way a matching
+     * If-None-Match gets a 304 with no body.
+     */
     @GetMapping("/me")
-    public ResponseEntity<?> getCurrentUser(@AuthenticationPrincipal OAuth2User principal) {
-        return ResponseEntity.ok(principal.getAttributes());
+    public ResponseEntity<?> getCurrentUser(@AuthenticationPrincipal UserPrincipal principal,
+                                            @RequestParam(defaultValue = "false") boolean fresh,
+                                            WebRequest request) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        UserProfileResponse profile;
+        if (fresh) {
+            Optional<UserProfileResponse> stored = userService.getProfile(principal.getId());
+            if (stored.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            profile = stored.get();
+        } else {
+            profile = new UserProfileResponse(principal.getId(), principal.getEmail(), principal.getFullName(),
+                    principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        }
+
+        String etag = profileEtag(profile);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(PROFILE_CACHE_CONTROL).body(profile);
     }
 
     @PostMapping("/refresh")
@@ -30,8 +76,14 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<?> logoutUser(@RequestBody TokenRefreshRequest request) {
-        authService.logout(request.getRefreshToken());
+    public ResponseEntity<?> logoutUser(@RequestBody TokenRefreshRequest request,
+                                        @AuthenticationPrincipal UserPrincipal principal) {
+        // The access token presented with the request, if any, is revoked as well
+        if (principal != null) {
+            authService.logout(request.getRefreshToken(), principal.getTokenId(), principal.getTokenExpiresAt());
+        } else {
+            authService.logout(request.getRefreshToken(), null, null);
+        }
         return ResponseEntity.ok().body("Logout successful");
     }
 
@@ -39,8 +91,22 @@ public class AuthController {
     public ResponseEntity<?> authenticateWithGoogle(@RequestBody GoogleTokenRequest request) {
         try {
             return ResponseEntity.ok(authService.authenticateWithGoogle(request));
+        } catch (RateLimitExceededException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Authentication failed: " + e.getMessage());
         }
     }
+
+    // Strong validator over everything the body contains, so equal tags mean equal bodies
+    private static String profileEtag(UserProfileResponse profile) {
+        String content = profile.getId() + "\n" + profile.getEmail() + "\n" + profile.getFullName()
+                + "\n" + String.join(",", profile.getRoles());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return '"' + HexFormat.of().formatHex(digest, 0, 16) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 }
\ No newline at end of file
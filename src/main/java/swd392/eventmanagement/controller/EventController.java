@@ -0,0 +1,181 @@
+package swd392.eventmanagement.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import swd392.eventmanagement.exception.ResourceNotFoundException;
+import swd392.eventmanagement.export.ExportFormat;
+import swd392.eventmanagement.model.dto.request.CreateEventRequest;
+import swd392.eventmanagement.model.dto.request.ScanBatchRequest;
+import swd392.eventmanagement.model.dto.response.RegistrationResponse;
+import swd392.eventmanagement.model.entity.RegistrationStatus;
+import swd392.eventmanagement.security.service.UserPrincipal;
+import swd392.eventmanagement.service.AttendeeExportService;
+import swd392.eventmanagement.service.CheckInService;
+import swd392.eventmanagement.service.EventService;
+import swd392.eventmanagement.service.RegistrationService;
+import swd392.eventmanagement.service.WaitlistService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/events")
+public class EventController {
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private RegistrationService registrationService;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private CheckInService checkInService;
+
+    @Autowired
+    private AttendeeExportService attendeeExportService;
+
+    @PostMapping
+    public ResponseEntity<?> createEvent(@RequestBody CreateEventRequest request,
+                                         @AuthenticationPrincipal UserPrincipal principal) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(eventService.createEvent(principal.getId(), request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * The event catalog, by start time. Keyset paginated: follow {@code nextCursor}
+     * instead of asking for page numbers.
+     */
+    @GetMapping
+    public ResponseEntity<?> listEvents(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long organizerId,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(eventService.listEvents(from, to, organizerId, category, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{eventId}")
+    public ResponseEntity<?> getEvent(@PathVariable Long eventId) {
+        return ResponseEntity.ok(eventService.getEvent(eventId)
+                .orElseThrow(() -> new ResourceNotFoundException("Event not found: " + eventId)));
+    }
+
+    /**
+     * Registers the caller. 201 for a new registration, 200 when the caller already held
+     * one, 202 when the event is full and the caller is on its waitlist, 409 when the
+     * event has started.
+     */
+    @PostMapping("/{eventId}/registrations")
+    public ResponseEntity<RegistrationResponse> register(@PathVariable Long eventId,
+                                                         @AuthenticationPrincipal UserPrincipal principal) {
+        RegistrationResponse registration = registrationService.registerOrWaitlist(eventId, principal.getId());
+        if (RegistrationStatus.WAITLISTED.name().equals(registration.getStatus())) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(registration);
+        }
+        return ResponseEntity.status(registration.isCreated() ? HttpStatus.CREATED : HttpStatus.OK).body(registration);
+    }
+
+    @DeleteMapping("/{eventId}/registrations")
+    public ResponseEntity<?> cancelRegistration(@PathVariable Long eventId,
+                                                @AuthenticationPrincipal UserPrincipal principal) {
+        if (!registrationService.cancel(eventId, principal.getId())) {
+            throw new ResourceNotFoundException("No registration for event " + eventId);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{eventId}/waitlist")
+    public ResponseEntity<?> leaveWaitlist(@PathVariable Long eventId,
+                                           @AuthenticationPrincipal UserPrincipal principal) {
+        if (!waitlistService.leave(eventId, principal.getId())) {
+            throw new ResourceNotFoundException("Not on the waitlist of event " + eventId);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * The caller's check-in ticket, a signed QR payload that gate scanners verify offline
+     * against /.well-known/jwks.json.
+     */
+    @GetMapping("/{eventId}/ticket")
+    public ResponseEntity<?> getTicket(@PathVariable Long eventId, @AuthenticationPrincipal UserPrincipal principal) {
+        try {
+            return ResponseEntity.ok(checkInService.issueTicket(eventId, principal.getId()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Bulk upload of gate scans. Safe to retry: scans already merged are reported as
+     * duplicates and change nothing.
+     */
+    @PostMapping("/{eventId}/check-ins")
+    public ResponseEntity<?> uploadScans(@PathVariable Long eventId, @RequestBody ScanBatchRequest request) {
+        try {
+            return ResponseEntity.ok(checkInService.ingestScans(eventId, request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * The event's confirmed attendees with their check-in time, as CSV or XLSX, for its
+     * organizer or an admin. Streamed from the database as it is read; CSV is gzipped for
+     * clients that accept it.
+     */
+    @GetMapping("/{eventId}/attendees")
+    public ResponseEntity<?> exportAttendees(@PathVariable Long eventId,
+                                             @RequestParam(defaultValue = "csv") String format,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                             String acceptEncoding,
+                                             @AuthenticationPrincipal UserPrincipal principal,
+                                             HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.parse(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        boolean admin = principal.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        try (AttendeeExportService.Export export =
+                     attendeeExportService.open(eventId, principal.getId(), admin, exportFormat)) {
+            response.setContentType(exportFormat.getContentType());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename("event-" + eventId + "-attendees." + exportFormat.getExtension())
+                    .build().toString());
+            OutputStream out = response.getOutputStream();
+            if (exportFormat.isCompressible()) {
+                response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                    response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                    out = new GZIPOutputStream(out, 8192);
+                }
+            }
+            export.writeTo(out);
+        }
+        // Already written to the response
+        return null;
+    }
+}
@@ -0,0 +1,35 @@
+package swd392.eventmanagement.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import swd392.eventmanagement.security.jwt.SigningKeyRing;
+
+import java.util.concurrent.TimeUnit;
+
+@RestController
+public class JwksController {
+    @Autowired
+    private SigningKeyRing signingKeyRing;
+
+    // Keep below app.auth.jwt.key-publish-ahead-ms so caches see new keys before they sign
+    @Value("${app.auth.jwt.jwks-max-age-seconds:300}")
+    private long maxAgeSeconds;
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getJwks(WebRequest request) {
+        String etag = signingKeyRing.jwksEtag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic())
+                .eTag(etag)
+                .body(signingKeyRing.jwksJson());
+    }
+}
@@ -0,0 +1,13 @@
+package swd392.eventmanagement.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class EventFullException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public EventFullException(Long eventId) {
+        super("Event " + eventId + " is full");
+    }
+}
@@ -0,0 +1,13 @@
+package swd392.eventmanagement.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class RegistrationClosedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public RegistrationClosedException(Long eventId) {
+        super("Registration for event " + eventId + " is closed");
+    }
+}
@@ -0,0 +1,63 @@
+package swd392.eventmanagement.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * RFC 4180 CSV in UTF-8. Cells a spreadsheet would run as a formula are written as
+ * text, since names and emails come from users' Google profiles.
+ */
+public final class CsvRowWriter implements RowWriter {
+    private final Writer writer;
+
+    public CsvRowWriter(OutputStream out, String... header) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192);
+        // Without a byte order mark Excel reads the file in the local code page
+        writer.write('\uFEFF');
+        row(header);
+    }
+
+    @Override
+    public void row(String... cells) throws IOException {
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCell(cells[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+
+    private void writeCell(String cell) throws IOException {
+        if (cell == null || cell.isEmpty()) {
+            return;
+        }
+        boolean formula = "=+-@\t\r".indexOf(cell.charAt(0)) >= 0;
+        if (!formula && cell.indexOf(',') < 0 && cell.indexOf('"') < 0
+                && cell.indexOf('\n') < 0 && cell.indexOf('\r') < 0) {
+            writer.write(cell);
+            return;
+        }
+        writer.write('"');
+        if (formula) {
+            writer.write('\'');
+        }
+        for (int i = 0; i < cell.length(); i++) {
+            char c = cell.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,51 @@
+package swd392.eventmanagement.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public enum ExportFormat {
+    CSV("text/csv;charset=UTF-8", "csv", true),
+    // Already a zip archive: compressing it again only costs CPU
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx", false);
+
+    private final String contentType;
+    private final String extension;
+    private final boolean compressible;
+
+    ExportFormat(String contentType, String extension, boolean compressible) {
+        this.contentType = contentType;
+        this.extension = extension;
+        this.compressible = compressible;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public boolean isCompressible() {
+        return compressible;
+    }
+
+    /**
+     * Starts a document on {@code out} and writes the header row.
+     */
+    public RowWriter open(OutputStream out, String sheetName, String... header) throws IOException {
+        return switch (this) {
+            case CSV -> new CsvRowWriter(out, header);
+            case XLSX -> new XlsxRowWriter(out, sheetName, header);
+        };
+    }
+
+    public static ExportFormat parse(String value) {
+        for (ExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + value);
+    }
+}
@@ -0,0 +1,19 @@
+package swd392.eventmanagement.export;
+
+import java.io.IOException;
+
+/**
+ * Writes a table one row at a time. Nothing but the current row is held, so a table of
+ * any length is written in constant memory.
+ */
+public interface RowWriter {
+    /**
+     * Writes one row; null cells are left empty.
+     */
+    void row(String... cells) throws IOException;
+
+    /**
+     * Completes the document and flushes it to the underlying stream, which stays open.
+     */
+    void finish() throws IOException;
+}
@@ -0,0 +1,119 @@
+package swd392.eventmanagement.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A single-sheet workbook written straight into the zip stream, cells as inline
+ * strings. The worksheet is the last zip entry, so rows go out as they come and no
+ * shared-strings table has to be built in memory first.
+ */
+public final class XlsxRowWriter implements RowWriter {
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    private static final String MAIN_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String RELS_NS = "http://schemas.openxmlformats.org/package/2006/relationships";
+    private static final String DOC_RELS_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    private static final String CONTENT_TYPES = XML_DECLARATION
+            + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+            + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+            + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+            + "<Override PartName=\"/xl/workbook.xml\""
+            + " ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+            + "<Override PartName=\"/xl/worksheets/sheet1.xml\""
+            + " ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+            + "</Types>";
+
+    private static final String PACKAGE_RELS = XML_DECLARATION
+            + "<Relationships xmlns=\"" + RELS_NS + "\">"
+            + "<Relationship Id=\"rId1\" Type=\"" + DOC_RELS_NS + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+            + "</Relationships>";
+
+    private static final String WORKBOOK_RELS = XML_DECLARATION
+            + "<Relationships xmlns=\"" + RELS_NS + "\">"
+            + "<Relationship Id=\"rId1\" Type=\"" + DOC_RELS_NS + "/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+            + "</Relationships>";
+
+    private final ZipOutputStream zip;
+    private final Writer writer;
+
+    public XlsxRowWriter(OutputStream out, String sheetName, String... header) throws IOException {
+        this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        this.writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 8192);
+        entry("[Content_Types].xml", CONTENT_TYPES);
+        entry("_rels/.rels", PACKAGE_RELS);
+        entry("xl/workbook.xml", XML_DECLARATION
+                + "<workbook xmlns=\"" + MAIN_NS + "\" xmlns:r=\"" + DOC_RELS_NS + "\"><sheets>"
+                + "<sheet name=\"" + escape(sheetName) + "\" sheetId=\"1\" r:id=\"rId1\"/>"
+                + "</sheets></workbook>");
+        entry("xl/_rels/workbook.xml.rels", WORKBOOK_RELS);
+
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+        writer.write(XML_DECLARATION);
+        writer.write("<worksheet xmlns=\"" + MAIN_NS + "\"><sheetData>");
+        row(header);
+    }
+
+    @Override
+    public void row(String... cells) throws IOException {
+        writer.write("<row>");
+        for (String cell : cells) {
+            if (cell == null || cell.isEmpty()) {
+                writer.write("<c/>");
+                continue;
+            }
+            writer.write("<c t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+            writer.write(escape(cell));
+            writer.write("</t></is></c>");
+        }
+        writer.write("</row>");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.write("</sheetData></worksheet>");
+        writer.flush();
+        zip.closeEntry();
+        zip.finish();
+        zip.flush();
+    }
+
+    private void entry(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        writer.write(content);
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String replacement = switch (c) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                // Control characters are not allowed in XML 1.0 at all
+                default -> c < 0x20 && c != '\t' && c != '\n' && c != '\r' || c == 0xFFFE || c == 0xFFFF ? "" : null;
+            };
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(text.length() + 16).append(text, 0, i);
+            }
+            if (escaped != null) {
+                if (replacement != null) {
+                    escaped.append(replacement);
+                } else {
+                    escaped.append(c);
+                }
+            }
+        }
+        return escaped != null ? escaped.toString() : text;
+    }
+}
@@ -0,0 +1,91 @@
+package swd392.eventmanagement.job;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import swd392.eventmanagement.notification.Notification;
+import swd392.eventmanagement.notification.NotificationKind;
+import swd392.eventmanagement.notification.NotificationSender;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+/**
+ * Hands notifications from the outbox to the {@link NotificationSender}. Each batch is
+ * claimed, sent and deleted in one transaction, so a notification leaves the outbox
+ * only once the sender took it, and nodes running the dispatcher side by side skip
+ * each other's batches instead of sending them twice.
+ */
+@Component
+public class NotificationOutboxDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutboxDispatcher.class);
+
+    private static final String CLAIM_SQL = """
+            SELECT id, kind, event_id, user_id, created_at FROM notification_outbox
+            ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final String DELETE_SQL = "DELETE FROM notification_outbox WHERE id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationSender notificationSender;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter dispatchedCounter;
+
+    @Value("${app.notification.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.notification.max-batches:100}")
+    private int maxBatchesPerRun;
+
+    public NotificationOutboxDispatcher(JdbcTemplate jdbcTemplate, NotificationSender notificationSender,
+                                        PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.notificationSender = notificationSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dispatchedCounter = Counter.builder("notifications.dispatched")
+                .description("Notifications handed from the outbox to the sender")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.notification.dispatch-interval-ms:1000}")
+    public void dispatch() {
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int sent;
+            try {
+                sent = transactionTemplate.execute(status -> dispatchBatch());
+            } catch (RuntimeException e) {
+                logger.warn("Notification dispatch failed, the batch stays in the outbox: {}", e.getMessage());
+                return;
+            }
+            dispatchedCounter.increment(sent);
+            if (sent < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private int dispatchBatch() {
+        List<Notification> notifications = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new Notification(
+                rs.getLong("id"), NotificationKind.valueOf(rs.getString("kind")), rs.getLong("event_id"),
+                rs.getLong("user_id"), rs.getTimestamp("created_at").toLocalDateTime()), batchSize);
+        if (notifications.isEmpty()) {
+            return 0;
+        }
+        notificationSender.send(notifications);
+        Long[] ids = notifications.stream().map(Notification::id).toArray(Long[]::new);
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(DELETE_SQL);
+            ps.setArray(1, con.createArrayOf("int8", ids));
+            return ps;
+        });
+        return notifications.size();
+    }
+}
@@ -0,0 +1,68 @@
+package swd392.eventmanagement.job;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import swd392.eventmanagement.repository.RefreshTokenRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes expired refresh tokens in small chunks, each in its own short
+ * transaction, so the purge never holds long locks or produces large WAL bursts.
+ */
+@Component
+public class RefreshTokenPurgeJob {
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenPurgeJob.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Counter purgedCounter;
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    @Value("${app.auth.refresh-token.purge-chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.auth.refresh-token.purge-max-chunks:100}")
+    private int maxChunksPerRun;
+
+    public RefreshTokenPurgeJob(RefreshTokenRepository refreshTokenRepository, MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.purgedCounter = Counter.builder("auth.refresh_tokens.purged")
+                .description("Expired refresh tokens deleted by the purge job")
+                .register(meterRegistry);
+        Gauge.builder("auth.refresh_tokens.purge.lag", lagSeconds, AtomicLong::get)
+                .description("Age of the oldest expired refresh token still present after the last purge")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.refresh-token.purge-interval-ms:300000}",
+            initialDelayString = "${app.auth.refresh-token.purge-initial-delay-ms:60000}")
+    public void purgeExpiredTokens() {
+        LocalDateTime now = LocalDateTime.now();
+        long total = 0;
+
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            int deleted = refreshTokenRepository.deleteExpiredChunk(now, chunkSize);
+            total += deleted;
+            purgedCounter.increment(deleted);
+            if (deleted < chunkSize) {
+                break;
+            }
+        }
+
+        LocalDateTime oldest = refreshTokenRepository.findOldestExpiryBefore(now);
+        lagSeconds.set(oldest != null ? Duration.between(oldest, now).toSeconds() : 0);
+
+        if (total > 0 || oldest != null) {
+            logger.info("Purged {} expired refresh tokens, remaining backlog lag {} s", total, lagSeconds.get());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package swd392.eventmanagement.job;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import swd392.eventmanagement.service.WaitlistService;
+
+/**
+ * Background pass that moves waiting users into seats freed since the last run. A burst
+ * of cancellations for one event costs one promotion, not one per cancellation.
+ */
+@Component
+public class WaitlistPromotionJob {
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistPromotionJob.class);
+
+    private final WaitlistService waitlistService;
+    private final Counter eventsCounter;
+    private final Counter promotedCounter;
+
+    public WaitlistPromotionJob(WaitlistService waitlistService, MeterRegistry meterRegistry) {
+        this.waitlistService = waitlistService;
+        this.eventsCounter = Counter.builder("waitlist.promotion.events")
+                .description("Per-event promotion transactions run by the waitlist pass")
+                .register(meterRegistry);
+        this.promotedCounter = Counter.builder("waitlist.promoted")
+                .description("Waiting users moved into a seat")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.waitlist.promotion-interval-ms:1000}")
+    public void promoteWaitlists() {
+        WaitlistService.PromotionRun run;
+        try {
+            run = waitlistService.promoteDueEvents();
+        } catch (RuntimeException e) {
+            logger.warn("Waitlist promotion pass failed: {}", e.getMessage());
+            return;
+        }
+        eventsCounter.increment(run.events());
+        promotedCounter.increment(run.promoted());
+        if (run.promoted() > 0) {
+            logger.info("Promoted {} waiting users into {} events", run.promoted(), run.events());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.waitlist.reconcile-interval-ms:60000}",
+            initialDelayString = "${app.waitlist.reconcile-interval-ms:60000}")
+    public void markMissedEventsDue() {
+        int marked;
+        try {
+            marked = waitlistService.markMissedEventsDue();
+        } catch (RuntimeException e) {
+            logger.warn("Waitlist reconcile failed: {}", e.getMessage());
+            return;
+        }
+        if (marked > 0) {
+            logger.info("Marked {} events with free seats and waiting users for promotion", marked);
+        }
+    }
+}
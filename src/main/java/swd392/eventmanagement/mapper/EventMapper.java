@@ -0,0 +1,21 @@
+package swd392.eventmanagement.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import swd392.eventmanagement.model.dto.response.EventResponse;
+import swd392.eventmanagement.model.dto.response.EventSummaryResponse;
+import swd392.eventmanagement.model.entity.Event;
+import swd392.eventmanagement.model.projection.EventSummary;
+
+import java.util.List;
+
+@Mapper
+public interface EventMapper {
+    // Reads only the foreign key, so a lazy organizer is not loaded
+    @Mapping(target = "organizerId", source = "organizer.id")
+    EventResponse toResponse(Event event);
+
+    EventSummaryResponse toSummaryResponse(EventSummary summary);
+
+    List<EventSummaryResponse> toSummaryResponses(List<EventSummary> summaries);
+}
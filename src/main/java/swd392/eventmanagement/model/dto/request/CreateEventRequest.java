@@ -0,0 +1,16 @@
+package swd392.eventmanagement.model.dto.request;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class CreateEventRequest {
+    private String title;
+    private String description;
+    private String category;
+    private String location;
+    private LocalDateTime startsAt;
+    private LocalDateTime endsAt;
+    private int capacity;
+}
@@ -0,0 +1,11 @@
+package swd392.eventmanagement.model.dto.request;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ScanBatchRequest {
+    private String scannerId;
+    private List<ScanRequest> scans;
+}
@@ -0,0 +1,13 @@
+package swd392.eventmanagement.model.dto.request;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ScanRequest {
+    // The QR payload as scanned
+    private String ticket;
+    // Scanner clock; the upload time is used when missing
+    private LocalDateTime scannedAt;
+}
@@ -0,0 +1,16 @@
+package swd392.eventmanagement.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class CheckInTicketResponse {
+    private Long eventId;
+    private Long userId;
+    // Signed JWS for the QR code, verifiable against /.well-known/jwks.json
+    private String ticket;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,14 @@
+package swd392.eventmanagement.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class EventPageResponse {
+    private List<EventSummaryResponse> items;
+    // Opaque; pass back as "cursor" for the next page. Null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,20 @@
+package swd392.eventmanagement.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class EventResponse {
+    private Long id;
+    private String title;
+    private String description;
+    private String category;
+    private String location;
+    private Long organizerId;
+    private LocalDateTime startsAt;
+    private LocalDateTime endsAt;
+    private int capacity;
+}
@@ -0,0 +1,17 @@
+package swd392.eventmanagement.model.dto.response;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class EventSummaryResponse {
+    private Long id;
+    private String title;
+    private String category;
+    private String location;
+    private Long organizerId;
+    private LocalDateTime startsAt;
+    private LocalDateTime endsAt;
+    private int capacity;
+}
@@ -0,0 +1,17 @@
+package swd392.eventmanagement.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class RegistrationResponse {
+    private Long eventId;
+    private Long userId;
+    private String status;
+    private LocalDateTime registeredAt;
+    // False when the user already held this registration and nothing changed
+    private boolean created;
+}
@@ -0,0 +1,17 @@
+package swd392.eventmanagement.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ScanBatchResponse {
+    private int received;
+    // Attendees checked in for the first time by this batch
+    private int checkedIn;
+    // Scans of attendees already checked in, in this batch or before
+    private int duplicates;
+    private List<ScanRejection> rejected;
+}
@@ -0,0 +1,12 @@
+package swd392.eventmanagement.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ScanRejection {
+    // Position of the scan in the uploaded batch
+    private int index;
+    private String reason;
+}
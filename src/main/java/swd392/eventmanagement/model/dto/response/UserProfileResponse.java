@@ -0,0 +1,25 @@
+package swd392.eventmanagement.model.dto.response;
+
+import lombok.Data;
+
+import java.util.Collection;
+import java.util.List;
+
+@Data
+public class UserProfileResponse {
+    private Long id;
+    private String email;
+    private String fullName;
+    // Sorted, without the ROLE_ prefix, as in JwtResponse
+    private List<String> roles;
+
+    public UserProfileResponse(Long id, String email, String fullName, Collection<String> roleNames) {
+        this.id = id;
+        this.email = email;
+        this.fullName = fullName;
+        this.roles = roleNames.stream()
+            .map(roleName -> roleName.replace("ROLE_", ""))
+            .sorted()
+            .toList();
+    }
+}
@@ -0,0 +1,74 @@
+package swd392.eventmanagement.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+// Keyset pagination indexes for the catalog, (filter, starts_at, id). The migration adds
+// the listed columns as INCLUDE, which JPA cannot express, so pages are index-only scans
+@Table(name = "events", indexes = {
+    @Index(name = "idx_events_starts_at", columnList = "starts_at, id"),
+    @Index(name = "idx_events_category_starts_at", columnList = "category, starts_at, id"),
+    @Index(name = "idx_events_organizer_starts_at", columnList = "organizer_id, starts_at, id")
+})
+public class Event {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "events_id_seq")
+    @SequenceGenerator(name = "events_id_seq", sequenceName = "events_id_seq", allocationSize = 50)
+    @ColumnDefault("nextval('events_id_seq')")
+    private Long id;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Column(length = 50, nullable = false)
+    private String category;
+
+    private String location;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "organizer_id", nullable = false)
+    private User organizer;
+
+    @Column(name = "starts_at", nullable = false)
+    private LocalDateTime startsAt;
+
+    @Column(name = "ends_at", nullable = false)
+    private LocalDateTime endsAt;
+
+    @Column(nullable = false)
+    private int capacity;
+
+    // Registered plus leased seats, only ever changed by the registration engine's SQL
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private int allocated;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,38 @@
+package swd392.eventmanagement.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "jwt_signing_keys", indexes = {
+    @Index(name = "idx_jwt_signing_keys_expires_at", columnList = "expires_at")
+})
+public class JwtSigningKey {
+    @Id
+    @Column(length = 64)
+    private String kid;
+    
+    @Column(nullable = false, length = 16)
+    private String algorithm;
+    
+    // X.509 SubjectPublicKeyInfo encoding
+    @Column(name = "public_key", nullable = false)
+    private byte[] publicKey;
+    
+    // PKCS#8 encoding, AES-GCM encrypted with the key encryption secret
+    @Column(name = "private_key", nullable = false)
+    private byte[] privateKey;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Published in the JWKS from creation, used for signing from this time on
+    @Column(name = "activates_at", nullable = false)
+    private LocalDateTime activatesAt;
+    
+    // Verification stops once every token signed with this key has expired
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -2,18 +2,34 @@ package swd392.eventmanagement.model.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Data
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+    @Index(name = "idx_refresh_tokens_family_id", columnList = "family_id"),
+    @Index(name = "idx_refresh_tokens_expiry_date", columnList = "expiry_date"),
+    @Index(name = "idx_refresh_tokens_user_id", columnList = "user_id, issued_at")
+})
 public class RefreshToken {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_tokens_id_seq")
+    @SequenceGenerator(name = "refresh_tokens_id_seq", sequenceName = "refresh_tokens_id_seq", allocationSize = 50)
+    @ColumnDefault("nextval('refresh_tokens_id_seq')")
     private Long id;
     
-    @Column(nullable = false, unique = true)
-    private String token;
+    // SHA-256 of the token handed to the client; the raw value is never stored
+    @Column(name = "token_hash", nullable = false, unique = true, length = 32)
+    private byte[] tokenHash;
+    
+    // All tokens produced by rotating the same login share a family
+    @Column(name = "family_id", nullable = false)
+    private UUID familyId;
+    
+    @Column(nullable = false)
+    private boolean revoked;
     
     @Column(name = "expiry_date", nullable = false)
     private LocalDateTime expiryDate;
@@ -28,6 +44,10 @@ public class RefreshToken {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
+    // Raw token, only populated on the instance returned when it is issued
+    @Transient
+    private String token;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -35,4 +55,4 @@ public class RefreshToken {
             issuedAt = LocalDateTime.now();
         }
     }
-} 
\ No newline at end of file
+}
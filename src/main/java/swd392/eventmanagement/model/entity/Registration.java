@@ -0,0 +1,44 @@
+package swd392.eventmanagement.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "registrations", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_registrations_event_user", columnNames = {"event_id", "user_id"})
+}, indexes = {
+    @Index(name = "idx_registrations_user_id", columnList = "user_id")
+})
+public class Registration {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "registrations_id_seq")
+    @SequenceGenerator(name = "registrations_id_seq", sequenceName = "registrations_id_seq", allocationSize = 50)
+    @ColumnDefault("nextval('registrations_id_seq')")
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "event_id", nullable = false)
+    private Event event;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16, nullable = false)
+    private RegistrationStatus status;
+
+    @Column(name = "registered_at", nullable = false)
+    private LocalDateTime registeredAt;
+
+    @Column(name = "cancelled_at")
+    private LocalDateTime cancelledAt;
+}
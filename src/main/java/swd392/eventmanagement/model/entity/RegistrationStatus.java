@@ -0,0 +1,8 @@
+package swd392.eventmanagement.model.entity;
+
+public enum RegistrationStatus {
+    CONFIRMED,
+    CANCELLED,
+    // Reported to users on a waitlist; never stored in registrations
+    WAITLISTED
+}
@@ -0,0 +1,31 @@
+package swd392.eventmanagement.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+    @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at"),
+    @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at")
+})
+public class RevokedToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "revoked_tokens_id_seq")
+    @SequenceGenerator(name = "revoked_tokens_id_seq", sequenceName = "revoked_tokens_id_seq", allocationSize = 50)
+    @ColumnDefault("nextval('revoked_tokens_id_seq')")
+    private Long id;
+    
+    // jti of the revoked access token
+    @Column(nullable = false, unique = true, length = 64)
+    private String jti;
+    
+    // Rows are only needed until the token would have expired anyway
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+}
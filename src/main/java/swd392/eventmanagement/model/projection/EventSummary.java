@@ -0,0 +1,11 @@
+package swd392.eventmanagement.model.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * The catalog columns of an event, all of them covered by the catalog indexes so a
+ * page can be read without visiting the table.
+ */
+public record EventSummary(Long id, String title, String category, String location, Long organizerId,
+                           LocalDateTime startsAt, LocalDateTime endsAt, int capacity) {
+}
@@ -0,0 +1,9 @@
+package swd392.eventmanagement.model.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * What a check-in ticket is issued from: a confirmed registration and the end of its event.
+ */
+public record TicketHolder(Long eventId, Long userId, String fullName, LocalDateTime endsAt) {
+}
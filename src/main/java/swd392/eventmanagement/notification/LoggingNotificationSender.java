@@ -0,0 +1,24 @@
+package swd392.eventmanagement.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Logs notifications until a mail or push channel is wired in.
+ */
+@Component
+public class LoggingNotificationSender implements NotificationSender {
+    private static final Logger logger = LoggerFactory.getLogger(LoggingNotificationSender.class);
+
+    @Override
+    public void send(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            logger.debug("Notification {}: {} for user {} on event {}", notification.id(), notification.kind(),
+                    notification.userId(), notification.eventId());
+        }
+        logger.info("Handed off {} notifications", notifications.size());
+    }
+}
@@ -0,0 +1,10 @@
+package swd392.eventmanagement.notification;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification taken from the outbox. {@code id} is unique per notification and
+ * stays the same if the hand-off is retried, so receivers can drop repeats by it.
+ */
+public record Notification(long id, NotificationKind kind, Long eventId, Long userId, LocalDateTime createdAt) {
+}
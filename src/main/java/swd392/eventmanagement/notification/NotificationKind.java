@@ -0,0 +1,5 @@
+package swd392.eventmanagement.notification;
+
+public enum NotificationKind {
+    WAITLIST_PROMOTED
+}
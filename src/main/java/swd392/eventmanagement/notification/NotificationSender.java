@@ -0,0 +1,11 @@
+package swd392.eventmanagement.notification;
+
+import java.util.List;
+
+/**
+ * Delivers notifications claimed from the outbox. Throwing leaves the whole batch in
+ * the outbox for the next dispatch.
+ */
+public interface NotificationSender {
+    void send(List<Notification> notifications);
+}
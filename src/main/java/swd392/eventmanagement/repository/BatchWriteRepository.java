@@ -0,0 +1,16 @@
+package swd392.eventmanagement.repository;
+
+/**
+ * Bulk inserts that go out as JDBC batches. Mixed into repositories whose entities use
+ * pooled sequence ids; IDENTITY ids would force Hibernate to insert row by row.
+ */
+public interface BatchWriteRepository<T> {
+    /**
+     * Persists the entities in the current transaction (or a new one), flushing and
+     * clearing the persistence context every hibernate.jdbc.batch_size rows so memory
+     * stays flat. Entities already loaded in the same persistence context become
+     * detached. The second-level cache is bypassed, so bulk rows do not push the hot
+     * entries out. Returns the number of rows inserted.
+     */
+    int insertAll(Iterable<? extends T> entities);
+}
@@ -0,0 +1,39 @@
+package swd392.eventmanagement.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+public class BatchWriteRepositoryImpl<T> implements BatchWriteRepository<T> {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Override
+    @Transactional
+    public int insertAll(Iterable<? extends T> entities) {
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode cacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.IGNORE);
+        try {
+            int inserted = 0;
+            for (T entity : entities) {
+                session.persist(entity);
+                if (++inserted % batchSize == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            session.flush();
+            session.clear();
+            return inserted;
+        } finally {
+            session.setCacheMode(cacheMode);
+        }
+    }
+}
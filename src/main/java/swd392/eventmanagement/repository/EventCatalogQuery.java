@@ -0,0 +1,12 @@
+package swd392.eventmanagement.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * One catalog page: events ordered by (starts_at, id), optionally for one organizer
+ * or category. Without {@code afterStartsAt}/{@code afterId} the page starts at
+ * {@code from}; with them it starts right after that key. {@code to} is exclusive.
+ */
+public record EventCatalogQuery(LocalDateTime from, LocalDateTime to, Long organizerId, String category,
+                                LocalDateTime afterStartsAt, Long afterId, int limit) {
+}
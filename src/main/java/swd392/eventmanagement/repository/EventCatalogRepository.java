@@ -0,0 +1,13 @@
+package swd392.eventmanagement.repository;
+
+import swd392.eventmanagement.model.projection.EventSummary;
+
+import java.util.List;
+
+public interface EventCatalogRepository {
+    /**
+     * Keyset (seek) page of the catalog. Cost depends on the page size only, not on how
+     * deep the page is, since each page starts with an index seek past the previous one.
+     */
+    List<EventSummary> findCatalogPage(EventCatalogQuery query);
+}
@@ -0,0 +1,61 @@
+package swd392.eventmanagement.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.transaction.annotation.Transactional;
+import swd392.eventmanagement.model.projection.EventSummary;
+
+import java.util.List;
+
+public class EventCatalogRepositoryImpl implements EventCatalogRepository {
+    private static final String SELECT_SUMMARY = """
+            SELECT new swd392.eventmanagement.model.projection.EventSummary(
+                e.id, e.title, e.category, e.location, e.organizer.id, e.startsAt, e.endsAt, e.capacity)
+            FROM Event e
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EventSummary> findCatalogPage(EventCatalogQuery query) {
+        // Only the filters in use go into the statement, so each shape gets a plan on its
+        // own index instead of one generic plan full of "param IS NULL OR ..."
+        StringBuilder jpql = new StringBuilder(SELECT_SUMMARY);
+        if (query.afterId() != null) {
+            jpql.append("WHERE (e.startsAt, e.id) > (:afterStartsAt, :afterId)");
+        } else {
+            jpql.append("WHERE e.startsAt >= :from");
+        }
+        if (query.to() != null) {
+            jpql.append(" AND e.startsAt < :to");
+        }
+        if (query.organizerId() != null) {
+            jpql.append(" AND e.organizer.id = :organizerId");
+        }
+        if (query.category() != null) {
+            jpql.append(" AND e.category = :category");
+        }
+        jpql.append(" ORDER BY e.startsAt, e.id");
+
+        TypedQuery<EventSummary> typed = entityManager.createQuery(jpql.toString(), EventSummary.class);
+        if (query.afterId() != null) {
+            typed.setParameter("afterStartsAt", query.afterStartsAt());
+            typed.setParameter("afterId", query.afterId());
+        } else {
+            typed.setParameter("from", query.from());
+        }
+        if (query.to() != null) {
+            typed.setParameter("to", query.to());
+        }
+        if (query.organizerId() != null) {
+            typed.setParameter("organizerId", query.organizerId());
+        }
+        if (query.category() != null) {
+            typed.setParameter("category", query.category());
+        }
+        return typed.setMaxResults(query.limit()).getResultList();
+    }
+}
@@ -0,0 +1,7 @@
+package swd392.eventmanagement.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import swd392.eventmanagement.model.entity.Event;
+
+public interface EventRepository extends JpaRepository<Event, Long>, EventCatalogRepository {
+}
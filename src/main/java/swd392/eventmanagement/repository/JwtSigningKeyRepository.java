@@ -0,0 +1,38 @@
+package swd392.eventmanagement.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import swd392.eventmanagement.model.entity.JwtSigningKey;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface JwtSigningKeyRepository extends JpaRepository<JwtSigningKey, String> {
+    List<JwtSigningKey> findByExpiresAtAfterOrderByActivatesAtAsc(LocalDateTime now);
+
+    /**
+     * Serializes key creation across nodes until the surrounding transaction ends.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext('jwt_signing_keys'))", nativeQuery = true)
+    int lockKeyCreation();
+
+    /**
+     * Shortens the life of every key activated before {@code activatesAt}: they stop
+     * verifying once tokens signed before the successor took over have expired.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE JwtSigningKey k SET k.expiresAt = :expiresAt
+            WHERE k.activatesAt < :activatesAt AND k.expiresAt > :expiresAt
+            """)
+    int retireBefore(@Param("activatesAt") LocalDateTime activatesAt, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM JwtSigningKey k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,12 +1,93 @@
 package swd392.eventmanagement.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import swd392.eventmanagement.model.entity.RefreshToken;
 import swd392.eventmanagement.model.entity.User;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
-public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token);
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long>, BatchWriteRepository<RefreshToken> {
+    @Transactional(readOnly = true)
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
     void deleteByUser(User user);
-} 
\ No newline at end of file
+
+    /**
+     * Revokes the presented token and inserts its successor in the same family in one
+     * statement. Returns the owning user id, or nothing when the presented token is
+     * unknown, expired or already revoked.
+     */
+    @Transactional
+    @Query(value = """
+            WITH rotated AS (
+                UPDATE refresh_tokens SET revoked = true
+                WHERE token_hash = :oldHash AND revoked = false AND expiry_date > :now
+                RETURNING user_id, family_id
+            )
+            INSERT INTO refresh_tokens (token_hash, family_id, revoked, expiry_date, issued_at, user_id, created_at)
+            SELECT :newHash, family_id, false, :expiryDate, :now, user_id, :now FROM rotated
+            RETURNING user_id
+            """, nativeQuery = true)
+    Optional<Long> rotate(@Param("oldHash") byte[] oldHash,
+                          @Param("newHash") byte[] newHash,
+                          @Param("now") LocalDateTime now,
+                          @Param("expiryDate") LocalDateTime expiryDate);
+
+    /**
+     * Reuse detection: if the presented token was already rotated, revoke every live
+     * token of its family. Returns the number of tokens revoked.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE RefreshToken r SET r.revoked = true
+            WHERE r.revoked = false AND r.familyId =
+                (SELECT t.familyId FROM RefreshToken t WHERE t.tokenHash = :tokenHash AND t.revoked = true)
+            """)
+    int revokeFamilyOnReuse(@Param("tokenHash") byte[] tokenHash);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            DELETE FROM RefreshToken r
+            WHERE r.familyId = (SELECT t.familyId FROM RefreshToken t WHERE t.tokenHash = :tokenHash)
+            """)
+    int deleteFamilyByTokenHash(@Param("tokenHash") byte[] tokenHash);
+
+    /**
+     * Deletes at most {@code limit} expired tokens, oldest first, skipping rows another
+     * node is already purging.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM refresh_tokens WHERE id IN (
+                SELECT id FROM refresh_tokens WHERE expiry_date < :now
+                ORDER BY expiry_date LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            )
+            """, nativeQuery = true)
+    int deleteExpiredChunk(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query("SELECT MIN(r.expiryDate) FROM RefreshToken r WHERE r.expiryDate < :now")
+    LocalDateTime findOldestExpiryBefore(@Param("now") LocalDateTime now);
+
+    /**
+     * Keeps only the {@code maxActive} most recently issued live tokens of a user.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM refresh_tokens
+            WHERE user_id = :userId AND revoked = false AND id NOT IN (
+                SELECT id FROM refresh_tokens
+                WHERE user_id = :userId AND revoked = false
+                ORDER BY issued_at DESC, id DESC LIMIT :maxActive
+            )
+            """, nativeQuery = true)
+    int deleteActiveBeyondLimit(@Param("userId") Long userId, @Param("maxActive") int maxActive);
+}
@@ -0,0 +1,51 @@
+package swd392.eventmanagement.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import swd392.eventmanagement.model.entity.Registration;
+import swd392.eventmanagement.model.projection.TicketHolder;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface RegistrationRepository extends JpaRepository<Registration, Long> {
+    @Query("SELECT r FROM Registration r WHERE r.event.id = :eventId AND r.user.id = :userId")
+    Optional<Registration> findByEventIdAndUserId(@Param("eventId") Long eventId, @Param("userId") Long userId);
+
+    @Query("""
+            SELECT new swd392.eventmanagement.model.projection.TicketHolder(
+                r.event.id, r.user.id, r.user.fullName, r.event.endsAt)
+            FROM Registration r
+            WHERE r.event.id = :eventId AND r.user.id = :userId
+              AND r.status = swd392.eventmanagement.model.entity.RegistrationStatus.CONFIRMED
+            """)
+    Optional<TicketHolder> findTicketHolder(@Param("eventId") Long eventId, @Param("userId") Long userId);
+
+    /**
+     * Cancels a confirmed registration and returns its seat to the event in one
+     * statement. Returns 0 when there is none, so a repeated cancellation frees no
+     * second seat. With users waiting, the event is also marked for the next waitlist
+     * promotion pass, which hands the seat on.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            WITH cancelled AS (
+                UPDATE registrations SET status = 'CANCELLED', cancelled_at = :now
+                WHERE event_id = :eventId AND user_id = :userId AND status = 'CONFIRMED'
+                RETURNING event_id
+            ),
+            due AS (
+                INSERT INTO waitlist_promotions_due (event_id)
+                SELECT c.event_id FROM cancelled c
+                WHERE EXISTS (SELECT 1 FROM waitlist_entries w WHERE w.event_id = c.event_id)
+                ON CONFLICT DO NOTHING
+            )
+            UPDATE events SET allocated = allocated - 1
+            WHERE id = (SELECT event_id FROM cancelled)
+            """, nativeQuery = true)
+    int cancel(@Param("eventId") Long eventId, @Param("userId") Long userId, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,35 @@
+package swd392.eventmanagement.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import swd392.eventmanagement.model.entity.RevokedToken;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime now);
+
+    List<RevokedToken> findByRevokedAtAfter(LocalDateTime since);
+
+    /**
+     * Records a revocation, stamped with the database clock so every node compares
+     * revoked_at against the same clock when catching up.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO revoked_tokens (jti, expires_at, revoked_at)
+            VALUES (:jti, :expiresAt, clock_timestamp())
+            ON CONFLICT (jti) DO NOTHING
+            """, nativeQuery = true)
+    int revoke(@Param("jti") String jti, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
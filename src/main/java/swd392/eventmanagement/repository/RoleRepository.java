@@ -1,10 +1,12 @@
 package swd392.eventmanagement.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 import swd392.eventmanagement.model.entity.Role;
 
 import java.util.Optional;
 
 public interface RoleRepository extends JpaRepository<Role, Integer> {
+    @Transactional(readOnly = true)
     Optional<Role> findByName(String name);
 } 
\ No newline at end of file
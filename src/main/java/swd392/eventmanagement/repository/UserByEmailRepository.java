@@ -0,0 +1,13 @@
+package swd392.eventmanagement.repository;
+
+import swd392.eventmanagement.model.entity.User;
+
+import java.util.Optional;
+
+public interface UserByEmailRepository {
+    /**
+     * Resolves the email through the natural-id cache and loads the user through the
+     * entity cache, so a warm lookup runs no SQL. Both caches are evicted per user.
+     */
+    Optional<User> findByEmail(String email);
+}
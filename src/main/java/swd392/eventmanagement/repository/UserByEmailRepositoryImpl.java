@@ -0,0 +1,44 @@
+package swd392.eventmanagement.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.access.NaturalIdDataAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.transaction.annotation.Transactional;
+import swd392.eventmanagement.model.entity.User;
+
+import java.util.Optional;
+
+public class UserByEmailRepositoryImpl implements UserByEmailRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByEmail(String email) {
+        Session session = entityManager.unwrap(Session.class);
+        User user = session.bySimpleNaturalId(User.class).load(email);
+        if (user == null || email.equals(user.getEmail())) {
+            return Optional.ofNullable(user);
+        }
+        // Resolved through a cached email that another node has since changed: the evicted
+        // user row is fresh, the email-to-id entry is not
+        evictEmail(session, email);
+        return entityManager.createQuery("SELECT u FROM User u WHERE u.email = :email", User.class)
+                .setParameter("email", email)
+                .getResultStream()
+                .findFirst();
+    }
+
+    private static void evictEmail(Session session, String email) {
+        SharedSessionContractImplementor sessionImplementor = session.unwrap(SharedSessionContractImplementor.class);
+        EntityPersister persister = sessionImplementor.getFactory().getMappingMetamodel().getEntityDescriptor(User.class);
+        NaturalIdDataAccess cacheAccess = persister.getNaturalIdCacheAccessStrategy();
+        if (cacheAccess != null) {
+            Object naturalId = persister.getNaturalIdMapping().normalizeInput(email);
+            cacheAccess.evict(cacheAccess.generateCacheKey(naturalId, persister, sessionImplementor));
+        }
+    }
+}
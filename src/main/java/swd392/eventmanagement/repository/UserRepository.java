@@ -1,13 +1,72 @@
 package swd392.eventmanagement.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import swd392.eventmanagement.model.entity.User;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
+public interface UserRepository extends JpaRepository<User, Long>, BatchWriteRepository<User>, UserByEmailRepository {
+    @Transactional(readOnly = true)
     Boolean existsByEmail(String email);
+
+    @Transactional(readOnly = true)
     Optional<User> findByProviderUserId(String providerUserId);
-    // TODO: Add custom query methods
-} 
\ No newline at end of file
+
+    /**
+     * Inserts the user or refreshes email/full name in one statement, writing only
+     * when something actually changed. A user known under another provider id, such as
+     * a seeded account, is matched by email and takes over the new provider id. New
+     * users are linked to {@code roleId} in the same statement. Returns the user id, or
+     * null when a concurrent first login inserted the row after this statement started;
+     * {@link #findIdByProviderUserId} then finds it.
+     */
+    @Transactional
+    @Query(value = """
+            WITH relinked AS (
+                UPDATE users SET provider_user_id = :providerUserId, full_name = :fullName, updated_at = :now
+                WHERE email = :email AND provider_user_id <> :providerUserId
+                RETURNING id
+            ),
+            upserted AS (
+                INSERT INTO users (email, full_name, provider_user_id, role_version, created_at, updated_at)
+                SELECT :email, :fullName, :providerUserId, 0, :now, :now
+                WHERE NOT EXISTS (SELECT 1 FROM relinked)
+                ON CONFLICT (provider_user_id) DO UPDATE
+                    SET email = EXCLUDED.email, full_name = EXCLUDED.full_name, updated_at = EXCLUDED.updated_at
+                    WHERE users.email IS DISTINCT FROM EXCLUDED.email
+                       OR users.full_name IS DISTINCT FROM EXCLUDED.full_name
+                RETURNING id, (xmax = 0) AS inserted
+            ),
+            linked AS (
+                INSERT INTO user_roles (user_id, role_id)
+                SELECT id, :roleId FROM upserted WHERE inserted
+                ON CONFLICT DO NOTHING
+            )
+            SELECT id FROM relinked
+            UNION ALL
+            SELECT id FROM upserted
+            UNION ALL
+            SELECT id FROM users
+            WHERE provider_user_id = :providerUserId
+              AND NOT EXISTS (SELECT 1 FROM relinked) AND NOT EXISTS (SELECT 1 FROM upserted)
+            """, nativeQuery = true)
+    Long upsertByProviderUserId(@Param("email") String email,
+                                @Param("fullName") String fullName,
+                                @Param("providerUserId") String providerUserId,
+                                @Param("roleId") Integer roleId,
+                                @Param("now") LocalDateTime now);
+
+    @Query("SELECT u.id FROM User u WHERE u.providerUserId = :providerUserId")
+    Optional<Long> findIdByProviderUserId(@Param("providerUserId") String providerUserId);
+
+    @Query("SELECT u.id, u.roleVersion FROM User u WHERE u.roleVersion > 0")
+    List<Object[]> findChangedRoleVersions();
+
+    @Query("SELECT u.roleVersion FROM User u WHERE u.id = :id")
+    Optional<Integer> findRoleVersionById(@Param("id") Long id);
+}
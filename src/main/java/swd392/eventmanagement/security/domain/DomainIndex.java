@@ -0,0 +1,115 @@
+package swd392.eventmanagement.security.domain;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable index of {@link DomainRule}s keyed by a hash of the domain read right to
+ * left, one label at a time. A lookup walks the email backwards once and probes the
+ * table at every label boundary, so it costs one probe per label and allocates nothing.
+ * The most specific matching rule wins.
+ */
+public final class DomainIndex {
+    private static final long SEED = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private final long[] keys;
+    private final DomainRule[] rules;
+    private final int mask;
+    private final List<DomainRule> ruleList;
+
+    public DomainIndex(Collection<DomainRule> domainRules) {
+        int capacity = Integer.highestOneBit(Math.max(4, domainRules.size() * 4) - 1) << 1;
+        this.keys = new long[capacity];
+        this.rules = new DomainRule[capacity];
+        this.mask = capacity - 1;
+        this.ruleList = List.copyOf(domainRules);
+
+        for (DomainRule rule : domainRules) {
+            String domain = rule.domain();
+            long hash = SEED;
+            for (int i = domain.length() - 1; i >= 0; i--) {
+                hash = mix(hash, domain.charAt(i));
+            }
+            insert(nonZero(hash), rule);
+        }
+    }
+
+    /**
+     * Returns the rule covering the domain of {@code email}, or {@code null} if the
+     * domain is not allowed.
+     */
+    public DomainRule lookup(String email) {
+        if (email == null) {
+            return null;
+        }
+
+        DomainRule match = null;
+        long hash = SEED;
+        for (int i = email.length() - 1; i >= 0; i--) {
+            char c = email.charAt(i);
+            if (c == '@' || c == '.') {
+                int suffixStart = i + 1;
+                int suffixLength = email.length() - suffixStart;
+                if (suffixLength > 0) {
+                    DomainRule rule = find(nonZero(hash), email, suffixStart, suffixLength);
+                    // A suffix ending at '@' is the whole domain; shorter suffixes only
+                    // match rules that cover subdomains
+                    if (rule != null && (c == '@' || rule.includeSubdomains())) {
+                        match = rule;
+                    }
+                }
+                if (c == '@') {
+                    return match;
+                }
+            }
+            hash = mix(hash, c);
+        }
+        // No '@': not an email address
+        return null;
+    }
+
+    public List<DomainRule> rules() {
+        return ruleList;
+    }
+
+    private DomainRule find(long hash, String email, int start, int length) {
+        int slot = spread(hash) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == hash) {
+                DomainRule rule = rules[slot];
+                String domain = rule.domain();
+                if (domain.length() == length && domain.regionMatches(true, 0, email, start, length)) {
+                    return rule;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    private void insert(long hash, DomainRule rule) {
+        int slot = spread(hash) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == hash && rules[slot].domain().equals(rule.domain())) {
+                rules[slot] = rule;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = hash;
+        rules[slot] = rule;
+    }
+
+    private static long mix(long hash, char c) {
+        return (hash ^ Character.toLowerCase(c)) * PRIME;
+    }
+
+    private static int spread(long hash) {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static long nonZero(long hash) {
+        return hash != 0 ? hash : 1;
+    }
+}
@@ -0,0 +1,103 @@
+package swd392.eventmanagement.security.domain;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Holds the compiled {@link DomainIndex}. Rules come from {@code app.auth.*} properties
+ * and, optionally, a rules file ({@code domain=ROLE} per line, {@code *.domain} for
+ * subdomains) that is re-read whenever it changes, without a restart.
+ */
+@Component
+public class DomainRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(DomainRegistry.class);
+
+    @Value("${app.auth.allowed-domains}")
+    private String allowedDomains;
+
+    @Value("${app.auth.student-domain}")
+    private String studentDomain;
+
+    @Value("${app.auth.lecturer-domain}")
+    private String lecturerDomain;
+
+    @Value("${app.auth.default-role:ROLE_LECTURER}")
+    private String defaultRole;
+
+    @Value("${app.auth.domain-rules-file:}")
+    private String rulesFile;
+
+    private volatile DomainIndex index;
+    private volatile long rulesFileModified = -1;
+
+    @PostConstruct
+    public void reload() {
+        Map<String, DomainRule> rules = new LinkedHashMap<>();
+        for (String domain : allowedDomains.split(",")) {
+            if (StringUtils.hasText(domain)) {
+                put(rules, DomainRule.parse(domain, defaultRole));
+            }
+        }
+        if (StringUtils.hasText(lecturerDomain)) {
+            put(rules, DomainRule.parse(lecturerDomain, "ROLE_LECTURER"));
+        }
+        if (StringUtils.hasText(studentDomain)) {
+            put(rules, DomainRule.parse(studentDomain, "ROLE_STUDENT"));
+        }
+        if (StringUtils.hasText(rulesFile)) {
+            loadRulesFile(rules);
+        }
+
+        index = new DomainIndex(rules.values());
+        logger.info("Domain rules loaded: {}", rules.values());
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.domain-rules-reload-ms:10000}")
+    public void reloadIfChanged() {
+        if (!StringUtils.hasText(rulesFile)) {
+            return;
+        }
+        try {
+            long modified = Files.getLastModifiedTime(Path.of(rulesFile)).toMillis();
+            if (modified != rulesFileModified) {
+                reload();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not reload domain rules from {}: {}", rulesFile, e.getMessage());
+        }
+    }
+
+    public DomainRule lookup(String email) {
+        return index.lookup(email);
+    }
+
+    private void loadRulesFile(Map<String, DomainRule> rules) {
+        Path path = Path.of(rulesFile);
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            rulesFileModified = Files.getLastModifiedTime(path).toMillis();
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read domain rules file " + rulesFile, e);
+        }
+        properties.forEach((pattern, role) -> put(rules, DomainRule.parse((String) pattern, (String) role)));
+    }
+
+    private static void put(Map<String, DomainRule> rules, DomainRule rule) {
+        rules.put(rule.domain(), rule);
+    }
+}
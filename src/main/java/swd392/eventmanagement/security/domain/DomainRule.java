@@ -0,0 +1,26 @@
+package swd392.eventmanagement.security.domain;
+
+/**
+ * An allowed email domain and the role new users from it receive. With
+ * {@code includeSubdomains} the rule also covers any subdomain of {@code domain}.
+ */
+public record DomainRule(String domain, String roleName, boolean includeSubdomains) {
+    private static final String WILDCARD_PREFIX = "*.";
+
+    public static DomainRule parse(String pattern, String roleName) {
+        String domain = pattern.trim().toLowerCase();
+        boolean includeSubdomains = domain.startsWith(WILDCARD_PREFIX);
+        if (includeSubdomains) {
+            domain = domain.substring(WILDCARD_PREFIX.length());
+        }
+        if (domain.isEmpty() || domain.indexOf('@') >= 0) {
+            throw new IllegalArgumentException("Invalid domain pattern: " + pattern);
+        }
+        return new DomainRule(domain, roleName.trim(), includeSubdomains);
+    }
+
+    @Override
+    public String toString() {
+        return (includeSubdomains ? WILDCARD_PREFIX : "") + domain + "=" + roleName;
+    }
+}
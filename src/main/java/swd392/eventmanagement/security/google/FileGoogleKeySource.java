@@ -0,0 +1,60 @@
+package swd392.eventmanagement.security.google;
+
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.JsonParser;
+import com.google.api.client.json.JsonToken;
+import com.google.api.client.util.SecurityUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads certificates from a local file in the same {@code {"kid": "PEM"}} format
+ * Google publishes at its certs endpoint. The file is re-read once the
+ * configured reload interval has passed.
+ */
+public class FileGoogleKeySource implements GoogleKeySource {
+    private final Path file;
+    private final JsonFactory jsonFactory;
+    private final long reloadIntervalMs;
+
+    public FileGoogleKeySource(Path file, JsonFactory jsonFactory, long reloadIntervalMs) {
+        this.file = file;
+        this.jsonFactory = jsonFactory;
+        this.reloadIntervalMs = reloadIntervalMs;
+    }
+
+    @Override
+    public GoogleKeySet fetch() throws GeneralSecurityException, IOException {
+        List<PublicKey> keys = new ArrayList<>();
+        CertificateFactory factory = SecurityUtils.getX509CertificateFactory();
+        try (InputStream in = Files.newInputStream(file)) {
+            JsonParser parser = jsonFactory.createJsonParser(in, StandardCharsets.UTF_8);
+            JsonToken token = parser.getCurrentToken();
+            if (token == null) {
+                token = parser.nextToken();
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new IOException("Google key file must contain a JSON object: " + file);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                parser.nextToken();
+                String pem = parser.getText();
+                X509Certificate certificate = (X509Certificate) factory.generateCertificate(
+                        new ByteArrayInputStream(pem.getBytes(StandardCharsets.UTF_8)));
+                keys.add(certificate.getPublicKey());
+            }
+        }
+        return new GoogleKeySet(List.copyOf(keys), System.currentTimeMillis() + reloadIntervalMs);
+    }
+}
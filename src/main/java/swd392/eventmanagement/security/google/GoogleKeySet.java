@@ -0,0 +1,10 @@
+package swd392.eventmanagement.security.google;
+
+import java.security.PublicKey;
+import java.util.List;
+
+public record GoogleKeySet(List<PublicKey> keys, long expiresAtMillis) {
+    public boolean isExpired(long now) {
+        return now >= expiresAtMillis;
+    }
+}
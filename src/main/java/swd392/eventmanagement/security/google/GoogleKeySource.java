@@ -0,0 +1,13 @@
+package swd392.eventmanagement.security.google;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+/**
+ * Supplies the public keys Google ID tokens are checked against. The default
+ * implementation fetches Google's published certificates; a local file or an
+ * in-process stand-in can be plugged in for tests and air-gapped environments.
+ */
+public interface GoogleKeySource {
+    GoogleKeySet fetch() throws GeneralSecurityException, IOException;
+}
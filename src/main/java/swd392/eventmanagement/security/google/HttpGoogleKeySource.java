@@ -0,0 +1,60 @@
+package swd392.eventmanagement.security.google;
+
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.json.JsonFactory;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fetches Google's signing certificates over HTTP. Expiry follows the
+ * Cache-Control max-age and Age headers of the certificate response.
+ * <p>
+ * The HTTP call always runs on a dedicated platform thread: the client's
+ * {@code HttpURLConnection} paths are still {@code synchronized} and would pin a
+ * virtual carrier thread, so virtual callers only park on the result.
+ */
+public class HttpGoogleKeySource implements GoogleKeySource, AutoCloseable {
+    private final GooglePublicKeysManager keysManager;
+    private final ExecutorService fetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "google-keys-fetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public HttpGoogleKeySource(HttpTransport transport, JsonFactory jsonFactory, String certsUrl) {
+        this.keysManager = new GooglePublicKeysManager.Builder(transport, jsonFactory)
+                .setPublicCertsEncodedUrl(certsUrl)
+                .build();
+    }
+
+    @Override
+    public GoogleKeySet fetch() throws GeneralSecurityException, IOException {
+        try {
+            return fetchExecutor.submit(() -> {
+                keysManager.refresh();
+                return new GoogleKeySet(keysManager.getPublicKeys(), keysManager.getExpirationTimeMilliseconds());
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching Google signing keys", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof GeneralSecurityException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException("Fetching Google signing keys failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        fetchExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,126 @@
+package swd392.eventmanagement.security.jwt;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import swd392.eventmanagement.model.entity.RevokedToken;
+import swd392.eventmanagement.repository.RevokedTokenRepository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of revoked access token ids, mirrored from the revoked_tokens table.
+ * A Bloom filter sits in front of the exact set, so the common case of a token that
+ * was never revoked costs a few bit tests and no allocation. Other nodes' revocations
+ * are picked up by an incremental poll; entries are dropped once the token would have
+ * expired anyway.
+ */
+@Component
+public class AccessTokenRevocationList {
+    private static final Logger logger = LoggerFactory.getLogger(AccessTokenRevocationList.class);
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Value("${app.auth.revocation.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${app.auth.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    // Re-read this far behind the newest revocation seen, to catch rows committed late
+    @Value("${app.auth.revocation.refresh-overlap-ms:10000}")
+    private long refreshOverlapMs;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    // jti -> expiry in epoch millis
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile TokenIdBloomFilter filter;
+    private volatile LocalDateTime lastRevokedAt = BEGINNING;
+
+    @PostConstruct
+    void load() {
+        filter = new TokenIdBloomFilter(expectedEntries, falsePositiveRate);
+        revokedTokenRepository.findByExpiresAtAfter(LocalDateTime.now()).forEach(this::apply);
+        logger.info("Loaded {} revoked access tokens", revoked.size());
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        return revoked.containsKey(tokenId);
+    }
+
+    /**
+     * Revokes an access token on this node immediately and records it for the others.
+     */
+    public void revoke(String tokenId, Date expiresAt) {
+        LocalDateTime expiry = LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault());
+        revokedTokenRepository.revoke(tokenId, expiry);
+        add(tokenId, expiresAt.getTime());
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.revocation.refresh-ms:2000}",
+            initialDelayString = "${app.auth.revocation.refresh-ms:2000}")
+    public void refresh() {
+        try {
+            LocalDateTime since = lastRevokedAt == BEGINNING
+                    ? BEGINNING
+                    : lastRevokedAt.minusNanos(refreshOverlapMs * 1_000_000);
+            revokedTokenRepository.findByRevokedAtAfter(since).forEach(this::apply);
+        } catch (RuntimeException e) {
+            logger.warn("Could not refresh revoked access tokens: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.revocation.purge-ms:600000}",
+            initialDelayString = "${app.auth.revocation.purge-ms:600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        rebuildFilter();
+        try {
+            int deleted = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+            logger.debug("Purged {} expired revocations, {} still active", deleted, revoked.size());
+        } catch (RuntimeException e) {
+            logger.warn("Could not purge expired revocations: {}", e.getMessage());
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    private void apply(RevokedToken token) {
+        long expiresAt = token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (expiresAt > System.currentTimeMillis()) {
+            add(token.getJti(), expiresAt);
+        }
+        if (token.getRevokedAt().isAfter(lastRevokedAt)) {
+            lastRevokedAt = token.getRevokedAt();
+        }
+    }
+
+    // Serialized with rebuildFilter so an id added during a rebuild cannot be lost
+    private synchronized void add(String tokenId, long expiresAt) {
+        revoked.put(tokenId, expiresAt);
+        filter.add(tokenId);
+    }
+
+    // Bloom filters cannot forget, so expired ids are dropped by starting a new one
+    private synchronized void rebuildFilter() {
+        TokenIdBloomFilter rebuilt = new TokenIdBloomFilter(
+                Math.max(expectedEntries, revoked.size() * 2), falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::add);
+        filter = rebuilt;
+    }
+}
@@ -1,5 +1,6 @@
 package swd392.eventmanagement.security.jwt;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,16 +8,27 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
+import swd392.eventmanagement.config.PrimaryReads;
+import swd392.eventmanagement.metrics.AuthMetrics;
+import swd392.eventmanagement.metrics.AuthMetrics.FilterOutcome;
+import swd392.eventmanagement.security.service.RoleEpochRegistry;
 import swd392.eventmanagement.security.service.UserDetailsServiceImpl;
+import swd392.eventmanagement.security.service.UserPrincipal;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 
 @Component
 public class AuthTokenFilter extends OncePerRequestFilter {
@@ -28,26 +40,83 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private RoleEpochRegistry roleEpochRegistry;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    @Value("#{'${app.datasource.replicas.urls:}' != ''}")
+    private boolean replicasEnabled;
+
+    @Value("${app.datasource.read-your-writes-ms:5000}")
+    private long readYourWritesMs;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
+        long started = authMetrics.start();
+        FilterOutcome outcome = FilterOutcome.ANONYMOUS;
+        boolean recentlyIssued = false;
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String email = jwtUtils.getEmailFromJwtToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-                
-                UsernamePasswordAuthenticationToken authentication = 
+            Claims claims = jwt != null ? jwtUtils.validateAndGetClaims(jwt) : null;
+            if (claims != null) {
+                UserDetails userDetails = buildPrincipal(claims);
+
+                UsernamePasswordAuthenticationToken authentication =
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                
+
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+                outcome = FilterOutcome.AUTHENTICATED;
+                recentlyIssued = replicasEnabled && isRecentlyIssued(claims);
+            } else if (jwt != null) {
+                outcome = FilterOutcome.REJECTED;
             }
         } catch (Exception e) {
+            outcome = FilterOutcome.ERROR;
             logger.error("Cannot set user authentication: {}", e.getMessage());
         }
+        // Only the authentication work is timed, not the rest of the request
+        authMetrics.recordFilter(outcome, started);
+
+        if (recentlyIssued) {
+            // Login and refresh just wrote this user's rows, which replicas may not have yet
+            try (PrimaryReads.Pin pin = PrimaryReads.pin()) {
+                filterChain.doFilter(request, response);
+            }
+        } else {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private boolean isRecentlyIssued(Claims claims) {
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt != null && System.currentTimeMillis() - issuedAt.getTime() < readYourWritesMs;
+    }
 
-        filterChain.doFilter(request, response);
+    private UserDetails buildPrincipal(Claims claims) {
+        Long userId = claims.get(JwtUtils.CLAIM_USER_ID, Long.class);
+        List<?> roles = claims.get(JwtUtils.CLAIM_ROLES, List.class);
+        Integer roleEpoch = claims.get(JwtUtils.CLAIM_ROLE_EPOCH, Integer.class);
+
+        // Tokens issued before role claims existed, or whose roles changed since issue,
+        // fall back to the database for current authorities
+        if (userId == null || roles == null || roleEpoch == null
+                || !roleEpochRegistry.isCurrent(userId, roleEpoch)) {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+            return userDetails instanceof UserPrincipal principal
+                    ? principal.withToken(claims.getId(), claims.getExpiration())
+                    : userDetails;
+        }
+
+        List<GrantedAuthority> authorities = new ArrayList<>(roles.size());
+        for (Object role : roles) {
+            authorities.add(new SimpleGrantedAuthority((String) role));
+        }
+        return new UserPrincipal(userId, claims.getSubject(), claims.get(JwtUtils.CLAIM_FULL_NAME, String.class),
+                authorities, claims.getId(), claims.getExpiration());
     }
 
     private String parseJwt(HttpServletRequest request) {
@@ -59,4 +128,4 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 
         return null;
     }
-} 
\ No newline at end of file
+}
@@ -1,75 +1,227 @@
 package swd392.eventmanagement.security.jwt;
 
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import io.jsonwebtoken.security.SecurityException;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Component;
+import swd392.eventmanagement.audit.AuditEventType;
+import swd392.eventmanagement.audit.AuditLog;
+import swd392.eventmanagement.metrics.AuthMetrics;
+import swd392.eventmanagement.metrics.AuthMetrics.TokenRejection;
+import swd392.eventmanagement.model.entity.Role;
+import swd392.eventmanagement.model.entity.User;
+import swd392.eventmanagement.security.jwt.SigningKeyRing.SigningKey;
 
-import java.nio.charset.StandardCharsets;
-import javax.crypto.SecretKey;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 
 @Component
 public class JwtUtils {
-    private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
-
-    @Value("${app.auth.jwt.secret}")
-    private String jwtSecret;
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_ROLE_EPOCH = "rev";
+    public static final String CLAIM_FULL_NAME = "name";
+    public static final String CLAIM_EVENT_ID = "eid";
+    // Tickets carry this audience and access tokens none, so neither passes as the other
+    public static final String TICKET_AUDIENCE = "check-in";
 
     @Value("${app.auth.jwt.expiration}")
     private int jwtExpirationMs;
 
+    @Value("${app.auth.jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
+    // Doors-open uploads repeat tickets: the same attendee at two gates, re-sent batches
+    @Value("${app.checkin.verified-ticket-cache-size:20000}")
+    private int verifiedTicketCacheSize;
+
+    // Scans recorded offline before a ticket expired may be uploaded this much later
+    @Value("${app.checkin.upload-grace-ms:86400000}")
+    private long uploadGraceMs;
+
+    @Value("${app.checkin.max-clock-skew-ms:300000}")
+    private long maxClockSkewMs;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private AccessTokenRevocationList revocationList;
+
+    @Autowired
+    private SigningKeyRing signingKeyRing;
+
+    private JwtParser jwtParser;
+    private JwtParser ticketParser;
+    private VerifiedTokenCache verifiedTokenCache;
+    private VerifiedTokenCache verifiedTicketCache;
+
+    @PostConstruct
+    void init() {
+        // The key is chosen per token by its kid header, a map lookup in the key ring
+        jwtParser = Jwts.parser().keyLocator(signingKeyRing.keyLocator()).build();
+        // The skew is the upload grace so late uploads pass exp; it relaxes nbf as much,
+        // which tickets never set, and iat is checked separately in parseCheckInTicket
+        ticketParser = Jwts.parser().keyLocator(signingKeyRing.keyLocator())
+                .requireAudience(TICKET_AUDIENCE)
+                .clockSkewSeconds(uploadGraceMs / 1000)
+                .build();
+        verifiedTokenCache = new VerifiedTokenCache(verifiedCacheSize);
+        verifiedTicketCache = new VerifiedTokenCache(verifiedTicketCacheSize);
+    }
+
     public String generateJwtToken(Authentication authentication) {
         OAuth2User userPrincipal = (OAuth2User) authentication.getPrincipal();
         String email = userPrincipal.getAttribute("email");
 
+        return generateTokenFromEmail(email);
+    }
+
+    public String generateTokenFromEmail(String email) {
+        Date now = new Date();
+        SigningKey signingKey = signingKeyRing.signingKey();
         return Jwts.builder()
+                .header().keyId(signingKey.kid()).and()
+                .id(UUID.randomUUID().toString())
                 .subject(email)
-                .issuedAt(new Date())
-                .expiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSigningKey())
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + jwtExpirationMs))
+                .signWith(signingKey.privateKey())
                 .compact();
     }
 
-    public String generateTokenFromEmail(String email) {
+    public String generateAccessToken(User user) {
+        List<String> roles = user.getRoles().stream()
+                .map(Role::getName)
+                .toList();
+        return generateAccessToken(user.getId(), user.getEmail(), user.getFullName(), roles, user.getRoleVersion());
+    }
+
+    public String generateAccessToken(Long userId, String email, String fullName, Collection<String> roles,
+                                      int roleEpoch) {
+        Date now = new Date();
+        SigningKey signingKey = signingKeyRing.signingKey();
         return Jwts.builder()
+                .header().keyId(signingKey.kid()).and()
+                .id(UUID.randomUUID().toString())
                 .subject(email)
+                .claim(CLAIM_USER_ID, userId)
+                .claim(CLAIM_FULL_NAME, fullName)
+                .claim(CLAIM_ROLES, roles)
+                .claim(CLAIM_ROLE_EPOCH, roleEpoch)
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + jwtExpirationMs))
+                .signWith(signingKey.privateKey())
+                .compact();
+    }
+
+    /**
+     * Signs a check-in ticket for a QR code. Scanners verify it offline against the
+     * published JWKS: the key id picks the key, {@code aud} must be {@value #TICKET_AUDIENCE},
+     * {@code sub} is the attendee's user id and {@code eid} the event.
+     */
+    public String generateCheckInTicket(Long eventId, Long userId, String fullName, Date expiresAt) {
+        SigningKey signingKey = signingKeyRing.signingKey();
+        return Jwts.builder()
+                .header().keyId(signingKey.kid()).and()
+                .audience().add(TICKET_AUDIENCE).and()
+                .subject(userId.toString())
+                .claim(CLAIM_EVENT_ID, eventId)
+                .claim(CLAIM_FULL_NAME, fullName)
                 .issuedAt(new Date())
-                .expiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSigningKey())
+                .expiration(expiresAt)
+                .signWith(signingKey.privateKey())
                 .compact();
     }
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    /**
+     * Verifies a check-in ticket uploaded by a scanner and returns its claims. Tickets
+     * that expired up to {@code app.checkin.upload-grace-ms} ago still verify, so the
+     * caller has to compare the expiry with the time of the scan. That grace is applied
+     * as the parser's clock skew, so {@code iat} is checked here against the normal
+     * {@code app.checkin.max-clock-skew-ms} instead.
+     */
+    public Claims parseCheckInTicket(String ticket) {
+        Claims claims = verifiedTicketCache.get(ticket);
+        if (claims != null) {
+            return claims;
+        }
+
+        Jws<Claims> jws = ticketParser.parseSignedClaims(ticket);
+        claims = jws.getPayload();
+        Date issuedAt = claims.getIssuedAt();
+        if (issuedAt != null && issuedAt.getTime() > System.currentTimeMillis() + maxClockSkewMs) {
+            throw new PrematureJwtException(jws.getHeader(), claims, "Ticket issued in the future");
+        }
+        verifiedTicketCache.put(ticket, claims);
+        return claims;
     }
 
     public String getEmailFromJwtToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        return getClaimsFromJwtToken(token).getSubject();
     }
 
-    public boolean validateJwtToken(String authToken) {
+    /**
+     * Verifies the token once and returns its claims, serving repeat tokens from the
+     * verified-token cache. Throws the usual {@link JwtException} subtypes on failure.
+     */
+    public Claims getClaimsFromJwtToken(String token) {
+        Claims claims = verifiedTokenCache.get(token);
+        if (claims != null) {
+            return claims;
+        }
+
+        claims = jwtParser.parseSignedClaims(token).getPayload();
+        verifiedTokenCache.put(token, claims);
+        return claims;
+    }
+
+    /**
+     * Single-parse variant of {@link #validateJwtToken(String)}: returns the verified
+     * claims, or {@code null} when the token is not acceptable or has been revoked.
+     */
+    public Claims validateAndGetClaims(String authToken) {
         try {
-            Jwts.parser().verifyWith(getSigningKey()).build().parse(authToken);
-            return true;
+            Claims claims = getClaimsFromJwtToken(authToken);
+            if (claims.getAudience() != null && !claims.getAudience().isEmpty()) {
+                rejected(TokenRejection.UNSUPPORTED, "Not an access token");
+                return null;
+            }
+            if (revocationList.isRevoked(claims.getId())) {
+                rejected(TokenRejection.REVOKED, "Access token was revoked");
+                return null;
+            }
+            return claims;
         } catch (MalformedJwtException e) {
-            logger.error("Invalid JWT token: {}", e.getMessage());
+            rejected(TokenRejection.MALFORMED, e.getMessage());
         } catch (ExpiredJwtException e) {
-            logger.error("JWT token is expired: {}", e.getMessage());
+            rejected(TokenRejection.EXPIRED, e.getMessage());
         } catch (UnsupportedJwtException e) {
-            logger.error("JWT token is unsupported: {}", e.getMessage());
+            rejected(TokenRejection.UNSUPPORTED, e.getMessage());
+        } catch (SecurityException e) {
+            rejected(TokenRejection.BAD_SIGNATURE, e.getMessage());
         } catch (IllegalArgumentException e) {
-            logger.error("JWT claims string is empty: {}", e.getMessage());
+            rejected(TokenRejection.EMPTY, e.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    // Any client can send bad tokens at will, so rejects go to the audit stream, not the log
+    private void rejected(TokenRejection reason, String message) {
+        authMetrics.tokenRejected(reason);
+        auditLog.publish(AuditEventType.TOKEN_REJECTED, reason.name(), message);
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return validateAndGetClaims(authToken) != null;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,79 @@
+package swd392.eventmanagement.security.jwt;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.*;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+
+/**
+ * Key generation, encoding and at-rest encryption for JWT signing keys. Private keys
+ * are stored AES-GCM encrypted under a key derived from the configured secret, with
+ * the kid as associated data so a ciphertext cannot be moved to another row.
+ */
+final class SigningKeyCrypto {
+    static final String ES256 = "ES256";
+    static final String EDDSA = "EdDSA";
+
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final SecretKeySpec encryptionKey;
+
+    SigningKeyCrypto(String encryptionSecret) {
+        try {
+            byte[] key = MessageDigest.getInstance("SHA-256")
+                    .digest(("jwt-signing-key:" + encryptionSecret).getBytes(StandardCharsets.UTF_8));
+            encryptionKey = new SecretKeySpec(key, "AES");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static KeyPair generate(String algorithm) throws GeneralSecurityException {
+        KeyPairGenerator generator;
+        if (ES256.equals(algorithm)) {
+            generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+        } else if (EDDSA.equals(algorithm)) {
+            generator = KeyPairGenerator.getInstance("Ed25519");
+        } else {
+            throw new IllegalArgumentException("Unsupported signing algorithm: " + algorithm);
+        }
+        return generator.generateKeyPair();
+    }
+
+    static PublicKey decodePublic(String algorithm, byte[] encoded) throws GeneralSecurityException {
+        return keyFactory(algorithm).generatePublic(new X509EncodedKeySpec(encoded));
+    }
+
+    PrivateKey decryptPrivate(String algorithm, String kid, byte[] encrypted) throws GeneralSecurityException {
+        ByteBuffer buffer = ByteBuffer.wrap(encrypted);
+        byte[] iv = new byte[IV_LENGTH];
+        buffer.get(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        byte[] encoded = cipher.doFinal(encrypted, IV_LENGTH, encrypted.length - IV_LENGTH);
+        return keyFactory(algorithm).generatePrivate(new PKCS8EncodedKeySpec(encoded));
+    }
+
+    byte[] encryptPrivate(String kid, PrivateKey privateKey) throws GeneralSecurityException {
+        byte[] iv = new byte[IV_LENGTH];
+        RANDOM.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        byte[] ciphertext = cipher.doFinal(privateKey.getEncoded());
+        return ByteBuffer.allocate(IV_LENGTH + ciphertext.length).put(iv).put(ciphertext).array();
+    }
+
+    private static KeyFactory keyFactory(String algorithm) throws NoSuchAlgorithmException {
+        return KeyFactory.getInstance(ES256.equals(algorithm) ? "EC" : "Ed25519");
+    }
+}
@@ -0,0 +1,311 @@
+package swd392.eventmanagement.security.jwt;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Locator;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import swd392.eventmanagement.config.PrimaryReads;
+import swd392.eventmanagement.model.entity.JwtSigningKey;
+import swd392.eventmanagement.repository.JwtSigningKeyRepository;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.*;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The set of asymmetric keys tokens are signed and verified with, shared by all nodes
+ * through the jwt_signing_keys table. A successor key is created ahead of time and
+ * published in the JWKS for {@code publish-ahead-ms} before it is used for signing, so
+ * verifiers that cache the JWKS already know it; the previous key keeps verifying
+ * until the last token it signed has expired.
+ */
+@Component
+public class SigningKeyRing {
+    private static final Logger logger = LoggerFactory.getLogger(SigningKeyRing.class);
+
+    @Value("${app.auth.jwt.signing-algorithm:ES256}")
+    private String algorithm;
+
+    @Value("${app.auth.jwt.key-rotation-interval-ms:604800000}")
+    private long rotationIntervalMs;
+
+    @Value("${app.auth.jwt.key-publish-ahead-ms:900000}")
+    private long publishAheadMs;
+
+    @Value("${app.auth.jwt.expiration}")
+    private long tokenLifetimeMs;
+
+    // Check-in scans signed by a retired key can still be uploaded for this long after the ticket expired
+    @Value("${app.checkin.upload-grace-ms:86400000}")
+    private long ticketUploadGraceMs;
+
+    @Value("${app.auth.jwt.key-encryption-secret:${app.auth.jwt.secret}}")
+    private String keyEncryptionSecret;
+
+    // HMAC tokens issued before the switch to asymmetric keys, accepted only during the migration window
+    @Value("${app.auth.jwt.accept-legacy-hmac:false}")
+    private boolean acceptLegacyHmac;
+
+    // End of that window, an ISO-8601 instant; never later than one token lifetime after startup
+    @Value("${app.auth.jwt.legacy-hmac-until:}")
+    private String legacyHmacUntil;
+
+    @Value("${app.auth.jwt.secret}")
+    private String legacySecret;
+
+    // A token with an unknown kid reloads the ring at most this often, so forged kids cannot flood the database
+    @Value("${app.auth.jwt.unknown-kid-refresh-ms:10000}")
+    private long unknownKidRefreshMs;
+
+    @Autowired
+    private JwtSigningKeyRepository signingKeyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private SigningKeyCrypto crypto;
+    private SecretKey legacyHmacKey;
+    private long legacyHmacDeadline;
+    private TransactionTemplate transactionTemplate;
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private final AtomicLong lastUnknownKidRefresh = new AtomicLong();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private final Locator<Key> keyLocator = new LocatorAdapter<>() {
+        @Override
+        protected Key locate(JwsHeader header) {
+            String kid = header.getKeyId();
+            if (kid != null) {
+                PublicKey key = snapshot.verificationKeys.get(kid);
+                if (key == null && refreshForUnknownKid()) {
+                    // Another node may have created the key since the last scheduled refresh
+                    key = snapshot.verificationKeys.get(kid);
+                }
+                if (key == null) {
+                    throw new SecurityException("Unknown signing key id: " + kid);
+                }
+                return key;
+            }
+            if (header.getAlgorithm() != null && header.getAlgorithm().startsWith("HS")
+                    && System.currentTimeMillis() < legacyHmacDeadline) {
+                return legacyHmacKey;
+            }
+            throw new SecurityException("Token has no signing key id");
+        }
+    };
+
+    @PostConstruct
+    void init() {
+        crypto = new SigningKeyCrypto(keyEncryptionSecret);
+        legacyHmacKey = Keys.hmacShaKeyFor(legacySecret.getBytes(StandardCharsets.UTF_8));
+        legacyHmacDeadline = legacyHmacDeadline(System.currentTimeMillis());
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        refresh();
+        if (snapshot.signingKey == null) {
+            throw new IllegalStateException("No usable JWT signing key could be loaded or created");
+        }
+    }
+
+    public SigningKey signingKey() {
+        return snapshot.signingKey;
+    }
+
+    public Locator<Key> keyLocator() {
+        return keyLocator;
+    }
+
+    public PublicKey verificationKey(String kid) {
+        return snapshot.verificationKeys.get(kid);
+    }
+
+    public byte[] jwksJson() {
+        return snapshot.jwksJson;
+    }
+
+    public String jwksEtag() {
+        return snapshot.jwksEtag;
+    }
+
+    /**
+     * Reloads the ring from the database, picking up keys created by other nodes, and
+     * creates the successor key when the current one is due for rotation. Skipped when
+     * another refresh is already running, since that one picks up the same keys.
+     */
+    @Scheduled(fixedDelayString = "${app.auth.jwt.key-refresh-ms:60000}",
+            initialDelayString = "${app.auth.jwt.key-refresh-ms:60000}")
+    public void refresh() {
+        tryRefresh();
+    }
+
+    private boolean tryRefresh() {
+        // Request threads land here for unknown kids and must never queue behind the database
+        if (!refreshLock.tryLock()) {
+            return false;
+        }
+        // A lagging replica could hide a key another node just created
+        try (PrimaryReads.Pin pin = PrimaryReads.pin()) {
+            long now = System.currentTimeMillis();
+            List<JwtSigningKey> keys = signingKeyRepository.findByExpiresAtAfterOrderByActivatesAtAsc(toDateTime(now));
+            if (successorActivation(keys, now) != null) {
+                keys = transactionTemplate.execute(status -> createKeyIfDue());
+                // A key created while this node waited for the lock activates after the first reading
+                now = System.currentTimeMillis();
+            }
+            snapshot = buildSnapshot(keys, now);
+            signingKeyRepository.deleteExpired(toDateTime(now));
+        } catch (GeneralSecurityException | RuntimeException e) {
+            logger.error("Could not refresh JWT signing keys: {}", e.getMessage());
+        } finally {
+            refreshLock.unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Reloads the ring for a token signed with a key this node does not know yet, unless
+     * another unknown kid already did so within {@code unknown-kid-refresh-ms} or a
+     * refresh is already running.
+     */
+    private boolean refreshForUnknownKid() {
+        long now = System.currentTimeMillis();
+        long last = lastUnknownKidRefresh.get();
+        if (now - last < unknownKidRefreshMs || !lastUnknownKidRefresh.compareAndSet(last, now)) {
+            return false;
+        }
+        return tryRefresh();
+    }
+
+    /**
+     * The instant after which HMAC tokens are rejected, 0 when they are not accepted at
+     * all. Every HMAC token was issued before this deploy, so none is still valid one token
+     * lifetime later; a later configured cutoff is pulled in to that point.
+     */
+    private long legacyHmacDeadline(long now) {
+        if (!acceptLegacyHmac) {
+            return 0;
+        }
+        if (legacyHmacUntil == null || legacyHmacUntil.isBlank()) {
+            throw new IllegalStateException("app.auth.jwt.legacy-hmac-until must be set when accept-legacy-hmac is on");
+        }
+        long deadline = Instant.parse(legacyHmacUntil).toEpochMilli();
+        if (deadline > now + tokenLifetimeMs) {
+            deadline = now + tokenLifetimeMs;
+            logger.warn("app.auth.jwt.legacy-hmac-until {} is more than one token lifetime away, using {}",
+                    legacyHmacUntil, Instant.ofEpochMilli(deadline));
+        }
+        logger.info("Accepting legacy HMAC tokens until {}", Instant.ofEpochMilli(deadline));
+        return deadline;
+    }
+
+    // When a new key is needed, the time it starts signing; null while the ring is up to date
+    private Long successorActivation(List<JwtSigningKey> keys, long now) {
+        JwtSigningKey newest = keys.isEmpty() ? null : keys.get(keys.size() - 1);
+        if (newest == null || toMillis(newest.getExpiresAt()) < now + tokenLifetimeMs) {
+            // Nothing usable to sign with: no verifier can know a key yet, activate immediately
+            return now;
+        }
+        if (toMillis(newest.getActivatesAt()) + rotationIntervalMs - publishAheadMs <= now) {
+            return Math.max(now + publishAheadMs, toMillis(newest.getActivatesAt()));
+        }
+        return null;
+    }
+
+    // Nodes that find a key due at the same time queue on the lock; all but the first see its key on re-reading
+    private List<JwtSigningKey> createKeyIfDue() {
+        signingKeyRepository.lockKeyCreation();
+        long now = System.currentTimeMillis();
+        List<JwtSigningKey> keys = signingKeyRepository.findByExpiresAtAfterOrderByActivatesAtAsc(toDateTime(now));
+        Long activatesAt = successorActivation(keys, now);
+        if (activatesAt != null) {
+            try {
+                keys.add(createKey(now, activatesAt));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }
+        return keys;
+    }
+
+    private JwtSigningKey createKey(long now, long activatesAt) throws GeneralSecurityException {
+        KeyPair keyPair = SigningKeyCrypto.generate(algorithm);
+        String kid = UUID.randomUUID().toString();
+
+        JwtSigningKey key = new JwtSigningKey();
+        key.setKid(kid);
+        key.setAlgorithm(algorithm);
+        key.setPublicKey(keyPair.getPublic().getEncoded());
+        key.setPrivateKey(crypto.encryptPrivate(kid, keyPair.getPrivate()));
+        key.setCreatedAt(toDateTime(now));
+        key.setActivatesAt(toDateTime(activatesAt));
+        // Long enough to sign for a full rotation period even if the next rotation is late
+        key.setExpiresAt(toDateTime(activatesAt + 2 * rotationIntervalMs + tokenLifetimeMs + ticketUploadGraceMs));
+        signingKeyRepository.save(key);
+
+        // Predecessors verify until tokens they signed before the hand-over have expired
+        signingKeyRepository.retireBefore(key.getActivatesAt(),
+                toDateTime(activatesAt + tokenLifetimeMs + ticketUploadGraceMs));
+        logger.info("Created JWT signing key {} ({}), signing from {}", kid, algorithm, key.getActivatesAt());
+        return key;
+    }
+
+    private Snapshot buildSnapshot(List<JwtSigningKey> keys, long now) throws GeneralSecurityException {
+        Map<String, PublicKey> verificationKeys = new HashMap<>();
+        List<String> jwks = new ArrayList<>();
+        JwtSigningKey signing = null;
+        for (JwtSigningKey key : keys) {
+            PublicKey publicKey = SigningKeyCrypto.decodePublic(key.getAlgorithm(), key.getPublicKey());
+            verificationKeys.put(key.getKid(), publicKey);
+            jwks.add(Jwks.json(Jwks.builder().key(publicKey)
+                    .id(key.getKid())
+                    .algorithm(key.getAlgorithm())
+                    .publicKeyUse("sig")
+                    .build()));
+            if (toMillis(key.getActivatesAt()) <= now
+                    && (signing == null || !key.getActivatesAt().isBefore(signing.getActivatesAt()))) {
+                signing = key;
+            }
+        }
+
+        SigningKey signingKey = null;
+        if (signing != null) {
+            signingKey = new SigningKey(signing.getKid(),
+                    crypto.decryptPrivate(signing.getAlgorithm(), signing.getKid(), signing.getPrivateKey()));
+        }
+        byte[] jwksJson = ("{\"keys\":[" + String.join(",", jwks) + "]}").getBytes(StandardCharsets.UTF_8);
+        String etag = '"' + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(jwksJson), 0, 8) + '"';
+        return new Snapshot(Map.copyOf(verificationKeys), signingKey, jwksJson, etag);
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    public record SigningKey(String kid, PrivateKey privateKey) {
+    }
+
+    private record Snapshot(Map<String, PublicKey> verificationKeys, SigningKey signingKey,
+                            byte[] jwksJson, String jwksEtag) {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), null, "{\"keys\":[]}".getBytes(StandardCharsets.UTF_8), "\"0\"");
+    }
+}
@@ -0,0 +1,106 @@
+package swd392.eventmanagement.security.jwt;
+
+import io.jsonwebtoken.Claims;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of already verified JWT claims, keyed by the SHA-256 digest of the
+ * compact token so raw tokens are never retained. Entries are dropped once the
+ * token expires; when the cache is full and nothing has expired, new tokens are
+ * simply not cached.
+ */
+class VerifiedTokenCache {
+    private static final long PURGE_INTERVAL_MS = 1000;
+
+    private final Map<TokenDigest, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final MessageDigest digestPrototype;
+    private volatile long lastPurge;
+
+    VerifiedTokenCache(int maxSize) {
+        this.maxSize = maxSize;
+        try {
+            this.digestPrototype = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    Claims get(String token) {
+        if (maxSize <= 0) {
+            return null;
+        }
+        TokenDigest key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.claims;
+    }
+
+    void put(String token, Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (maxSize <= 0 || expiration == null) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            purgeExpired();
+            if (entries.size() >= maxSize) {
+                return;
+            }
+        }
+        entries.put(digest(token), new Entry(claims, expiration.getTime()));
+    }
+
+    void invalidate(String token) {
+        entries.remove(digest(token));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void purgeExpired() {
+        long now = System.currentTimeMillis();
+        if (now - lastPurge < PURGE_INTERVAL_MS) {
+            return;
+        }
+        lastPurge = now;
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+    }
+
+    private TokenDigest digest(String token) {
+        MessageDigest md;
+        try {
+            md = (MessageDigest) digestPrototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 digest is not cloneable", e);
+        }
+        byte[] hash = md.digest(token.getBytes(StandardCharsets.US_ASCII));
+        return new TokenDigest(readLong(hash, 0), readLong(hash, 8), readLong(hash, 16), readLong(hash, 24));
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private record TokenDigest(long h0, long h1, long h2, long h3) {
+    }
+
+    private record Entry(Claims claims, long expiresAt) {
+    }
+}
@@ -0,0 +1,52 @@
+package swd392.eventmanagement.security.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import swd392.eventmanagement.security.ratelimit.RateLimits.Limit;
+
+import java.io.IOException;
+
+/**
+ * Per-client-IP limits on the auth endpoints, checked before any token parsing or
+ * database work. Behind a proxy, set server.forward-headers-strategy so the remote
+ * address is the client's and not the proxy's.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    @Autowired
+    private RateLimits rateLimits;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Limit limit = limitFor(request);
+        if (limit != null) {
+            long retryAfterSeconds = rateLimits.check(limit, request.getRemoteAddr());
+            if (retryAfterSeconds > 0) {
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static Limit limitFor(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) {
+            return null;
+        }
+        return switch (request.getRequestURI()) {
+            case "/api/auth/google" -> Limit.GOOGLE;
+            case "/api/auth/refresh" -> Limit.REFRESH;
+            case "/api/auth/logout" -> Limit.LOGOUT;
+            default -> null;
+        };
+    }
+}
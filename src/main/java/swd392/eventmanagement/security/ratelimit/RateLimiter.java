@@ -0,0 +1,88 @@
+package swd392.eventmanagement.security.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-key token bucket implemented as GCRA: each key holds only its theoretical
+ * arrival time in an {@link AtomicLong}, updated with a CAS, so checks never lock.
+ * A bucket whose arrival time has passed is indistinguishable from a new one, which
+ * makes evicting idle buckets lossless. Once {@code maxKeys} is reached, unseen keys
+ * share a single overflow bucket instead of growing the map until the scheduled
+ * {@link #evictIdle} makes room; requests never scan the map themselves.
+ */
+public final class RateLimiter {
+    private static final String OVERFLOW_KEY = "\u0000overflow";
+
+    private final String name;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxKeys;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public RateLimiter(String name, int permitsPerMinute, int burst, int maxKeys) {
+        if (permitsPerMinute <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Rate limit " + name + " needs a positive rate and burst");
+        }
+        this.name = name;
+        this.emissionIntervalNanos = TimeUnit.MINUTES.toNanos(1) / permitsPerMinute;
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.maxKeys = maxKeys;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Takes one permit for {@code key}. Returns 0 when allowed, otherwise how many
+     * nanoseconds the caller has to wait before a permit is available.
+     */
+    public long tryAcquire(String key, long nowNanos) {
+        AtomicLong bucket = bucket(key, nowNanos);
+        while (true) {
+            long tat = bucket.get();
+            long base = Math.max(tat, nowNanos);
+            long waitNanos = base - burstToleranceNanos - nowNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (bucket.compareAndSet(tat, base + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops buckets that have fully refilled. Returns the number removed.
+     */
+    public int evictIdle(long nowNanos) {
+        int evicted = 0;
+        Iterator<AtomicLong> iterator = buckets.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().get() <= nowNanos) {
+                iterator.remove();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private AtomicLong bucket(String key, long nowNanos) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxKeys) {
+            key = OVERFLOW_KEY;
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(nowNanos));
+    }
+}
@@ -0,0 +1,84 @@
+package swd392.eventmanagement.security.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The rate limits in front of the auth endpoints: one per endpoint keyed by client IP,
+ * and one per Google subject checked once the ID token has been verified, so a single
+ * account cannot be hammered from many addresses. The per-IP login limit is loose on
+ * purpose: a campus NAT puts thousands of students behind one address during a login
+ * storm, so per-account abuse is left to the subject limit.
+ */
+@Component
+public class RateLimits {
+    public enum Limit {
+        GOOGLE, REFRESH, LOGOUT, GOOGLE_SUBJECT
+    }
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    private final RateLimiter[] limiters = new RateLimiter[Limit.values().length];
+    private final Counter[] rejections = new Counter[Limit.values().length];
+
+    public RateLimits(MeterRegistry meterRegistry,
+                      @Value("${app.rate-limit.max-keys:100000}") int maxKeys,
+                      @Value("${app.rate-limit.google.per-minute:3000}") int googlePerMinute,
+                      @Value("${app.rate-limit.google.burst:1000}") int googleBurst,
+                      @Value("${app.rate-limit.refresh.per-minute:60}") int refreshPerMinute,
+                      @Value("${app.rate-limit.refresh.burst:20}") int refreshBurst,
+                      @Value("${app.rate-limit.logout.per-minute:30}") int logoutPerMinute,
+                      @Value("${app.rate-limit.logout.burst:10}") int logoutBurst,
+                      @Value("${app.rate-limit.google-subject.per-minute:10}") int subjectPerMinute,
+                      @Value("${app.rate-limit.google-subject.burst:5}") int subjectBurst) {
+        limiters[Limit.GOOGLE.ordinal()] = new RateLimiter("google", googlePerMinute, googleBurst, maxKeys);
+        limiters[Limit.REFRESH.ordinal()] = new RateLimiter("refresh", refreshPerMinute, refreshBurst, maxKeys);
+        limiters[Limit.LOGOUT.ordinal()] = new RateLimiter("logout", logoutPerMinute, logoutBurst, maxKeys);
+        limiters[Limit.GOOGLE_SUBJECT.ordinal()] =
+                new RateLimiter("google_subject", subjectPerMinute, subjectBurst, maxKeys);
+
+        for (Limit limit : Limit.values()) {
+            RateLimiter limiter = limiters[limit.ordinal()];
+            rejections[limit.ordinal()] = Counter.builder("auth.rate_limit.rejected")
+                    .description("Requests rejected with 429 by a rate limit")
+                    .tag("limit", limiter.getName())
+                    .register(meterRegistry);
+            Gauge.builder("auth.rate_limit.keys", limiter, RateLimiter::size)
+                    .description("Clients currently tracked by a rate limit")
+                    .tag("limit", limiter.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Returns 0 when the request may proceed, otherwise the number of whole seconds to
+     * send back in Retry-After.
+     */
+    public long check(Limit limit, String key) {
+        if (!enabled || key == null) {
+            return 0;
+        }
+        long waitNanos = limiters[limit.ordinal()].tryAcquire(key, System.nanoTime());
+        if (waitNanos == 0) {
+            return 0;
+        }
+        rejections[limit.ordinal()].increment();
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (RateLimiter limiter : List.of(limiters)) {
+            limiter.evictIdle(now);
+        }
+    }
+}
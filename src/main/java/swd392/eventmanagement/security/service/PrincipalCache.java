@@ -0,0 +1,67 @@
+package swd392.eventmanagement.security.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import swd392.eventmanagement.model.entity.User;
+import swd392.eventmanagement.repository.UserRepository;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of full {@link User} entities for the few endpoints that need
+ * more than what the access token carries. Disabled when the TTL is zero. Entries are
+ * evicted when the user's role version rises or their row changes on any node.
+ */
+@Component
+public class PrincipalCache {
+    @Value("${app.auth.principal-cache.ttl-ms:0}")
+    private long ttlMs;
+
+    @Value("${app.auth.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Map<Long, CachedUser> users = new ConcurrentHashMap<>();
+
+    public Optional<User> getUser(Long userId) {
+        if (ttlMs <= 0) {
+            return userRepository.findById(userId);
+        }
+
+        long now = System.currentTimeMillis();
+        CachedUser cached = users.get(userId);
+        if (cached != null && cached.expiresAt > now) {
+            return Optional.of(cached.user);
+        }
+
+        Optional<User> user = userRepository.findById(userId);
+        if (user.isPresent()) {
+            // When full, new users are read through until the purge makes room
+            if (cached != null || users.size() < maxSize) {
+                users.put(userId, new CachedUser(user.get(), now + ttlMs));
+            }
+        } else {
+            users.remove(userId);
+        }
+        return user;
+    }
+
+    public void evict(Long userId) {
+        users.remove(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.principal-cache.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        users.values().removeIf(entry -> entry.expiresAt <= now);
+    }
+
+    private record CachedUser(User user, long expiresAt) {
+    }
+}
@@ -0,0 +1,77 @@
+package swd392.eventmanagement.security.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import swd392.eventmanagement.repository.UserRepository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory table of role versions for users whose roles changed after their
+ * account was created. Access tokens carry the role version they were issued
+ * with; a token older than the version held here must not be trusted for its
+ * embedded authorities.
+ * <p>
+ * A trigger on user_roles bumps the version whenever a role is taken away, whoever
+ * does it, and notifies the new version. Every node hears of it through
+ * {@link swd392.eventmanagement.cache.EntityCacheInvalidator}, which calls
+ * {@link #apply}; the periodic reload covers notifications missed while its
+ * listener was reconnecting.
+ */
+@Component
+public class RoleEpochRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(RoleEpochRegistry.class);
+
+    private final Map<Long, Integer> epochs = new ConcurrentHashMap<>();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @PostConstruct
+    void load() {
+        loadAll();
+        logger.info("Loaded role versions for {} users", epochs.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.role-epoch.reload-interval-ms:60000}",
+            initialDelayString = "${app.auth.role-epoch.reload-interval-ms:60000}")
+    public void reload() {
+        try {
+            loadAll();
+        } catch (RuntimeException e) {
+            logger.warn("Could not reload role versions: {}", e.getMessage());
+        }
+    }
+
+    private void loadAll() {
+        for (Object[] row : userRepository.findChangedRoleVersions()) {
+            apply((Long) row[0], (Integer) row[1]);
+        }
+    }
+
+    public int currentEpoch(Long userId) {
+        Integer epoch = epochs.get(userId);
+        return epoch != null ? epoch : 0;
+    }
+
+    public boolean isCurrent(Long userId, int tokenEpoch) {
+        return tokenEpoch >= currentEpoch(userId);
+    }
+
+    public void apply(Long userId, int epoch) {
+        int previous = currentEpoch(userId);
+        epochs.merge(userId, epoch, Math::max);
+        if (epoch > previous) {
+            // A cached copy still holds the roles that were just taken away
+            principalCache.evict(userId);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package swd392.eventmanagement.security.service;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public class UserPrincipal implements UserDetails {
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final String email;
+    private final String fullName;
+    private final List<GrantedAuthority> authorities;
+    // Id and expiry of the access token the request was authenticated with, if any
+    private final String tokenId;
+    private final Date tokenExpiresAt;
+
+    public UserPrincipal(Long id, String email, List<GrantedAuthority> authorities) {
+        this(id, email, null, authorities);
+    }
+
+    public UserPrincipal(Long id, String email, String fullName, List<GrantedAuthority> authorities) {
+        this(id, email, fullName, authorities, null, null);
+    }
+
+    public UserPrincipal(Long id, String email, String fullName, List<GrantedAuthority> authorities,
+                         String tokenId, Date tokenExpiresAt) {
+        this.id = id;
+        this.email = email;
+        this.fullName = fullName;
+        this.authorities = authorities;
+        this.tokenId = tokenId;
+        this.tokenExpiresAt = tokenExpiresAt;
+    }
+
+    public UserPrincipal withToken(String tokenId, Date tokenExpiresAt) {
+        return new UserPrincipal(id, email, fullName, authorities, tokenId, tokenExpiresAt);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public Date getTokenExpiresAt() {
+        return tokenExpiresAt;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return ""; // No password since we're using OAuth
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+}
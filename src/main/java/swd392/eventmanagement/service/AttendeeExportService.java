@@ -0,0 +1,26 @@
+package swd392.eventmanagement.service;
+
+import swd392.eventmanagement.export.ExportFormat;
+
+import java.io.OutputStream;
+
+public interface AttendeeExportService {
+    /**
+     * Checks that the requester organizes the event, or is an admin, and takes one of the
+     * {@code app.export.max-concurrent} export slots. Nothing is read or written until
+     * {@link Export#writeTo}; closing the export gives the slot back.
+     */
+    Export open(Long eventId, Long requesterId, boolean admin, ExportFormat format);
+
+    interface Export extends AutoCloseable {
+        /**
+         * Streams the event's confirmed attendees (name, email, roles, check-in time) to
+         * {@code out} and closes it. A client that goes away ends the export early without
+         * an error. Returns the number of attendees written.
+         */
+        long writeTo(OutputStream out);
+
+        @Override
+        void close();
+    }
+}
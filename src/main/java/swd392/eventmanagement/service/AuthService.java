@@ -5,9 +5,11 @@ import swd392.eventmanagement.model.dto.response.JwtResponse;
 import swd392.eventmanagement.model.dto.response.TokenRefreshResponse;
 import swd392.eventmanagement.model.entity.User;
 
+import java.util.Date;
+
 public interface AuthService {
     JwtResponse authenticateWithGoogle(GoogleTokenRequest request) throws Exception;
     TokenRefreshResponse refreshToken(String refreshToken);
-    boolean logout(String refreshToken);
+    boolean logout(String refreshToken, String accessTokenId, Date accessTokenExpiresAt);
     User createOrUpdateUser(String email, String name, String providerId);
 } 
\ No newline at end of file
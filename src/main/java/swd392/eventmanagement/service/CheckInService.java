@@ -0,0 +1,20 @@
+package swd392.eventmanagement.service;
+
+import swd392.eventmanagement.model.dto.request.ScanBatchRequest;
+import swd392.eventmanagement.model.dto.response.CheckInTicketResponse;
+import swd392.eventmanagement.model.dto.response.ScanBatchResponse;
+
+public interface CheckInService {
+    /**
+     * Issues a signed check-in ticket for the user's confirmed registration. Valid until
+     * the event ends, or for {@code app.checkin.ticket-lifetime-ms} if that is sooner.
+     */
+    CheckInTicketResponse issueTicket(Long eventId, Long userId);
+
+    /**
+     * Verifies a batch of scans uploaded by a gate scanner and merges them into the
+     * event's attendance. Idempotent: uploading the same batch again checks nobody in
+     * twice and only ever moves a check-in time earlier.
+     */
+    ScanBatchResponse ingestScans(Long eventId, ScanBatchRequest request);
+}
@@ -0,0 +1,22 @@
+package swd392.eventmanagement.service;
+
+import swd392.eventmanagement.model.dto.request.CreateEventRequest;
+import swd392.eventmanagement.model.dto.response.EventPageResponse;
+import swd392.eventmanagement.model.dto.response.EventResponse;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface EventService {
+    EventResponse createEvent(Long organizerId, CreateEventRequest request);
+
+    Optional<EventResponse> getEvent(Long eventId);
+
+    /**
+     * A page of the catalog ordered by start time, from {@code from} (default now) up to
+     * {@code to}, optionally for one organizer or category. {@code cursor} is the
+     * {@code nextCursor} of the previous page, null for the first one.
+     */
+    EventPageResponse listEvents(LocalDateTime from, LocalDateTime to, Long organizerId, String category,
+                                 String cursor, int size);
+}
@@ -7,4 +7,5 @@ import java.security.GeneralSecurityException;
 public interface GoogleTokenVerifierService {
     Payload verifyGoogleIdToken(String idTokenString) throws GeneralSecurityException, IOException;
     boolean isAllowedDomain(String email);
+    String resolveRole(String email);
 } 
\ No newline at end of file
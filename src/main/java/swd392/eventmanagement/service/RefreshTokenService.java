@@ -6,6 +6,7 @@ import java.util.Optional;
 public interface RefreshTokenService {
     Optional<RefreshToken> findByToken(String token);
     RefreshToken createRefreshToken(Long userId);
+    RefreshToken rotateRefreshToken(String token);
     RefreshToken verifyExpiration(RefreshToken token);
-    void deleteByToken(String token);
-} 
\ No newline at end of file
+    boolean deleteByToken(String token);
+}
@@ -0,0 +1,24 @@
+package swd392.eventmanagement.service;
+
+import swd392.eventmanagement.model.dto.response.RegistrationResponse;
+
+public interface RegistrationService {
+    /**
+     * Registers the user for the event. Idempotent: a user who is already registered
+     * gets the existing registration back, even once the event is full.
+     */
+    RegistrationResponse register(Long eventId, Long userId);
+
+    /**
+     * Like {@link #register}, but a user who finds the event full is put on its
+     * waitlist instead and gets a {@code WAITLISTED} response.
+     */
+    RegistrationResponse registerOrWaitlist(Long eventId, Long userId);
+
+    /**
+     * Cancels the user's registration and returns the seat to the event, or to its
+     * waitlist when users are waiting. Returns false
+     * when there was no confirmed registration to cancel.
+     */
+    boolean cancel(Long eventId, Long userId);
+}
@@ -1,5 +1,13 @@
 package swd392.eventmanagement.service;
 
+import swd392.eventmanagement.model.dto.response.UserProfileResponse;
+
+import java.util.Optional;
+
 public interface UserService {
-    // TODO: Define user service methods
-} 
\ No newline at end of file
+    /**
+     * The user's current profile as stored, for callers that cannot rely on token
+     * claims. Empty when the user no longer exists.
+     */
+    Optional<UserProfileResponse> getProfile(Long userId);
+}
@@ -0,0 +1,32 @@
+package swd392.eventmanagement.service;
+
+import swd392.eventmanagement.model.dto.response.RegistrationResponse;
+
+public interface WaitlistService {
+    /**
+     * Queues the user for a seat of a full event. Idempotent: a user already waiting
+     * keeps their place. Home-domain students queue ahead of everyone else when
+     * {@code app.waitlist.prefer-home-students} is on; arrival order decides otherwise.
+     */
+    RegistrationResponse join(Long eventId, Long userId);
+
+    /**
+     * Takes the user off the waitlist. Returns false when they were not waiting.
+     */
+    boolean leave(Long eventId, Long userId);
+
+    /**
+     * Promotes waiting users into the seats of every event marked due since the last
+     * run, one transaction per event.
+     */
+    PromotionRun promoteDueEvents();
+
+    /**
+     * Marks due any event with free seats and waiting users that no cancellation
+     * marked, e.g. one that raced with a join. A safety net, not the normal path.
+     */
+    int markMissedEventsDue();
+
+    record PromotionRun(int events, int promoted) {
+    }
+}
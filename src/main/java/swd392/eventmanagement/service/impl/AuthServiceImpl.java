@@ -4,24 +4,35 @@ import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken.Payload;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import swd392.eventmanagement.audit.AuditEventType;
+import swd392.eventmanagement.audit.AuditLog;
+import swd392.eventmanagement.cache.EntityCacheInvalidator;
+import swd392.eventmanagement.config.PrimaryReads;
+import swd392.eventmanagement.exception.RateLimitExceededException;
 import swd392.eventmanagement.exception.TokenRefreshException;
+import swd392.eventmanagement.metrics.AuthMetrics;
+import swd392.eventmanagement.metrics.AuthMetrics.Operation;
+import swd392.eventmanagement.metrics.AuthMetrics.Stage;
 import swd392.eventmanagement.model.dto.request.GoogleTokenRequest;
 import swd392.eventmanagement.model.dto.response.JwtResponse;
 import swd392.eventmanagement.model.dto.response.TokenRefreshResponse;
 import swd392.eventmanagement.model.entity.RefreshToken;
 import swd392.eventmanagement.model.entity.Role;
 import swd392.eventmanagement.model.entity.User;
-import swd392.eventmanagement.repository.RoleRepository;
 import swd392.eventmanagement.repository.UserRepository;
+import swd392.eventmanagement.security.ratelimit.RateLimits;
+import swd392.eventmanagement.security.jwt.AccessTokenRevocationList;
 import swd392.eventmanagement.security.jwt.JwtUtils;
 import swd392.eventmanagement.service.AuthService;
 import swd392.eventmanagement.service.GoogleTokenVerifierService;
 import swd392.eventmanagement.service.RefreshTokenService;
+import swd392.eventmanagement.service.impl.LoginBatchWriter.ProvisionedLogin;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.Optional;
+import java.util.Date;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -33,7 +44,7 @@ public class AuthServiceImpl implements AuthService {
     private UserRepository userRepository;
 
     @Autowired
-    private RoleRepository roleRepository;
+    private RoleCache roleCache;
 
     @Autowired
     private JwtUtils jwtUtils;
@@ -41,40 +52,104 @@ public class AuthServiceImpl implements AuthService {
     @Autowired
     private RefreshTokenService refreshTokenService;
     
+    // A proxy, so the verifier and the Google client stack load after startup
+    @Lazy
     @Autowired
     private GoogleTokenVerifierService googleTokenVerifierService;
     
+    @Autowired
+    private LoginBatchWriter loginBatchWriter;
+    
+    @Autowired
+    private AuthMetrics authMetrics;
+    
+    @Autowired
+    private AuditLog auditLog;
+    
+    @Autowired
+    private AccessTokenRevocationList revocationList;
+    
+    @Autowired
+    private RateLimits rateLimits;
+    
+    @Autowired
+    private EntityCacheInvalidator entityCacheInvalidator;
+    
     @Override
     public JwtResponse authenticateWithGoogle(GoogleTokenRequest request) throws Exception {
+        long started = authMetrics.start();
+        boolean success = false;
+        try {
+            JwtResponse response = doAuthenticateWithGoogle(request, started);
+            success = true;
+            return response;
+        } finally {
+            authMetrics.recordOperation(Operation.GOOGLE, success, started);
+        }
+    }
+    
+    private JwtResponse doAuthenticateWithGoogle(GoogleTokenRequest request, long stageStart) throws Exception {
         Payload payload = googleTokenVerifierService.verifyGoogleIdToken(request.getIdToken());
+        stageStart = authMetrics.record(Stage.GOOGLE_VERIFY_TOKEN, stageStart);
         
         if (payload == null) {
-            logger.warn("Invalid Google ID token provided");
+            auditLog.publish(AuditEventType.LOGIN_FAILURE, null, "Invalid Google ID token");
             throw new Exception("Invalid ID token");
         }
         
+        // Per-account limit, so one account cannot be hammered from many addresses
+        long retryAfterSeconds = rateLimits.check(RateLimits.Limit.GOOGLE_SUBJECT, payload.getSubject());
+        if (retryAfterSeconds > 0) {
+            throw new RateLimitExceededException("Too many login attempts for this account", retryAfterSeconds);
+        }
+        
         String email = payload.getEmail();
         
-        if (!googleTokenVerifierService.isAllowedDomain(email)) {
-            logger.warn("Access attempt with unauthorized email domain: {}", email);
+        // Domain check and role resolution are a single index lookup
+        String roleName = googleTokenVerifierService.resolveRole(email);
+        stageStart = authMetrics.record(Stage.GOOGLE_RESOLVE_ROLE, stageStart);
+        if (roleName == null) {
+            auditLog.publish(AuditEventType.DOMAIN_DENIED, email, null);
             throw new Exception("Access denied: Only allowed email domains can access this service");
         }
         
         String name = (String) payload.get("name");
         String providerId = payload.getSubject();
         
-        User user = createOrUpdateUser(email, name, providerId);
+        if (loginBatchWriter.isEnabled()) {
+            Role userRole = roleCache.getRequired(roleName);
+            ProvisionedLogin login = loginBatchWriter.provision(email, name, providerId, userRole.getId());
+            stageStart = authMetrics.record(Stage.GOOGLE_GROUP_COMMIT, stageStart);
+            if (login != null) {
+                String token = jwtUtils.generateAccessToken(
+                        login.userId(), login.email(), login.fullName(), login.roles(), login.roleVersion());
+                authMetrics.record(Stage.GOOGLE_SIGN_TOKEN, stageStart);
+                auditLog.publish(AuditEventType.LOGIN_SUCCESS, email, null);
+                return new JwtResponse(
+                    token,
+                    login.refreshToken(),
+                    login.userId(),
+                    login.email(),
+                    login.fullName(),
+                    toResponseRoles(login.roles()));
+            }
+        }
+        
+        User user = provisionUser(email, name, providerId, roleName);
+        stageStart = authMetrics.record(Stage.GOOGLE_PROVISION_USER, stageStart);
         
         // Generate JWT and refresh token
-        String token = jwtUtils.generateTokenFromEmail(user.getEmail());
+        String token = jwtUtils.generateAccessToken(user);
+        stageStart = authMetrics.record(Stage.GOOGLE_SIGN_TOKEN, stageStart);
         RefreshToken refreshToken = refreshTokenService.createRefreshToken(user.getId());
+        authMetrics.record(Stage.GOOGLE_CREATE_REFRESH_TOKEN, stageStart);
         
         // Extract role names from user roles
-        Set<String> roles = new HashSet<>(user.getRoles()).stream()
-            .map(role -> role.getName().replace("ROLE_", ""))
-            .collect(Collectors.toSet());
+        Set<String> roles = toResponseRoles(user.getRoles().stream()
+            .map(Role::getName)
+            .collect(Collectors.toSet()));
         
-        logger.info("User successfully authenticated: {}", email);
+        auditLog.publish(AuditEventType.LOGIN_SUCCESS, email, null);
         return new JwtResponse(
             token, 
             refreshToken.getToken(), 
@@ -86,64 +161,86 @@ public class AuthServiceImpl implements AuthService {
     
     @Override
     public TokenRefreshResponse refreshToken(String refreshToken) {
-        return refreshTokenService.findByToken(refreshToken)
-                .map(refreshTokenService::verifyExpiration)
-                .map(token -> {
-                    User user = token.getUser();
-                    String jwt = jwtUtils.generateTokenFromEmail(user.getEmail());
-                    logger.info("Token refreshed for user: {}", user.getEmail());
-                    return new TokenRefreshResponse(jwt, refreshToken);
-                })
-                .orElseThrow(() -> {
-                    logger.warn("Refresh token not found in database: {}", refreshToken);
-                    return new TokenRefreshException(refreshToken, "Refresh token is not in database!");
-                });
+        long started = authMetrics.start();
+        boolean success = false;
+        try {
+            RefreshToken rotated = refreshTokenService.rotateRefreshToken(refreshToken);
+            long stageStart = authMetrics.record(Stage.REFRESH_ROTATE_TOKEN, started);
+            User user = rotated.getUser();
+            String jwt = jwtUtils.generateAccessToken(user);
+            authMetrics.record(Stage.REFRESH_SIGN_TOKEN, stageStart);
+            auditLog.publish(AuditEventType.REFRESH_SUCCESS, user.getEmail(), null);
+            success = true;
+            return new TokenRefreshResponse(jwt, rotated.getToken());
+        } catch (TokenRefreshException e) {
+            auditLog.publish(AuditEventType.REFRESH_FAILURE, null, e.getMessage());
+            throw e;
+        } finally {
+            authMetrics.recordOperation(Operation.REFRESH, success, started);
+        }
     }
     
     @Override
-    public boolean logout(String refreshToken) {
-        Optional<RefreshToken> tokenOptional = refreshTokenService.findByToken(refreshToken);
-        if (tokenOptional.isPresent()) {
-            refreshTokenService.deleteByToken(refreshToken);
-            logger.info("User logged out successfully");
+    public boolean logout(String refreshToken, String accessTokenId, Date accessTokenExpiresAt) {
+        long started = authMetrics.start();
+        boolean deleted = false;
+        try {
+            deleted = refreshTokenService.deleteByToken(refreshToken);
+            long stageStart = authMetrics.record(Stage.LOGOUT_DELETE_TOKEN, started);
+            // Otherwise the access token would stay usable until it expires
+            if (accessTokenId != null && accessTokenExpiresAt != null) {
+                revocationList.revoke(accessTokenId, accessTokenExpiresAt);
+                authMetrics.record(Stage.LOGOUT_REVOKE_ACCESS_TOKEN, stageStart);
+            }
+        } finally {
+            authMetrics.recordOperation(Operation.LOGOUT, deleted, started);
+        }
+        if (deleted) {
+            auditLog.publish(AuditEventType.LOGOUT, null, null);
             return true;
         }
-        logger.warn("Logout failed: refresh token not found or already invalidated.");
+        auditLog.publish(AuditEventType.LOGOUT_FAILURE, null, "Refresh token not found or already invalidated");
         return false;
     }
     
     @Override
     public User createOrUpdateUser(String email, String name, String providerId) {
-        Optional<User> userOptional = userRepository.findByEmail(email);
-        User user;
-        
-        if (userOptional.isEmpty()) {
-            logger.info("Creating new user with email: {}", email);
-            // Create new user
-            user = new User();
-            user.setEmail(email);
-            user.setFullName(name);
-            user.setProviderUserId(providerId);
-            
-            // Assign role based on email domain
-            String roleName = email.endsWith("@fpt.edu.vn") ? "ROLE_STUDENT" : "ROLE_LECTURER";
-            
-            Role userRole = roleRepository.findByName(roleName)
-                    .orElseThrow(() -> new RuntimeException("Error: Role " + roleName + " is not found."));
-            Set<Role> roles = new HashSet<>();
-            roles.add(userRole);
-            user.setRoles(roles);
-            
-            userRepository.save(user);
-        } else {
-            user = userOptional.get();
-            logger.info("Updating existing user: {}", email);
-            // Update existing user info
-            user.setFullName(name);
-            user.setUpdatedAt(LocalDateTime.now());
-            userRepository.save(user);
+        String roleName = googleTokenVerifierService.resolveRole(email);
+        if (roleName == null) {
+            throw new RuntimeException("Error: Email domain of " + email + " is not allowed.");
         }
-        
-        return user;
+        return provisionUser(email, name, providerId, roleName);
+    }
+    
+    private User provisionUser(String email, String name, String providerId, String roleName) {
+        // Role is only applied when the user is created
+        Role userRole = roleCache.getRequired(roleName);
+
+        Long provisionedId = userRepository.upsertByProviderUserId(
+                email, name, providerId, userRole.getId(), LocalDateTime.now());
+
+        // Read back from the primary; a replica may not have the row yet
+        try (PrimaryReads.Pin pin = PrimaryReads.pin()) {
+            // A concurrent first login won the insert; its row is visible to a new statement
+            Long userId = provisionedId != null ? provisionedId : userRepository.findIdByProviderUserId(providerId)
+                    .orElseThrow(() -> new RuntimeException("Error: User " + email + " was not provisioned."));
+            logger.debug("Provisioned user {} with id {}", email, userId);
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("Error: User " + email + " was not provisioned."));
+            // The native upsert bypasses Hibernate, so a cached copy may predate it
+            if (!Objects.equals(user.getEmail(), email) || !Objects.equals(user.getFullName(), name)
+                    || !Objects.equals(user.getProviderUserId(), providerId)) {
+                entityCacheInvalidator.evictUser(userId);
+                user = userRepository.findById(userId)
+                        .orElseThrow(() -> new RuntimeException("Error: User " + email + " was not provisioned."));
+            }
+            return user;
+        }
+    }
+    
+    private Set<String> toResponseRoles(Set<String> roleNames) {
+        return roleNames.stream()
+            .map(roleName -> roleName.replace("ROLE_", ""))
+            .collect(Collectors.toSet());
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,80 @@
+package swd392.eventmanagement.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers per event who is checked in and since when, so the repeat scans of doors-open
+ * (a second gate, a scanner re-uploading a batch it got no answer for) are dropped before
+ * they reach the database. An event is loaded from its attendance the first time this
+ * node sees it, and only learns check-ins after they were written, so a failed write
+ * never makes a scan look like a duplicate. Other nodes' check-ins are caught by the merge.
+ */
+@Component
+public class CheckInDeduplicator {
+    private static final String LOAD_SQL = "SELECT user_id, checked_in_at FROM attendances WHERE event_id = ?";
+
+    @Value("${app.checkin.dedup-idle-ms:21600000}")
+    private long idleMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, EventCheckIns> events = new ConcurrentHashMap<>();
+
+    /**
+     * True when the attendee is known to be checked in no later than {@code scannedAt},
+     * so the scan cannot change their attendance.
+     */
+    boolean isDuplicate(Long eventId, Long userId, LocalDateTime scannedAt) {
+        LocalDateTime checkedInAt = event(eventId).checkedIn.get(userId);
+        return checkedInAt != null && !scannedAt.isBefore(checkedInAt);
+    }
+
+    void recorded(Long eventId, Map<Long, LocalDateTime> checkIns) {
+        Map<Long, LocalDateTime> checkedIn = event(eventId).checkedIn;
+        checkIns.forEach((userId, at) -> checkedIn.merge(userId, at, (a, b) -> a.isBefore(b) ? a : b));
+    }
+
+    @Scheduled(fixedDelayString = "${app.checkin.dedup-evict-ms:600000}")
+    public void evictIdle() {
+        long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(idleMs);
+        events.values().removeIf(event -> event.lastUsedNanos - cutoff < 0);
+    }
+
+    private EventCheckIns event(Long eventId) {
+        EventCheckIns event = events.get(eventId);
+        if (event == null) {
+            // Loaded outside the map so the query never holds a bin lock; a racing load
+            // is discarded, and a stale one only lets a duplicate through to the database
+            EventCheckIns loaded = load(eventId);
+            event = events.putIfAbsent(eventId, loaded);
+            if (event == null) {
+                event = loaded;
+            }
+        }
+        event.lastUsedNanos = System.nanoTime();
+        return event;
+    }
+
+    private EventCheckIns load(Long eventId) {
+        EventCheckIns event = new EventCheckIns();
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            event.checkedIn.put(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime());
+        }, eventId);
+        return event;
+    }
+
+    private static final class EventCheckIns {
+        private final Map<Long, LocalDateTime> checkedIn = new ConcurrentHashMap<>();
+        private volatile long lastUsedNanos = System.nanoTime();
+    }
+}
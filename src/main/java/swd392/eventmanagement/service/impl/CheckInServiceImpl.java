@@ -0,0 +1,264 @@
+package swd392.eventmanagement.service.impl;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import swd392.eventmanagement.config.PrimaryReads;
+import swd392.eventmanagement.exception.ResourceNotFoundException;
+import swd392.eventmanagement.model.dto.request.ScanBatchRequest;
+import swd392.eventmanagement.model.dto.request.ScanRequest;
+import swd392.eventmanagement.model.dto.response.CheckInTicketResponse;
+import swd392.eventmanagement.model.dto.response.ScanBatchResponse;
+import swd392.eventmanagement.model.dto.response.ScanRejection;
+import swd392.eventmanagement.model.projection.TicketHolder;
+import swd392.eventmanagement.repository.RegistrationRepository;
+import swd392.eventmanagement.security.jwt.JwtUtils;
+import swd392.eventmanagement.service.CheckInService;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+@Service
+public class CheckInServiceImpl implements CheckInService {
+    private static final Logger logger = LoggerFactory.getLogger(CheckInServiceImpl.class);
+
+    private static final String EVENT_START_SQL = "SELECT starts_at FROM events WHERE id = ?";
+
+    private static final String CONFIRMED_SQL = """
+            SELECT user_id FROM registrations
+            WHERE event_id = ? AND user_id = ANY(?) AND status = 'CONFIRMED'
+            """;
+
+    // One statement per batch; rows whose check-in time would not move are left alone.
+    // The join skips attendees whose registration was cancelled since the check above.
+    private static final String MERGE_SQL = """
+            INSERT INTO attendances (event_id, user_id, checked_in_at, scanner_id)
+            SELECT r.event_id, r.user_id, s.scanned_at, ?
+            FROM unnest(?::bigint[], ?::timestamp[]) AS s(user_id, scanned_at)
+            JOIN registrations r ON r.event_id = ? AND r.user_id = s.user_id AND r.status = 'CONFIRMED'
+            ORDER BY r.user_id
+            ON CONFLICT (event_id, user_id) DO UPDATE
+                SET checked_in_at = EXCLUDED.checked_in_at, scanner_id = EXCLUDED.scanner_id
+                WHERE EXCLUDED.checked_in_at < attendances.checked_in_at
+            RETURNING user_id, checked_in_at, xmax = 0
+            """;
+
+    @Value("${app.checkin.ticket-lifetime-ms:86400000}")
+    private long ticketLifetimeMs;
+
+    @Value("${app.auth.jwt.expiration}")
+    private long tokenLifetimeMs;
+
+    @Value("${app.checkin.max-batch-size:5000}")
+    private int maxBatchSize;
+
+    @Value("${app.checkin.max-clock-skew-ms:300000}")
+    private long maxClockSkewMs;
+
+    @Value("${app.checkin.doors-open-ms:7200000}")
+    private long doorsOpenMs;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private CheckInDeduplicator deduplicator;
+
+    @Autowired
+    private RegistrationRepository registrationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void init() {
+        // Signing keys stay published for one access token lifetime after they retire
+        ticketLifetimeMs = Math.min(ticketLifetimeMs, tokenLifetimeMs);
+    }
+
+    @Override
+    public CheckInTicketResponse issueTicket(Long eventId, Long userId) {
+        TicketHolder holder;
+        // Often asked for right after registering, before the replicas have the registration
+        try (PrimaryReads.Pin pin = PrimaryReads.pin()) {
+            holder = registrationRepository.findTicketHolder(eventId, userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("No registration for event " + eventId));
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(ticketLifetimeMs, ChronoUnit.MILLIS);
+        if (holder.endsAt().isBefore(expiresAt)) {
+            expiresAt = holder.endsAt();
+        }
+        if (!expiresAt.isAfter(now)) {
+            throw new IllegalArgumentException("Event " + eventId + " has ended");
+        }
+        // JWT times have whole seconds
+        expiresAt = expiresAt.truncatedTo(ChronoUnit.SECONDS);
+        String ticket = jwtUtils.generateCheckInTicket(eventId, userId, holder.fullName(), toDate(expiresAt));
+        return new CheckInTicketResponse(eventId, userId, ticket, expiresAt);
+    }
+
+    @Override
+    public ScanBatchResponse ingestScans(Long eventId, ScanBatchRequest request) {
+        List<ScanRequest> scans = request.getScans();
+        if (scans == null || scans.isEmpty()) {
+            throw new IllegalArgumentException("No scans in batch");
+        }
+        if (scans.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " scans per batch");
+        }
+        if (request.getScannerId() != null && request.getScannerId().length() > 64) {
+            throw new IllegalArgumentException("Scanner id is longer than 64 characters");
+        }
+        List<Timestamp> startsAt = jdbcTemplate.queryForList(EVENT_START_SQL, Timestamp.class, eventId);
+        if (startsAt.isEmpty()) {
+            throw new ResourceNotFoundException("Event not found: " + eventId);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime latestScan = now.plus(maxClockSkewMs, ChronoUnit.MILLIS);
+        // A check-in time only ever moves earlier, so one scanner with a wrong clock must
+        // not get to set it before the doors opened
+        LocalDateTime doorsOpen = startsAt.get(0).toLocalDateTime().minus(doorsOpenMs, ChronoUnit.MILLIS);
+        List<ScanRejection> rejected = new ArrayList<>();
+        List<ValidScan> valid = new ArrayList<>(scans.size());
+        for (int i = 0; i < scans.size(); i++) {
+            ScanRequest scan = scans.get(i);
+            LocalDateTime scannedAt = scan.getScannedAt() != null ? scan.getScannedAt() : now;
+            if (scannedAt.isAfter(latestScan)) {
+                rejected.add(new ScanRejection(i, "SCANNED_IN_FUTURE"));
+                continue;
+            }
+            try {
+                Claims claims = jwtUtils.parseCheckInTicket(scan.getTicket());
+                if (!eventId.equals(claims.get(JwtUtils.CLAIM_EVENT_ID, Long.class))) {
+                    rejected.add(new ScanRejection(i, "WRONG_EVENT"));
+                    continue;
+                }
+                if (claims.getExpiration() == null || claims.getIssuedAt() == null) {
+                    rejected.add(new ScanRejection(i, "INVALID"));
+                    continue;
+                }
+                if (scannedAt.isAfter(toDateTime(claims.getExpiration()).plus(maxClockSkewMs, ChronoUnit.MILLIS))) {
+                    rejected.add(new ScanRejection(i, "EXPIRED"));
+                    continue;
+                }
+                LocalDateTime issuedAt = toDateTime(claims.getIssuedAt());
+                LocalDateTime earliestScan = (issuedAt.isAfter(doorsOpen) ? issuedAt : doorsOpen)
+                        .minus(maxClockSkewMs, ChronoUnit.MILLIS);
+                if (scannedAt.isBefore(earliestScan)) {
+                    rejected.add(new ScanRejection(i, "SCANNED_TOO_EARLY"));
+                    continue;
+                }
+                valid.add(new ValidScan(i, Long.valueOf(claims.getSubject()), scannedAt));
+            } catch (ExpiredJwtException e) {
+                rejected.add(new ScanRejection(i, "EXPIRED"));
+            } catch (JwtException | IllegalArgumentException e) {
+                rejected.add(new ScanRejection(i, "INVALID"));
+            }
+        }
+
+        // A ticket stays valid after its registration was cancelled
+        Set<Long> confirmed = confirmedAttendees(eventId, valid);
+        // Earliest scan per attendee that could still change their attendance
+        Map<Long, LocalDateTime> checkIns = new HashMap<>();
+        int duplicates = 0;
+        for (ValidScan scan : valid) {
+            if (!confirmed.contains(scan.userId())) {
+                rejected.add(new ScanRejection(scan.index(), "NOT_REGISTERED"));
+                continue;
+            }
+            LocalDateTime earlier = checkIns.get(scan.userId());
+            if (earlier != null || deduplicator.isDuplicate(eventId, scan.userId(), scan.scannedAt())) {
+                duplicates++;
+                if (earlier != null && scan.scannedAt().isBefore(earlier)) {
+                    checkIns.put(scan.userId(), scan.scannedAt());
+                }
+                continue;
+            }
+            checkIns.put(scan.userId(), scan.scannedAt());
+        }
+        rejected.sort(Comparator.comparingInt(ScanRejection::getIndex));
+
+        int checkedIn = 0;
+        if (!checkIns.isEmpty()) {
+            Map<Long, LocalDateTime> written = new HashMap<>(checkIns);
+            checkedIn = merge(eventId, request.getScannerId(), checkIns, written);
+            // Rows left alone were already checked in no later than this, here or on another node
+            duplicates += checkIns.size() - checkedIn;
+            deduplicator.recorded(eventId, written);
+        }
+        logger.debug("Event {}: {} scans from {}, {} checked in, {} duplicates, {} rejected", eventId,
+                scans.size(), request.getScannerId(), checkedIn, duplicates, rejected.size());
+        return new ScanBatchResponse(scans.size(), checkedIn, duplicates, rejected);
+    }
+
+    private Set<Long> confirmedAttendees(Long eventId, List<ValidScan> scans) {
+        if (scans.isEmpty()) {
+            return Set.of();
+        }
+        Long[] userIds = scans.stream().map(ValidScan::userId).distinct().toArray(Long[]::new);
+        Set<Long> confirmed = new HashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(CONFIRMED_SQL);
+            ps.setLong(1, eventId);
+            ps.setArray(2, con.createArrayOf("int8", userIds));
+            return ps;
+        }, rs -> {
+            confirmed.add(rs.getLong(1));
+        });
+        return confirmed;
+    }
+
+    /**
+     * Writes the batch's check-ins and returns how many attendees were new. The check-in
+     * times the database ended up with are put into {@code written}.
+     */
+    private int merge(Long eventId, String scannerId, Map<Long, LocalDateTime> checkIns,
+                      Map<Long, LocalDateTime> written) {
+        Long[] userIds = new Long[checkIns.size()];
+        Timestamp[] scannedAt = new Timestamp[checkIns.size()];
+        int i = 0;
+        for (Map.Entry<Long, LocalDateTime> checkIn : checkIns.entrySet()) {
+            userIds[i] = checkIn.getKey();
+            scannedAt[i++] = Timestamp.valueOf(checkIn.getValue());
+        }
+        int[] inserted = new int[1];
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(MERGE_SQL);
+            ps.setString(1, scannerId);
+            ps.setArray(2, con.createArrayOf("int8", userIds));
+            ps.setArray(3, con.createArrayOf("timestamp", scannedAt));
+            ps.setLong(4, eventId);
+            return ps;
+        }, rs -> {
+            written.put(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime());
+            if (rs.getBoolean(3)) {
+                inserted[0]++;
+            }
+        });
+        return inserted[0];
+    }
+
+    private record ValidScan(int index, Long userId, LocalDateTime scannedAt) {
+    }
+
+    private static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static LocalDateTime toDateTime(Date date) {
+        return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,58 @@
+package swd392.eventmanagement.service.impl;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Opaque catalog cursors: the (starts_at, id) key of the last event on a page, as
+ * base64url. Clients only pass them back, so the encoding can change with the version byte.
+ */
+final class EventCursorCodec {
+    private static final byte VERSION = 1;
+    private static final int LENGTH = 1 + Long.BYTES + Long.BYTES;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final int MIN_YEAR = 1;
+    private static final int MAX_YEAR = 9999;
+
+    private EventCursorCodec() {
+    }
+
+    static String encode(LocalDateTime startsAt, Long id) {
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH);
+        buffer.put(VERSION);
+        // Microseconds, the precision Postgres keeps for timestamps
+        buffer.putLong(ChronoUnit.MICROS.between(EPOCH, startsAt));
+        buffer.putLong(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    static Cursor decode(String cursor) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (bytes.length != LENGTH || bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, LENGTH - 1);
+        LocalDateTime startsAt;
+        try {
+            startsAt = EPOCH.plus(buffer.getLong(), ChronoUnit.MICROS);
+        } catch (DateTimeException | ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        // Far-off years decode fine but would fail in the query, not here
+        if (startsAt.getYear() < MIN_YEAR || startsAt.getYear() > MAX_YEAR) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new Cursor(startsAt, buffer.getLong());
+    }
+
+    record Cursor(LocalDateTime startsAt, Long id) {
+    }
+}
@@ -0,0 +1,88 @@
+package swd392.eventmanagement.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import swd392.eventmanagement.mapper.EventMapper;
+import swd392.eventmanagement.model.dto.request.CreateEventRequest;
+import swd392.eventmanagement.model.dto.response.EventPageResponse;
+import swd392.eventmanagement.model.dto.response.EventResponse;
+import swd392.eventmanagement.model.entity.Event;
+import swd392.eventmanagement.model.projection.EventSummary;
+import swd392.eventmanagement.repository.EventCatalogQuery;
+import swd392.eventmanagement.repository.EventRepository;
+import swd392.eventmanagement.repository.UserRepository;
+import swd392.eventmanagement.service.EventService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class EventServiceImpl implements EventService {
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EventMapper eventMapper;
+
+    @Value("${app.catalog.max-page-size:100}")
+    private int maxPageSize;
+
+    @Override
+    @Transactional
+    public EventResponse createEvent(Long organizerId, CreateEventRequest request) {
+        if (request.getTitle() == null || request.getTitle().isBlank()) {
+            throw new IllegalArgumentException("Title is required");
+        }
+        if (request.getCategory() == null || request.getCategory().isBlank()) {
+            throw new IllegalArgumentException("Category is required");
+        }
+        if (request.getStartsAt() == null || request.getEndsAt() == null
+                || !request.getEndsAt().isAfter(request.getStartsAt())) {
+            throw new IllegalArgumentException("Event must end after it starts");
+        }
+        if (request.getCapacity() <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+
+        Event event = new Event();
+        event.setTitle(request.getTitle());
+        event.setDescription(request.getDescription());
+        event.setCategory(request.getCategory());
+        event.setLocation(request.getLocation());
+        event.setOrganizer(userRepository.getReferenceById(organizerId));
+        event.setStartsAt(request.getStartsAt());
+        event.setEndsAt(request.getEndsAt());
+        event.setCapacity(request.getCapacity());
+        return eventMapper.toResponse(eventRepository.save(event));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<EventResponse> getEvent(Long eventId) {
+        return eventRepository.findById(eventId).map(eventMapper::toResponse);
+    }
+
+    @Override
+    public EventPageResponse listEvents(LocalDateTime from, LocalDateTime to, Long organizerId, String category,
+                                        String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), maxPageSize);
+        EventCursorCodec.Cursor after = cursor != null ? EventCursorCodec.decode(cursor) : null;
+        // One row more than asked tells whether another page follows, without a count query
+        List<EventSummary> rows = eventRepository.findCatalogPage(new EventCatalogQuery(
+                from != null ? from : LocalDateTime.now(), to, organizerId, category,
+                after != null ? after.startsAt() : null, after != null ? after.id() : null, pageSize + 1));
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            EventSummary last = rows.get(pageSize - 1);
+            nextCursor = EventCursorCodec.encode(last.startsAt(), last.id());
+        }
+        return new EventPageResponse(eventMapper.toSummaryResponses(rows), nextCursor);
+    }
+}
@@ -1,72 +1,182 @@
 package swd392.eventmanagement.service.impl;
 
+import com.google.api.client.auth.openidconnect.IdToken;
+import com.google.api.client.auth.openidconnect.IdTokenVerifier;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken.Payload;
-import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
-import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.JsonFactory;
-import com.google.api.client.json.gson.GsonFactory;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import swd392.eventmanagement.security.domain.DomainRegistry;
+import swd392.eventmanagement.security.domain.DomainRule;
+import swd392.eventmanagement.security.google.GoogleKeySet;
+import swd392.eventmanagement.security.google.GoogleKeySource;
 import swd392.eventmanagement.service.GoogleTokenVerifierService;
 
 import java.io.IOException;
 import java.security.GeneralSecurityException;
+import java.security.PublicKey;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
+// Lazy: first created by warmUp once the application is ready and serving
+@Lazy
 @Service
 public class GoogleTokenVerifierServiceImpl implements GoogleTokenVerifierService {
     private static final Logger logger = LoggerFactory.getLogger(GoogleTokenVerifierServiceImpl.class);
+    private static final List<String> GOOGLE_ISSUERS = Arrays.asList("accounts.google.com", "https://accounts.google.com");
 
     @Value("${spring.security.oauth2.client.registration.google.client-id}")
     private String clientId;
-    
-    @Value("${app.auth.allowed-domains}")
-    private String allowedDomainsString;
-    
-    private List<String> allowedDomains;
-    
-    @Value("${app.auth.allowed-domains}")
-    public void setAllowedDomains(String allowedDomainsString) {
-        this.allowedDomains = Arrays.asList(allowedDomainsString.split(","));
-        logger.info("Allowed domains configured: {}", this.allowedDomains);
+
+    @Value("${app.auth.google.refresh-ahead-ms:300000}")
+    private long refreshAheadMs;
+
+    @Value("${app.auth.google.unknown-key-refresh-interval-ms:60000}")
+    private long unknownKeyRefreshIntervalMs;
+
+    @Autowired
+    private GoogleKeySource keySource;
+
+    @Autowired
+    private JsonFactory jsonFactory;
+
+    @Autowired
+    private DomainRegistry domainRegistry;
+
+    private PayloadVerifier payloadVerifier;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile GoogleKeySet keySet;
+    private volatile long lastForcedRefresh;
+
+    @PostConstruct
+    void init() {
+        payloadVerifier = new PayloadVerifier(new IdTokenVerifier.Builder()
+                .setAudience(Collections.singletonList(clientId))
+                .setIssuers(GOOGLE_ISSUERS));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            refreshKeys(false);
+        } catch (Exception e) {
+            logger.warn("Could not pre-load Google signing keys: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.google.refresh-check-ms:60000}",
+            initialDelayString = "${app.auth.google.refresh-check-ms:60000}")
+    public void refreshIfExpiring() {
+        GoogleKeySet current = keySet;
+        if (current == null || current.isExpired(System.currentTimeMillis() + refreshAheadMs)) {
+            try {
+                refreshKeys(false);
+            } catch (Exception e) {
+                logger.warn("Background refresh of Google signing keys failed: {}", e.getMessage());
+            }
+        }
     }
 
     @Override
     public Payload verifyGoogleIdToken(String idTokenString) throws GeneralSecurityException, IOException {
-        logger.info("Verifying Google ID token");
-        JsonFactory jsonFactory = GsonFactory.getDefaultInstance(); 
-        GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier.Builder(new NetHttpTransport(), jsonFactory)
-                .setAudience(Collections.singletonList(clientId))
-                .build();
+        logger.debug("Verifying Google ID token");
+        GoogleIdToken idToken = GoogleIdToken.parse(jsonFactory, idTokenString);
 
-        GoogleIdToken idToken = verifier.verify(idTokenString);
-        if (idToken != null) {
-            logger.info("Google ID token verified successfully");
-            return idToken.getPayload();
+        if (payloadVerifier.verifyClaims(idToken)) {
+            if (verifySignature(idToken, currentKeys())) {
+                logger.debug("Google ID token verified successfully");
+                return idToken.getPayload();
+            }
+            // Google may have rotated keys ahead of our cached set
+            GoogleKeySet refreshed = refreshForUnknownKey();
+            if (refreshed != null && verifySignature(idToken, refreshed)) {
+                logger.debug("Google ID token verified successfully after key refresh");
+                return idToken.getPayload();
+            }
         }
-        
-        logger.warn("Invalid Google ID token");
+
+        // Audited by the caller; a flood of bad tokens must not flood the log
+        logger.debug("Invalid Google ID token");
         return null;
     }
-    
+
     @Override
     public boolean isAllowedDomain(String email) {
-        if (email == null) {
-            return false;
+        if (domainRegistry.lookup(email) != null) {
+            return true;
         }
-        
-        for (String domain : allowedDomains) {
-            if (email.endsWith("@" + domain)) {
+
+        logger.warn("Email domain not allowed: {}", email);
+        return false;
+    }
+
+    @Override
+    public String resolveRole(String email) {
+        DomainRule rule = domainRegistry.lookup(email);
+        return rule != null ? rule.roleName() : null;
+    }
+
+    private boolean verifySignature(GoogleIdToken idToken, GoogleKeySet keys) throws GeneralSecurityException {
+        for (PublicKey publicKey : keys.keys()) {
+            if (idToken.verifySignature(publicKey)) {
                 return true;
             }
         }
-        
-        logger.warn("Email domain not allowed: {}", email);
         return false;
     }
-} 
\ No newline at end of file
+
+    private GoogleKeySet currentKeys() throws GeneralSecurityException, IOException {
+        GoogleKeySet current = keySet;
+        if (current != null && !current.isExpired(System.currentTimeMillis())) {
+            return current;
+        }
+        return refreshKeys(true);
+    }
+
+    private GoogleKeySet refreshForUnknownKey() throws GeneralSecurityException, IOException {
+        long now = System.currentTimeMillis();
+        if (now - lastForcedRefresh < unknownKeyRefreshIntervalMs) {
+            return null;
+        }
+        lastForcedRefresh = now;
+        return refreshKeys(false);
+    }
+
+    private GoogleKeySet refreshKeys(boolean onlyIfExpired) throws GeneralSecurityException, IOException {
+        refreshLock.lock();
+        try {
+            GoogleKeySet current = keySet;
+            if (onlyIfExpired && current != null && !current.isExpired(System.currentTimeMillis())) {
+                return current;
+            }
+            GoogleKeySet fetched = keySource.fetch();
+            keySet = fetched;
+            logger.info("Loaded {} Google signing keys, valid for {} s", fetched.keys().size(),
+                    (fetched.expiresAtMillis() - System.currentTimeMillis()) / 1000);
+            return fetched;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private static class PayloadVerifier extends IdTokenVerifier {
+        PayloadVerifier(IdTokenVerifier.Builder builder) {
+            super(builder);
+        }
+
+        boolean verifyClaims(IdToken idToken) {
+            return verifyPayload(idToken);
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package swd392.eventmanagement.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Opt-in group commit for logins. Concurrent logins are queued and written together:
+ * one multi-row user upsert, one role lookup and one JDBC batch of refresh tokens per
+ * transaction, so a login storm costs one commit per batch instead of several per
+ * login. Callers block until the batch holding their login has committed.
+ */
+@Component
+public class LoginBatchWriter {
+    private static final Logger logger = LoggerFactory.getLogger(LoginBatchWriter.class);
+
+    private static final String UPSERT_USERS_SQL = """
+            WITH input AS (
+                SELECT * FROM unnest(?::text[], ?::text[], ?::text[], ?::int[])
+                    AS t(email, full_name, provider_user_id, role_id)
+            ),
+            relinked AS (
+                UPDATE users us SET provider_user_id = i.provider_user_id, full_name = i.full_name, updated_at = ?
+                FROM input i WHERE us.email = i.email AND us.provider_user_id <> i.provider_user_id
+                RETURNING us.id, us.provider_user_id
+            ),
+            upserted AS (
+                INSERT INTO users (email, full_name, provider_user_id, role_version, created_at, updated_at)
+                SELECT email, full_name, provider_user_id, 0, ?, ? FROM input i
+                WHERE NOT EXISTS (SELECT 1 FROM relinked r WHERE r.provider_user_id = i.provider_user_id)
+                ON CONFLICT (provider_user_id) DO UPDATE
+                    SET email = EXCLUDED.email, full_name = EXCLUDED.full_name, updated_at = EXCLUDED.updated_at
+                    WHERE users.email IS DISTINCT FROM EXCLUDED.email
+                       OR users.full_name IS DISTINCT FROM EXCLUDED.full_name
+                RETURNING id, provider_user_id, (xmax = 0) AS inserted
+            ),
+            linked AS (
+                INSERT INTO user_roles (user_id, role_id)
+                SELECT u.id, i.role_id FROM upserted u JOIN input i ON i.provider_user_id = u.provider_user_id
+                WHERE u.inserted
+                ON CONFLICT DO NOTHING
+            )
+            SELECT id, provider_user_id FROM relinked
+            UNION ALL
+            SELECT id, provider_user_id FROM upserted
+            UNION ALL
+            SELECT us.id, us.provider_user_id FROM users us JOIN input i ON i.provider_user_id = us.provider_user_id
+            WHERE NOT EXISTS (SELECT 1 FROM relinked x WHERE x.provider_user_id = us.provider_user_id)
+              AND NOT EXISTS (SELECT 1 FROM upserted x WHERE x.provider_user_id = us.provider_user_id)
+            """;
+
+    // Users a concurrent first login inserted after the upsert's snapshot was taken
+    private static final String SELECT_USER_IDS_SQL = "SELECT id, provider_user_id FROM users WHERE provider_user_id = ANY(?)";
+
+    private static final String DELETE_REFRESH_TOKEN_SQL = "DELETE FROM refresh_tokens WHERE token_hash = ?";
+
+    private static final String SELECT_ROLES_SQL = """
+            SELECT u.id, u.role_version, r.name FROM users u
+            LEFT JOIN user_roles ur ON ur.user_id = u.id
+            LEFT JOIN roles r ON r.id = ur.role_id
+            WHERE u.id = ANY(?)
+            """;
+
+    private static final String INSERT_REFRESH_TOKEN_SQL = """
+            INSERT INTO refresh_tokens (token_hash, family_id, revoked, expiry_date, issued_at, user_id, created_at)
+            VALUES (?, ?, false, ?, ?, ?, ?)
+            """;
+
+    private static final String CAP_REFRESH_TOKENS_SQL = """
+            DELETE FROM refresh_tokens
+            WHERE user_id = ? AND revoked = false AND id NOT IN (
+                SELECT id FROM refresh_tokens
+                WHERE user_id = ? AND revoked = false
+                ORDER BY issued_at DESC, id DESC LIMIT ?
+            )
+            """;
+
+    @Value("${app.auth.group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.auth.group-commit.max-batch-size:200}")
+    private int maxBatchSize;
+
+    @Value("${app.auth.group-commit.flush-interval-ms:5}")
+    private long flushIntervalMs;
+
+    @Value("${app.auth.group-commit.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.auth.group-commit.wait-timeout-ms:5000}")
+    private long waitTimeoutMs;
+
+    @Value("${app.auth.jwt.refresh-expiration}")
+    private long refreshTokenDurationMs;
+
+    @Value("${app.auth.refresh-token.max-active-per-user:10}")
+    private int maxActivePerUser;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private BlockingQueue<PendingLogin> queue;
+    private TransactionTemplate transactionTemplate;
+    private Thread flusher;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        running = true;
+        flusher = new Thread(this::runFlushLoop, "login-group-commit");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info("Login group commit enabled: batch size {}, flush interval {} ms", maxBatchSize, flushIntervalMs);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+        }
+        if (queue != null) {
+            List<PendingLogin> remaining = new ArrayList<>();
+            queue.drainTo(remaining);
+            remaining.forEach(p -> p.result.completeExceptionally(new IllegalStateException("Login writer is shutting down")));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a login and waits for its batch to commit. Returns {@code null} when the
+     * queue is full, in which case the caller should use the regular per-login path.
+     * A login whose caller stopped waiting is not written, or has its refresh token
+     * deleted again if its batch was already being written.
+     */
+    public ProvisionedLogin provision(String email, String fullName, String providerUserId, Integer roleId)
+            throws Exception {
+        PendingLogin pending = new PendingLogin(email, fullName, providerUserId, roleId, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            return null;
+        }
+        try {
+            return pending.result.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            pending.result.cancel(false);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void runFlushLoop() {
+        List<PendingLogin> batch = new ArrayList<>(maxBatchSize);
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (running) {
+            try {
+                PendingLogin first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingLogin next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(p -> p.result.completeExceptionally(e));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingLogin> batch) {
+        // Callers that gave up waiting are not written at all
+        batch.removeIf(p -> p.result.isDone());
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<ProvisionedLogin> results;
+        try {
+            results = transactionTemplate.execute(status -> writeBatch(batch));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                logger.error("Login of {} failed: {}", batch.get(0).email, e.getMessage());
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+            // One bad login must not fail the others
+            logger.warn("Login batch of {} failed, writing its logins one by one: {}", batch.size(), e.getMessage());
+            for (PendingLogin pending : batch) {
+                flush(new ArrayList<>(List.of(pending)));
+            }
+            return;
+        }
+
+        List<Object[]> abandoned = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (!batch.get(i).result.complete(results.get(i))) {
+                abandoned.add(new Object[] {RefreshTokenCodec.hash(results.get(i).refreshToken())});
+            }
+        }
+        logger.debug("Committed login batch of {}", batch.size());
+        if (!abandoned.isEmpty()) {
+            // Their callers timed out while the batch was written; nobody holds these tokens
+            try {
+                jdbcTemplate.batchUpdate(DELETE_REFRESH_TOKEN_SQL, abandoned);
+            } catch (RuntimeException e) {
+                logger.warn("Could not delete {} refresh tokens of timed-out logins, the purge job will: {}",
+                        abandoned.size(), e.getMessage());
+            }
+        }
+    }
+
+    private List<ProvisionedLogin> writeBatch(List<PendingLogin> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp nowTs = Timestamp.valueOf(now);
+        Timestamp expiryTs = Timestamp.valueOf(now.plusSeconds(refreshTokenDurationMs / 1000));
+
+        // One row per user, sorted so concurrent batches lock users in the same order
+        TreeMap<String, PendingLogin> byProvider = new TreeMap<>();
+        batch.forEach(p -> byProvider.put(p.providerUserId, p));
+        Map<String, Long> userIds = upsertUsers(byProvider.values(), nowTs);
+        if (userIds.size() < byProvider.size()) {
+            userIds.putAll(selectUserIds(byProvider.keySet()));
+        }
+        Map<Long, UserRoles> roles = loadRoles(userIds.values());
+
+        List<ProvisionedLogin> results = new ArrayList<>(batch.size());
+        List<Object[]> tokenRows = new ArrayList<>(batch.size());
+        for (PendingLogin pending : batch) {
+            Long userId = userIds.get(pending.providerUserId);
+            UserRoles userRoles = userId != null ? roles.get(userId) : null;
+            if (userRoles == null) {
+                throw new IllegalStateException("User " + pending.email + " was not provisioned");
+            }
+            String refreshToken = RefreshTokenCodec.generate();
+            tokenRows.add(new Object[] {
+                    RefreshTokenCodec.hash(refreshToken), UUID.randomUUID(), expiryTs, nowTs, userId, nowTs
+            });
+            results.add(new ProvisionedLogin(userId, pending.email, pending.fullName,
+                    userRoles.names, userRoles.roleVersion, refreshToken));
+        }
+        jdbcTemplate.batchUpdate(INSERT_REFRESH_TOKEN_SQL, tokenRows);
+
+        if (maxActivePerUser > 0) {
+            List<Object[]> capRows = new ArrayList<>(userIds.size());
+            for (Long userId : new TreeSet<>(userIds.values())) {
+                capRows.add(new Object[] {userId, userId, maxActivePerUser});
+            }
+            jdbcTemplate.batchUpdate(CAP_REFRESH_TOKENS_SQL, capRows);
+        }
+        return results;
+    }
+
+    private Map<String, Long> upsertUsers(Collection<PendingLogin> users, Timestamp now) {
+        String[] emails = new String[users.size()];
+        String[] names = new String[users.size()];
+        String[] providerIds = new String[users.size()];
+        Integer[] roleIds = new Integer[users.size()];
+        int i = 0;
+        for (PendingLogin user : users) {
+            emails[i] = user.email;
+            names[i] = user.fullName;
+            providerIds[i] = user.providerUserId;
+            roleIds[i] = user.roleId;
+            i++;
+        }
+
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(UPSERT_USERS_SQL);
+            ps.setArray(1, con.createArrayOf("text", emails));
+            ps.setArray(2, con.createArrayOf("text", names));
+            ps.setArray(3, con.createArrayOf("text", providerIds));
+            ps.setArray(4, con.createArrayOf("int4", roleIds));
+            ps.setTimestamp(5, now);
+            ps.setTimestamp(6, now);
+            ps.setTimestamp(7, now);
+            return ps;
+        }, rs -> {
+            ids.put(rs.getString(2), rs.getLong(1));
+        });
+        return ids;
+    }
+
+    private Map<String, Long> selectUserIds(Collection<String> providerUserIds) {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_USER_IDS_SQL);
+            ps.setArray(1, con.createArrayOf("text", providerUserIds.toArray()));
+            return ps;
+        }, rs -> {
+            ids.put(rs.getString(2), rs.getLong(1));
+        });
+        return ids;
+    }
+
+    private Map<Long, UserRoles> loadRoles(Collection<Long> userIds) {
+        Map<Long, UserRoles> roles = new HashMap<>();
+        Long[] ids = userIds.toArray(new Long[0]);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_ROLES_SQL);
+            Array idArray = con.createArrayOf("int8", ids);
+            ps.setArray(1, idArray);
+            return ps;
+        }, rs -> {
+            UserRoles userRoles = roles.computeIfAbsent(rs.getLong(1), id -> new UserRoles(new HashSet<>()));
+            userRoles.roleVersion = rs.getInt(2);
+            String roleName = rs.getString(3);
+            if (roleName != null) {
+                userRoles.names.add(roleName);
+            }
+        });
+        return roles;
+    }
+
+    public record ProvisionedLogin(Long userId, String email, String fullName, Set<String> roles,
+                                   int roleVersion, String refreshToken) {
+    }
+
+    private record PendingLogin(String email, String fullName, String providerUserId, Integer roleId,
+                                CompletableFuture<ProvisionedLogin> result) {
+    }
+
+    private static final class UserRoles {
+        private final Set<String> names;
+        private int roleVersion;
+
+        private UserRoles(Set<String> names) {
+            this.names = names;
+        }
+    }
+}
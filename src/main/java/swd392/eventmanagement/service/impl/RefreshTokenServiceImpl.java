@@ -1,13 +1,19 @@
 package swd392.eventmanagement.service.impl;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import swd392.eventmanagement.audit.AuditEventType;
+import swd392.eventmanagement.audit.AuditLog;
 import swd392.eventmanagement.exception.TokenRefreshException;
 import swd392.eventmanagement.model.entity.RefreshToken;
 import swd392.eventmanagement.model.entity.User;
 import swd392.eventmanagement.repository.RefreshTokenRepository;
 import swd392.eventmanagement.repository.UserRepository;
+import swd392.eventmanagement.security.service.PrincipalCache;
 import swd392.eventmanagement.service.RefreshTokenService;
 
 import java.time.LocalDateTime;
@@ -16,33 +22,77 @@ import java.util.UUID;
 
 @Service
 public class RefreshTokenServiceImpl implements RefreshTokenService {
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenServiceImpl.class);
+
     @Value("${app.auth.jwt.refresh-expiration}")
     private long refreshTokenDurationMs;
 
+    @Value("${app.auth.refresh-token.max-active-per-user:10}")
+    private int maxActivePerUser;
+
     @Autowired
     private RefreshTokenRepository refreshTokenRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private AuditLog auditLog;
+
     @Override
     public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+        return refreshTokenRepository.findByTokenHash(RefreshTokenCodec.hash(token));
     }
 
     @Override
+    @Transactional
     public RefreshToken createRefreshToken(Long userId) {
         RefreshToken refreshToken = new RefreshToken();
+        String token = RefreshTokenCodec.generate();
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id " + userId));
-
-        refreshToken.setUser(user);
+        refreshToken.setUser(userRepository.getReferenceById(userId));
         refreshToken.setExpiryDate(LocalDateTime.now().plusSeconds(refreshTokenDurationMs / 1000));
-        refreshToken.setToken(UUID.randomUUID().toString());
+        refreshToken.setTokenHash(RefreshTokenCodec.hash(token));
+        refreshToken.setFamilyId(UUID.randomUUID());
         refreshToken.setIssuedAt(LocalDateTime.now());
 
-        return refreshTokenRepository.save(refreshToken);
+        RefreshToken saved = refreshTokenRepository.save(refreshToken);
+        saved.setToken(token);
+
+        if (maxActivePerUser > 0) {
+            int evicted = refreshTokenRepository.deleteActiveBeyondLimit(userId, maxActivePerUser);
+            if (evicted > 0) {
+                logger.debug("Evicted {} refresh tokens of user {} over the active limit", evicted, userId);
+            }
+        }
+        return saved;
+    }
+
+    @Override
+    @Transactional(noRollbackFor = TokenRefreshException.class)
+    public RefreshToken rotateRefreshToken(String token) {
+        byte[] presentedHash = RefreshTokenCodec.hash(token);
+        String newToken = RefreshTokenCodec.generate();
+        byte[] newHash = RefreshTokenCodec.hash(newToken);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiryDate = now.plusSeconds(refreshTokenDurationMs / 1000);
+
+        Long userId = refreshTokenRepository.rotate(presentedHash, newHash, now, expiryDate)
+                .orElseThrow(() -> rejectRotation(token, presentedHash));
+
+        User user = principalCache.getUser(userId)
+                .orElseThrow(() -> new TokenRefreshException(token, "User of refresh token no longer exists"));
+
+        RefreshToken rotated = new RefreshToken();
+        rotated.setToken(newToken);
+        rotated.setTokenHash(newHash);
+        rotated.setUser(user);
+        rotated.setExpiryDate(expiryDate);
+        rotated.setIssuedAt(now);
+        return rotated;
     }
 
     @Override
@@ -56,8 +106,21 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     }
     
     @Override
-    public void deleteByToken(String token) {
-        refreshTokenRepository.findByToken(token)
-                .ifPresent(refreshToken -> refreshTokenRepository.delete(refreshToken));
+    public boolean deleteByToken(String token) {
+        // Logout without a refresh token still revokes the access token; there is nothing to delete
+        if (token == null || token.isBlank()) {
+            return false;
+        }
+        return refreshTokenRepository.deleteFamilyByTokenHash(RefreshTokenCodec.hash(token)) > 0;
+    }
+
+    private TokenRefreshException rejectRotation(String token, byte[] presentedHash) {
+        int revoked = refreshTokenRepository.revokeFamilyOnReuse(presentedHash);
+        if (revoked > 0) {
+            logger.warn("Reuse of a rotated refresh token detected, revoked {} tokens of its family", revoked);
+            auditLog.publish(AuditEventType.REFRESH_TOKEN_REUSE, null, "Revoked " + revoked + " tokens of the family");
+            return new TokenRefreshException(token, "Refresh token was already used. Please make a new signin request");
+        }
+        return new TokenRefreshException(token, "Refresh token is invalid or expired. Please make a new signin request");
     }
-} 
\ No newline at end of file
+}
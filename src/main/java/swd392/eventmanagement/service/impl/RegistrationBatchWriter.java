@@ -0,0 +1,245 @@
+package swd392.eventmanagement.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Group commit for registrations. Reserved seats are queued and written together, one
+ * transaction per lease: a multi-row insert into the registration ledger and a single
+ * decrement of the lease by the number of rows that were new. A storm of registrations
+ * for one event therefore costs one commit per batch, and the event row is not touched.
+ * Callers block until the batch holding their registration has committed. A caller that
+ * stops waiting before its batch is written withdraws the registration instead, so a
+ * timeout never leaves a seat taken by a user who was told registration failed.
+ */
+@Component
+public class RegistrationBatchWriter {
+    private static final Logger logger = LoggerFactory.getLogger(RegistrationBatchWriter.class);
+
+    // Cancelled registrations are revived; confirmed ones are left alone and not returned
+    private static final String INSERT_REGISTRATIONS_SQL = """
+            INSERT INTO registrations (event_id, user_id, status, registered_at)
+            SELECT ?, user_id, 'CONFIRMED', ? FROM unnest(?::bigint[]) AS t(user_id)
+            ON CONFLICT (event_id, user_id) DO UPDATE
+                SET status = 'CONFIRMED', registered_at = EXCLUDED.registered_at, cancelled_at = NULL
+                WHERE registrations.status = 'CANCELLED'
+            RETURNING user_id
+            """;
+
+    private static final String CONSUME_LEASE_SQL = """
+            UPDATE capacity_leases SET seats = seats - ?
+            WHERE id = ? AND seats >= ? AND expires_at > now()
+            """;
+
+    @Value("${app.registration.group-commit.max-batch-size:500}")
+    private int maxBatchSize;
+
+    @Value("${app.registration.group-commit.flush-interval-ms:2}")
+    private long flushIntervalMs;
+
+    @Value("${app.registration.group-commit.queue-capacity:20000}")
+    private int queueCapacity;
+
+    @Value("${app.registration.group-commit.wait-timeout-ms:5000}")
+    private long waitTimeoutMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SeatLeaseManager seatLeaseManager;
+
+    private BlockingQueue<PendingRegistration> queue;
+    private TransactionTemplate transactionTemplate;
+    private Thread flusher;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        running = true;
+        flusher = new Thread(this::runFlushLoop, "registration-group-commit");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+        List<PendingRegistration> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(p -> {
+            p.claimed.set(true);
+            p.lease.finished(1);
+            p.result.completeExceptionally(new IllegalStateException("Registration writer is shutting down"));
+        });
+    }
+
+    /**
+     * Writes the registration on a seat reserved from {@code lease} and waits for it to
+     * commit. Returns the registration time, or {@code null} when the user was already
+     * registered, in which case the seat goes back to the lease. Throws
+     * {@link SeatLeaseManager.LeaseLostException} when the lease could not cover the seat,
+     * and {@link TimeoutException} when the registration was withdrawn unwritten.
+     */
+    LocalDateTime write(SeatLeaseManager.Lease lease, Long userId) throws Exception {
+        PendingRegistration pending = new PendingRegistration(lease, userId, new CompletableFuture<>(),
+                new AtomicBoolean());
+        if (!running || !queue.offer(pending)) {
+            // Queue full: write on the caller's thread rather than turn the user away
+            flush(lease, List.of(pending));
+        }
+        try {
+            try {
+                return pending.result.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (pending.claimed.compareAndSet(false, true)) {
+                    // Not written yet and now never will be; the flusher returns the seat
+                    pending.result.cancel(false);
+                    throw new TimeoutException("Registration was not written within " + waitTimeoutMs + " ms");
+                }
+                // Its batch is already being written: the outcome is about to be known
+                return pending.result.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void runFlushLoop() {
+        List<PendingRegistration> batch = new ArrayList<>(maxBatchSize);
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (running) {
+            try {
+                PendingRegistration first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingRegistration next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                Map<SeatLeaseManager.Lease, List<PendingRegistration>> byLease = new LinkedHashMap<>();
+                batch.forEach(p -> byLease.computeIfAbsent(p.lease, lease -> new ArrayList<>()).add(p));
+                byLease.forEach(this::flush);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(p -> {
+                    p.claimed.set(true);
+                    p.lease.finished(1);
+                    p.result.completeExceptionally(e);
+                });
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(SeatLeaseManager.Lease lease, List<PendingRegistration> group) {
+        try {
+            List<PendingRegistration> claimed = new ArrayList<>(group.size());
+            for (PendingRegistration pending : group) {
+                if (pending.claimed.compareAndSet(false, true)) {
+                    claimed.add(pending);
+                } else {
+                    // Its caller timed out and withdrew it
+                    lease.giveBack();
+                }
+            }
+            if (!claimed.isEmpty()) {
+                commit(lease, claimed);
+            }
+        } finally {
+            lease.finished(group.size());
+        }
+    }
+
+    private void commit(SeatLeaseManager.Lease lease, List<PendingRegistration> group) {
+        LocalDateTime now = LocalDateTime.now();
+        // Sorted so concurrent batches lock ledger rows in the same order
+        Long[] userIds = group.stream().map(PendingRegistration::userId).distinct().sorted().toArray(Long[]::new);
+        try {
+            Set<Long> created = transactionTemplate.execute(status -> {
+                Set<Long> inserted = insert(lease.eventId, userIds, Timestamp.valueOf(now));
+                if (!inserted.isEmpty()
+                        && jdbcTemplate.update(CONSUME_LEASE_SQL, inserted.size(), lease.id, inserted.size()) == 0) {
+                    throw new SeatLeaseManager.LeaseLostException(lease.id);
+                }
+                return inserted;
+            });
+            for (PendingRegistration pending : group) {
+                // A user queued twice in one batch gets the new registration once
+                if (created.remove(pending.userId)) {
+                    pending.result.complete(now);
+                } else {
+                    lease.giveBack();
+                    pending.result.complete(null);
+                }
+            }
+            logger.debug("Committed {} registrations for event {}", group.size(), lease.eventId);
+        } catch (SeatLeaseManager.LeaseLostException e) {
+            seatLeaseManager.leaseLost(lease);
+            group.forEach(p -> p.result.completeExceptionally(e));
+        } catch (RuntimeException e) {
+            logger.error("Registration batch of {} for event {} failed: {}", group.size(), lease.eventId, e.getMessage());
+            group.forEach(p -> {
+                lease.giveBack();
+                p.result.completeExceptionally(e);
+            });
+        }
+    }
+
+    private Set<Long> insert(Long eventId, Long[] userIds, Timestamp now) {
+        Set<Long> inserted = new HashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_REGISTRATIONS_SQL);
+            ps.setLong(1, eventId);
+            ps.setTimestamp(2, now);
+            ps.setArray(3, con.createArrayOf("int8", userIds));
+            return ps;
+        }, rs -> {
+            inserted.add(rs.getLong(1));
+        });
+        return inserted;
+    }
+
+    // Set once by whoever gets there first: the flusher about to write it, or its caller giving up
+    private record PendingRegistration(SeatLeaseManager.Lease lease, Long userId,
+                                       CompletableFuture<LocalDateTime> result, AtomicBoolean claimed) {
+    }
+}
@@ -0,0 +1,87 @@
+package swd392.eventmanagement.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import swd392.eventmanagement.config.PrimaryReads;
+import swd392.eventmanagement.exception.EventFullException;
+import swd392.eventmanagement.model.dto.response.RegistrationResponse;
+import swd392.eventmanagement.model.entity.RegistrationStatus;
+import swd392.eventmanagement.repository.RegistrationRepository;
+import swd392.eventmanagement.service.RegistrationService;
+import swd392.eventmanagement.service.WaitlistService;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Service
+public class RegistrationServiceImpl implements RegistrationService {
+    // A lost lease is replaced on the next attempt; more than a couple in a row means trouble
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private SeatLeaseManager seatLeaseManager;
+
+    @Autowired
+    private RegistrationBatchWriter registrationBatchWriter;
+
+    @Autowired
+    private RegistrationRepository registrationRepository;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Override
+    public RegistrationResponse register(Long eventId, Long userId) {
+        for (int attempt = 1; ; attempt++) {
+            SeatLeaseManager.Lease lease = seatLeaseManager.reserve(eventId);
+            if (lease == null) {
+                return findConfirmed(eventId, userId).orElseThrow(() -> new EventFullException(eventId));
+            }
+            try {
+                LocalDateTime registeredAt = registrationBatchWriter.write(lease, userId);
+                if (registeredAt != null) {
+                    return new RegistrationResponse(eventId, userId, RegistrationStatus.CONFIRMED.name(),
+                            registeredAt, true);
+                }
+                return findConfirmed(eventId, userId)
+                        .orElseThrow(() -> new IllegalStateException("Registration vanished while being read"));
+            } catch (SeatLeaseManager.LeaseLostException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Registration failed: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public RegistrationResponse registerOrWaitlist(Long eventId, Long userId) {
+        try {
+            return register(eventId, userId);
+        } catch (EventFullException e) {
+            return waitlistService.join(eventId, userId);
+        }
+    }
+
+    @Override
+    public boolean cancel(Long eventId, Long userId) {
+        if (registrationRepository.cancel(eventId, userId, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        seatLeaseManager.seatsFreed(eventId);
+        return true;
+    }
+
+    private Optional<RegistrationResponse> findConfirmed(Long eventId, Long userId) {
+        // Just written by this or another node, so the replicas may not have it yet
+        try (PrimaryReads.Pin pin = PrimaryReads.pin()) {
+            return registrationRepository.findByEventIdAndUserId(eventId, userId)
+                    .filter(registration -> registration.getStatus() == RegistrationStatus.CONFIRMED)
+                    .map(registration -> new RegistrationResponse(eventId, userId,
+                            registration.getStatus().name(), registration.getRegisteredAt(), false));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package swd392.eventmanagement.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import swd392.eventmanagement.model.entity.Role;
+import swd392.eventmanagement.repository.RoleRepository;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The roles table is tiny and static, so it is loaded once at startup and role ids
+ * are resolved from memory on the login path.
+ */
+@Component
+public class RoleCache {
+    private static final Logger logger = LoggerFactory.getLogger(RoleCache.class);
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private volatile Map<String, Role> rolesByName = Map.of();
+
+    @PostConstruct
+    public void reload() {
+        rolesByName = roleRepository.findAll().stream()
+                .collect(Collectors.toUnmodifiableMap(Role::getName, Function.identity()));
+        logger.info("Loaded roles: {}", rolesByName.keySet());
+    }
+
+    public Role getRequired(String roleName) {
+        Role role = rolesByName.get(roleName);
+        if (role == null) {
+            throw new RuntimeException("Error: Role " + roleName + " is not found.");
+        }
+        return role;
+    }
+}
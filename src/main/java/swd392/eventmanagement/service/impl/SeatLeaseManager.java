@@ -0,0 +1,440 @@
+package swd392.eventmanagement.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import swd392.eventmanagement.exception.RegistrationClosedException;
+import swd392.eventmanagement.exception.ResourceNotFoundException;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out event seats from capacity leases: blocks of seats this node takes from
+ * {@code events.allocated} in one short transaction and then gives out from a
+ * {@link StripedSeatCounter} without touching the database. The event row is only
+ * locked once per lease instead of once per registration, and the CHECK constraint on
+ * {@code events.allocated} keeps the sum of all nodes' leases within capacity.
+ * <p>
+ * Leases expire unless renewed, so seats held by a node that dies are reclaimed by the
+ * others. Leases that go idle, or are replaced by a fresh one, are returned as soon as
+ * their last in-flight registration is written.
+ */
+@Component
+public class SeatLeaseManager {
+    private static final Logger logger = LoggerFactory.getLogger(SeatLeaseManager.class);
+
+    private static final String LOCK_EVENT_SQL = """
+            SELECT capacity, allocated, starts_at,
+                   EXISTS (SELECT 1 FROM waitlist_entries w WHERE w.event_id = events.id)
+            FROM events WHERE id = ? FOR UPDATE
+            """;
+
+    private static final String ALLOCATE_SQL = "UPDATE events SET allocated = allocated + ? WHERE id = ?";
+
+    private static final String INSERT_LEASE_SQL = """
+            INSERT INTO capacity_leases (event_id, node_id, seats, expires_at)
+            VALUES (?, ?, ?, now() + ? * interval '1 millisecond')
+            RETURNING id
+            """;
+
+    private static final String RENEW_LEASES_SQL = """
+            UPDATE capacity_leases SET expires_at = now() + ? * interval '1 millisecond'
+            WHERE id = ANY(?) AND expires_at > now()
+            RETURNING id
+            """;
+
+    // Deletes the leases and gives whatever seats they still hold back to their events,
+    // marking events with users waiting for the waitlist promotion pass
+    private static final String RELEASE_LEASES_SQL = """
+            WITH released AS (
+                DELETE FROM capacity_leases WHERE id = ANY(?) RETURNING event_id, seats
+            ),
+            r AS (
+                SELECT event_id, SUM(seats) AS seats FROM released GROUP BY event_id
+            ),
+            due AS (
+                INSERT INTO waitlist_promotions_due (event_id)
+                SELECT r.event_id FROM r
+                WHERE r.seats > 0 AND EXISTS (SELECT 1 FROM waitlist_entries w WHERE w.event_id = r.event_id)
+                ON CONFLICT DO NOTHING
+            )
+            UPDATE events e SET allocated = e.allocated - r.seats
+            FROM r WHERE e.id = r.event_id
+            """;
+
+    private static final String RECLAIM_EXPIRED_LEASES_SQL = """
+            WITH expired AS (
+                DELETE FROM capacity_leases WHERE expires_at < now() RETURNING event_id, seats
+            ),
+            x AS (
+                SELECT event_id, SUM(seats) AS seats FROM expired GROUP BY event_id
+            ),
+            due AS (
+                INSERT INTO waitlist_promotions_due (event_id)
+                SELECT x.event_id FROM x
+                WHERE x.seats > 0 AND EXISTS (SELECT 1 FROM waitlist_entries w WHERE w.event_id = x.event_id)
+                ON CONFLICT DO NOTHING
+            )
+            UPDATE events e SET allocated = e.allocated - x.seats
+            FROM x WHERE e.id = x.event_id
+            """;
+
+    @Value("${app.registration.lease-size:50}")
+    private int leaseSize;
+
+    @Value("${app.registration.lease-ttl-ms:30000}")
+    private long leaseTtlMs;
+
+    @Value("${app.registration.full-recheck-ms:500}")
+    private long fullRecheckMs;
+
+    @Value("${app.registration.counter-stripes:0}")
+    private int counterStripes;
+
+    @Value("${app.registration.node-id:}")
+    private String nodeId;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<Long, EventSeats> events = new ConcurrentHashMap<>();
+    private final Set<Lease> retired = ConcurrentHashMap.newKeySet();
+    private TransactionTemplate transactionTemplate;
+    private long fullRecheckNanos;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        fullRecheckNanos = TimeUnit.MILLISECONDS.toNanos(fullRecheckMs);
+        if (counterStripes <= 0) {
+            counterStripes = Runtime.getRuntime().availableProcessors();
+        }
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = ProcessHandle.current().pid() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+    }
+
+    @PreDestroy
+    void releaseAll() {
+        List<Long> ids = new ArrayList<>();
+        for (EventSeats seats : events.values()) {
+            Lease lease = seats.current;
+            if (lease != null) {
+                seats.current = null;
+                lease.retire();
+                ids.add(lease.id);
+            }
+        }
+        retired.forEach(lease -> ids.add(lease.id));
+        retired.clear();
+        if (!ids.isEmpty()) {
+            try {
+                release(ids);
+            } catch (RuntimeException e) {
+                logger.warn("Could not return {} capacity leases on shutdown, they expire in {} ms: {}",
+                        ids.size(), leaseTtlMs, e.getMessage());
+            }
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Takes one seat of the event for a registration about to be written. Returns the
+     * lease it came from, which the writer has to {@link Lease#finished settle}, or
+     * {@code null} when the event has no free seats left.
+     */
+    Lease reserve(Long eventId) {
+        EventSeats seats = events.computeIfAbsent(eventId, EventSeats::new);
+        while (true) {
+            seats.checkOpen();
+            Lease lease = seats.current;
+            if (lease != null && lease.tryTake()) {
+                return lease;
+            }
+            // Once the database said no, stay quiet for a while instead of asking on every request
+            if (System.nanoTime() - seats.fullUntilNanos < 0) {
+                return null;
+            }
+            seats.lock.lock();
+            try {
+                if (seats.current != lease) {
+                    continue;
+                }
+                if (System.nanoTime() - seats.fullUntilNanos < 0) {
+                    return null;
+                }
+                Lease next = acquire(seats);
+                if (lease != null) {
+                    lease.retire();
+                    retired.add(lease);
+                }
+                seats.current = next;
+                if (next == null) {
+                    seats.fullUntilNanos = System.nanoTime() + fullRecheckNanos;
+                    return null;
+                }
+            } catch (ResourceNotFoundException e) {
+                events.remove(eventId, seats);
+                throw e;
+            } finally {
+                seats.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Forgets any cached "full" answer for the event, after a seat was returned to it.
+     */
+    void seatsFreed(Long eventId) {
+        EventSeats seats = events.get(eventId);
+        if (seats != null) {
+            seats.fullUntilNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Called when a write found the lease expired or short of seats. The lease is
+     * dropped so the next reservation takes a fresh one.
+     */
+    void leaseLost(Lease lease) {
+        EventSeats seats = events.get(lease.eventId);
+        if (seats != null) {
+            seats.lock.lock();
+            try {
+                if (seats.current == lease) {
+                    seats.current = null;
+                }
+            } finally {
+                seats.lock.unlock();
+            }
+        }
+        lease.retire();
+        retired.add(lease);
+    }
+
+    /**
+     * Renews the leases still in use, returns idle and drained ones, and reclaims leases
+     * of any node that stopped renewing them.
+     */
+    @Scheduled(fixedDelayString = "${app.registration.lease-maintenance-ms:1000}")
+    public void maintainLeases() {
+        List<Long> renew = new ArrayList<>();
+        for (EventSeats seats : events.values()) {
+            Lease lease = seats.current;
+            if (lease == null) {
+                continue;
+            }
+            int available = lease.available();
+            if (available == lease.lastSeenAvailable && lease.inFlight() == 0) {
+                // Nothing taken since the last run: give the seats back for other nodes
+                seats.lock.lock();
+                try {
+                    if (seats.current == lease) {
+                        seats.current = null;
+                        lease.retire();
+                        retired.add(lease);
+                    }
+                } finally {
+                    seats.lock.unlock();
+                }
+            } else {
+                lease.lastSeenAvailable = available;
+                renew.add(lease.id);
+            }
+        }
+
+        List<Long> release = new ArrayList<>();
+        for (Lease lease : retired) {
+            if (lease.inFlight() == 0) {
+                release.add(lease.id);
+                retired.remove(lease);
+            } else {
+                renew.add(lease.id);
+            }
+        }
+
+        try {
+            if (!renew.isEmpty()) {
+                renew(renew);
+            }
+            if (!release.isEmpty()) {
+                release(release);
+            }
+            int reclaimed = jdbcTemplate.update(RECLAIM_EXPIRED_LEASES_SQL);
+            if (reclaimed > 0) {
+                logger.info("Reclaimed expired capacity leases for {} events", reclaimed);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Capacity lease maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private Lease acquire(EventSeats seats) {
+        return transactionTemplate.execute(status -> {
+            List<EventRow> rows = jdbcTemplate.query(LOCK_EVENT_SQL, (rs, rowNum) ->
+                    new EventRow(rs.getInt(1), rs.getInt(2), rs.getTimestamp(3).toLocalDateTime(), rs.getBoolean(4)),
+                    seats.eventId);
+            if (rows.isEmpty()) {
+                throw new ResourceNotFoundException("Event not found: " + seats.eventId);
+            }
+            EventRow event = rows.get(0);
+            seats.startsAt = event.startsAt;
+            seats.checkOpen();
+
+            // Freed seats belong to the users already waiting; the promotion pass hands them out
+            if (event.waitlisted) {
+                return null;
+            }
+            int granted = Math.min(leaseSize, event.capacity - event.allocated);
+            if (granted <= 0) {
+                return null;
+            }
+            jdbcTemplate.update(ALLOCATE_SQL, granted, seats.eventId);
+            Long leaseId = jdbcTemplate.queryForObject(INSERT_LEASE_SQL, Long.class,
+                    seats.eventId, nodeId, granted, leaseTtlMs);
+            logger.debug("Leased {} seats of event {} as lease {}", granted, seats.eventId, leaseId);
+            return new Lease(leaseId, seats.eventId, granted, counterStripes);
+        });
+    }
+
+    private void renew(List<Long> ids) {
+        Set<Long> renewed = new HashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(RENEW_LEASES_SQL);
+            ps.setLong(1, leaseTtlMs);
+            ps.setArray(2, con.createArrayOf("int8", ids.toArray()));
+            return ps;
+        }, rs -> {
+            renewed.add(rs.getLong(1));
+        });
+        if (renewed.size() == ids.size()) {
+            return;
+        }
+        // Expired before we got to them, so another node may already have reclaimed the seats
+        for (EventSeats seats : events.values()) {
+            Lease lease = seats.current;
+            if (lease != null && ids.contains(lease.id) && !renewed.contains(lease.id)) {
+                logger.warn("Capacity lease {} of event {} expired before renewal", lease.id, lease.eventId);
+                leaseLost(lease);
+            }
+        }
+    }
+
+    private void release(List<Long> ids) {
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(RELEASE_LEASES_SQL);
+            ps.setArray(1, con.createArrayOf("int8", ids.toArray()));
+            return ps;
+        });
+    }
+
+    /**
+     * Thrown by the writer when a lease no longer covers the seats it is writing.
+     */
+    static final class LeaseLostException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        LeaseLostException(long leaseId) {
+            super("Capacity lease " + leaseId + " expired or ran short");
+        }
+    }
+
+    /**
+     * A block of seats held by this node. Seats move from the counter to in-flight when
+     * reserved and leave in-flight once the writer has settled them.
+     */
+    static final class Lease {
+        final long id;
+        final Long eventId;
+        private final StripedSeatCounter seats;
+        private final LongAdder inFlight = new LongAdder();
+        private volatile boolean retired;
+        // Maintenance only; a lease whose count did not move between two runs is idle
+        private int lastSeenAvailable = -1;
+
+        Lease(long id, Long eventId, int seats, int stripes) {
+            this.id = id;
+            this.eventId = eventId;
+            this.seats = new StripedSeatCounter(stripes);
+            this.seats.add(seats);
+        }
+
+        boolean tryTake() {
+            // Counted before the take, so a drained lease never looks settled while a take is racing
+            inFlight.increment();
+            if (seats.tryTake()) {
+                return true;
+            }
+            inFlight.decrement();
+            return false;
+        }
+
+        /**
+         * Puts back a reserved seat that did not become a registration.
+         */
+        void giveBack() {
+            if (!retired) {
+                seats.giveBack();
+            }
+        }
+
+        void finished(int reserved) {
+            inFlight.add(-reserved);
+        }
+
+        int available() {
+            return seats.available();
+        }
+
+        long inFlight() {
+            return inFlight.sum();
+        }
+
+        private void retire() {
+            retired = true;
+            seats.drain();
+        }
+    }
+
+    private static final class EventSeats {
+        private final Long eventId;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile Lease current;
+        private volatile long fullUntilNanos = System.nanoTime();
+        private volatile LocalDateTime startsAt;
+
+        private EventSeats(Long eventId) {
+            this.eventId = eventId;
+        }
+
+        private void checkOpen() {
+            LocalDateTime start = startsAt;
+            if (start != null && !LocalDateTime.now().isBefore(start)) {
+                throw new RegistrationClosedException(eventId);
+            }
+        }
+    }
+
+    private record EventRow(int capacity, int allocated, LocalDateTime startsAt, boolean waitlisted) {
+    }
+}
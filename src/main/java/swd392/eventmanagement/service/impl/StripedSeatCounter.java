@@ -0,0 +1,87 @@
+package swd392.eventmanagement.service.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Free seats of one capacity lease, spread over padded stripes so concurrent
+ * registrations on different threads decrement different cache lines. A thread starts
+ * at its own stripe and only walks the others when that one is empty, so the counter
+ * reports empty only once every stripe is.
+ */
+final class StripedSeatCounter {
+    // One counter per 128 bytes keeps neighbouring stripes off each other's cache line
+    private static final int PADDING = 16;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    StripedSeatCounter(int stripes) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.cells = new AtomicLongArray(size * PADDING);
+        this.mask = size - 1;
+    }
+
+    int stripes() {
+        return mask + 1;
+    }
+
+    /**
+     * Spreads {@code seats} evenly over the stripes.
+     */
+    void add(int seats) {
+        int stripes = stripes();
+        int share = seats / stripes;
+        int remainder = seats % stripes;
+        for (int i = 0; i < stripes; i++) {
+            int amount = share + (i < remainder ? 1 : 0);
+            if (amount > 0) {
+                cells.addAndGet(i * PADDING, amount);
+            }
+        }
+    }
+
+    /**
+     * Puts one seat back on the calling thread's stripe.
+     */
+    void giveBack() {
+        cells.incrementAndGet(home() * PADDING);
+    }
+
+    boolean tryTake() {
+        int start = home();
+        for (int i = 0; i <= mask; i++) {
+            int index = ((start + i) & mask) * PADDING;
+            long seats;
+            while ((seats = cells.get(index)) > 0) {
+                if (cells.compareAndSet(index, seats, seats - 1)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Empties every stripe and returns how many seats were left.
+     */
+    int drain() {
+        long drained = 0;
+        for (int i = 0; i <= mask; i++) {
+            drained += cells.getAndSet(i * PADDING, 0);
+        }
+        return (int) drained;
+    }
+
+    int available() {
+        long available = 0;
+        for (int i = 0; i <= mask; i++) {
+            available += cells.get(i * PADDING);
+        }
+        return (int) available;
+    }
+
+    private int home() {
+        long id = Thread.currentThread().threadId();
+        return (int) (id ^ (id >>> 16)) * 0x9E3779B9 >>> 16 & mask;
+    }
+}
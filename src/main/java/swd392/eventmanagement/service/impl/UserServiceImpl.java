@@ -1,9 +1,24 @@
 package swd392.eventmanagement.service.impl;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import swd392.eventmanagement.model.dto.response.UserProfileResponse;
+import swd392.eventmanagement.model.entity.Role;
+import swd392.eventmanagement.security.service.PrincipalCache;
 import swd392.eventmanagement.service.UserService;
 
+import java.util.Optional;
+
 @Service
 public class UserServiceImpl implements UserService {
-    // TODO: Implement user service methods
-} 
\ No newline at end of file
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Override
+    public Optional<UserProfileResponse> getProfile(Long userId) {
+        // User, roles collection and roles all come from the second-level cache once warm,
+        // and each is evicted by key when that row changes; the principal cache skips even that
+        return principalCache.getUser(userId).map(user -> new UserProfileResponse(user.getId(), user.getEmail(),
+                user.getFullName(), user.getRoles().stream().map(Role::getName).toList()));
+    }
+}
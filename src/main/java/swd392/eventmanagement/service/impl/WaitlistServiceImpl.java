@@ -0,0 +1,231 @@
+package swd392.eventmanagement.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import swd392.eventmanagement.exception.ResourceNotFoundException;
+import swd392.eventmanagement.model.dto.response.RegistrationResponse;
+import swd392.eventmanagement.model.entity.RegistrationStatus;
+import swd392.eventmanagement.notification.NotificationKind;
+import swd392.eventmanagement.security.domain.DomainRule;
+import swd392.eventmanagement.service.WaitlistService;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Waitlists live in {@code waitlist_entries}, ordered per event by the queue index on
+ * (event_id, priority, id): joining is one index insert and promotion reads the head of
+ * the queue, both O(log n) in the number of waiters. Seats freed by cancellations or
+ * returned leases mark the event in {@code waitlist_promotions_due}; the promotion pass
+ * then fills all of an event's free seats at once, however many cancellations freed them.
+ * <p>
+ * Promoting deletes the entries, writes the registrations and queues one notification
+ * per promoted user in a single transaction under the event row lock, so a pass that
+ * runs twice, or on two nodes, promotes nobody twice and notifies nobody twice.
+ */
+@Service
+public class WaitlistServiceImpl implements WaitlistService {
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistServiceImpl.class);
+
+    private static final short HOME_STUDENT_PRIORITY = 0;
+    private static final short DEFAULT_PRIORITY = 1;
+
+    private static final String USER_SQL = """
+            SELECT u.email, EXISTS (
+                SELECT 1 FROM user_roles ur JOIN roles r ON r.id = ur.role_id
+                WHERE ur.user_id = u.id AND r.name = 'ROLE_STUDENT'
+            ) FROM users u WHERE u.id = ?
+            """;
+
+    private static final String ENQUEUE_SQL = """
+            INSERT INTO waitlist_entries (event_id, user_id, priority, enqueued_at)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (event_id, user_id) DO NOTHING
+            RETURNING id
+            """;
+
+    // A seat may have come back between the full answer and the join
+    private static final String MARK_DUE_IF_FREE_SQL = """
+            INSERT INTO waitlist_promotions_due (event_id)
+            SELECT id FROM events WHERE id = ? AND allocated < capacity
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String LEAVE_SQL = "DELETE FROM waitlist_entries WHERE event_id = ? AND user_id = ?";
+
+    private static final String DUE_EVENTS_SQL = "SELECT event_id FROM waitlist_promotions_due ORDER BY due_at LIMIT ?";
+
+    private static final String LOCK_EVENT_SQL = "SELECT capacity, allocated, starts_at FROM events WHERE id = ? FOR UPDATE";
+
+    // Taken after the event row lock, the same order cancellations lock in
+    private static final String CLAIM_DUE_SQL = "DELETE FROM waitlist_promotions_due WHERE event_id = ?";
+
+    // Waiters who meanwhile registered on their own leave the queue without taking a seat
+    private static final String PROMOTE_SQL = """
+            WITH head AS (
+                DELETE FROM waitlist_entries WHERE id IN (
+                    SELECT id FROM waitlist_entries WHERE event_id = ? ORDER BY priority, id LIMIT ?
+                ) RETURNING user_id
+            ),
+            promoted AS (
+                INSERT INTO registrations (event_id, user_id, status, registered_at)
+                SELECT ?, user_id, 'CONFIRMED', ? FROM head
+                ON CONFLICT (event_id, user_id) DO UPDATE
+                    SET status = 'CONFIRMED', registered_at = EXCLUDED.registered_at, cancelled_at = NULL
+                    WHERE registrations.status = 'CANCELLED'
+                RETURNING user_id
+            ),
+            notified AS (
+                INSERT INTO notification_outbox (kind, event_id, user_id, created_at)
+                SELECT ?, ?, user_id, ? FROM promoted
+            )
+            SELECT (SELECT COUNT(*) FROM head), (SELECT COUNT(*) FROM promoted)
+            """;
+
+    private static final String ALLOCATE_SQL = "UPDATE events SET allocated = allocated + ? WHERE id = ?";
+
+    private static final String MARK_MISSED_DUE_SQL = """
+            INSERT INTO waitlist_promotions_due (event_id)
+            SELECT e.id FROM events e
+            WHERE e.id IN (SELECT DISTINCT event_id FROM waitlist_entries)
+              AND e.allocated < e.capacity AND e.starts_at > now()
+            ON CONFLICT DO NOTHING
+            """;
+
+    @Value("${app.auth.student-domain}")
+    private String studentDomain;
+
+    @Value("${app.waitlist.prefer-home-students:true}")
+    private boolean preferHomeStudents;
+
+    @Value("${app.waitlist.promotion-batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.waitlist.promotion-max-batches:50}")
+    private int maxBatchesPerRun;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private DomainRule homeDomain;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        if (StringUtils.hasText(studentDomain)) {
+            homeDomain = DomainRule.parse(studentDomain, "ROLE_STUDENT");
+        }
+    }
+
+    @Override
+    public RegistrationResponse join(Long eventId, Long userId) {
+        List<Short> priorities = jdbcTemplate.query(USER_SQL,
+                (rs, rowNum) -> priorityOf(rs.getString(1), rs.getBoolean(2)), userId);
+        if (priorities.isEmpty()) {
+            throw new ResourceNotFoundException("User not found: " + userId);
+        }
+        boolean created = !jdbcTemplate.queryForList(ENQUEUE_SQL, Long.class, eventId, userId, priorities.get(0),
+                Timestamp.valueOf(LocalDateTime.now())).isEmpty();
+        if (created) {
+            // Separate statement, so it sees cancellations committed while the entry was written
+            jdbcTemplate.update(MARK_DUE_IF_FREE_SQL, eventId);
+        }
+        return new RegistrationResponse(eventId, userId, RegistrationStatus.WAITLISTED.name(), null, created);
+    }
+
+    @Override
+    public boolean leave(Long eventId, Long userId) {
+        return jdbcTemplate.update(LEAVE_SQL, eventId, userId) > 0;
+    }
+
+    @Override
+    public PromotionRun promoteDueEvents() {
+        int events = 0;
+        int promoted = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Long> due = jdbcTemplate.queryForList(DUE_EVENTS_SQL, Long.class, batchSize);
+            for (Long eventId : due) {
+                try {
+                    Integer count = transactionTemplate.execute(status -> promote(eventId));
+                    if (count != null) {
+                        events++;
+                        promoted += count;
+                    }
+                } catch (RuntimeException e) {
+                    // Rolled back with the event still marked due, so the next run tries again
+                    logger.warn("Waitlist promotion for event {} failed: {}", eventId, e.getMessage());
+                }
+            }
+            if (due.size() < batchSize) {
+                break;
+            }
+        }
+        return new PromotionRun(events, promoted);
+    }
+
+    @Override
+    public int markMissedEventsDue() {
+        return jdbcTemplate.update(MARK_MISSED_DUE_SQL);
+    }
+
+    /**
+     * Fills the event's free seats from the head of its waitlist. Returns the number of
+     * users promoted, or {@code null} when another pass already took the event.
+     */
+    private Integer promote(Long eventId) {
+        List<EventRow> rows = jdbcTemplate.query(LOCK_EVENT_SQL, (rs, rowNum) ->
+                new EventRow(rs.getInt(1), rs.getInt(2), rs.getTimestamp(3).toLocalDateTime()), eventId);
+        if (jdbcTemplate.update(CLAIM_DUE_SQL, eventId) == 0 || rows.isEmpty()) {
+            return null;
+        }
+        EventRow event = rows.get(0);
+        LocalDateTime now = LocalDateTime.now();
+        if (!now.isBefore(event.startsAt)) {
+            return 0;
+        }
+
+        Timestamp promotedAt = Timestamp.valueOf(now);
+        int free = event.capacity - event.allocated;
+        int promoted = 0;
+        while (free > 0) {
+            int[] counts = jdbcTemplate.queryForObject(PROMOTE_SQL, (rs, rowNum) -> new int[]{rs.getInt(1), rs.getInt(2)},
+                    eventId, free, eventId, promotedAt, NotificationKind.WAITLIST_PROMOTED.name(), eventId, promotedAt);
+            if (counts[0] == 0) {
+                break;
+            }
+            free -= counts[1];
+            promoted += counts[1];
+        }
+        if (promoted > 0) {
+            jdbcTemplate.update(ALLOCATE_SQL, promoted, eventId);
+            logger.debug("Promoted {} waiting users into event {}", promoted, eventId);
+        }
+        return promoted;
+    }
+
+    private short priorityOf(String email, boolean student) {
+        if (!preferHomeStudents || !student || homeDomain == null || email == null) {
+            return DEFAULT_PRIORITY;
+        }
+        String domain = email.substring(email.lastIndexOf('@') + 1).toLowerCase();
+        boolean home = domain.equals(homeDomain.domain())
+                || homeDomain.includeSubdomains() && domain.endsWith("." + homeDomain.domain());
+        return home ? HOME_STUDENT_PRIORITY : DEFAULT_PRIORITY;
+    }
+
+    private record EventRow(int capacity, int allocated, LocalDateTime startsAt) {
+    }
+}
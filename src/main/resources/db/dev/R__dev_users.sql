@@ -0,0 +1,17 @@
+-- Accounts for local development; db/dev is left out of spring.flyway.locations in prod
+INSERT INTO users (email, full_name, provider_user_id) VALUES
+  ('danhlagi0472@gmail.com', 'LECTURER', 'LECTURER-TEST-01'),
+  ('tqdat410@gmail.com', 'ADMIN', 'ADMIN-TEST-01')
+ON CONFLICT DO NOTHING;
+
+INSERT INTO user_roles (user_id, role_id)
+SELECT u.id, r.id
+FROM users u, roles r
+WHERE u.email = 'danhlagi0472@gmail.com' AND r.name = 'ROLE_LECTURER'
+ON CONFLICT DO NOTHING;
+
+INSERT INTO user_roles (user_id, role_id)
+SELECT u.id, r.id
+FROM users u, roles r
+WHERE u.email = 'tqdat410@gmail.com' AND r.name = 'ROLE_ADMIN'
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,77 @@
+-- Schema as of the switch from ddl-auto=update to migrations. Databases Hibernate
+-- already created are baselined at this version and skip it.
+CREATE SEQUENCE users_id_seq INCREMENT BY 50;
+CREATE SEQUENCE roles_id_seq INCREMENT BY 50;
+CREATE SEQUENCE refresh_tokens_id_seq INCREMENT BY 50;
+CREATE SEQUENCE revoked_tokens_id_seq INCREMENT BY 50;
+
+CREATE TABLE users (
+  id BIGINT PRIMARY KEY DEFAULT nextval('users_id_seq'),
+  email VARCHAR(255) NOT NULL UNIQUE,
+  full_name VARCHAR(255),
+  provider_user_id VARCHAR(255) NOT NULL UNIQUE,
+  role_version INT NOT NULL DEFAULT 0,
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE roles (
+  id INT PRIMARY KEY DEFAULT nextval('roles_id_seq'),
+  name VARCHAR(50) NOT NULL UNIQUE
+);
+
+CREATE TABLE user_roles (
+  user_id BIGINT NOT NULL,
+  role_id INT NOT NULL,
+  PRIMARY KEY (user_id, role_id),
+  FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+  FOREIGN KEY (role_id) REFERENCES roles(id) ON DELETE CASCADE
+);
+
+CREATE TABLE refresh_tokens (
+  id BIGINT PRIMARY KEY DEFAULT nextval('refresh_tokens_id_seq'),
+  token_hash BYTEA NOT NULL UNIQUE,
+  family_id UUID NOT NULL,
+  revoked BOOLEAN NOT NULL DEFAULT FALSE,
+  expiry_date TIMESTAMP NOT NULL,
+  issued_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  user_id BIGINT NOT NULL,
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_refresh_tokens_family_id ON refresh_tokens (family_id);
+CREATE INDEX idx_refresh_tokens_expiry_date ON refresh_tokens (expiry_date);
+CREATE INDEX idx_refresh_tokens_user_id ON refresh_tokens (user_id, issued_at);
+
+CREATE TABLE revoked_tokens (
+  id BIGINT PRIMARY KEY DEFAULT nextval('revoked_tokens_id_seq'),
+  jti VARCHAR(64) NOT NULL UNIQUE,
+  expires_at TIMESTAMP NOT NULL,
+  revoked_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
+
+CREATE TABLE jwt_signing_keys (
+  kid VARCHAR(64) PRIMARY KEY,
+  algorithm VARCHAR(16) NOT NULL,
+  public_key BYTEA NOT NULL,
+  private_key BYTEA NOT NULL,
+  created_at TIMESTAMP NOT NULL,
+  activates_at TIMESTAMP NOT NULL,
+  expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_jwt_signing_keys_expires_at ON jwt_signing_keys (expires_at);
+
+ALTER SEQUENCE users_id_seq OWNED BY users.id;
+ALTER SEQUENCE roles_id_seq OWNED BY roles.id;
+ALTER SEQUENCE refresh_tokens_id_seq OWNED BY refresh_tokens.id;
+ALTER SEQUENCE revoked_tokens_id_seq OWNED BY revoked_tokens.id;
+
+INSERT INTO roles (name) VALUES
+  ('ROLE_STUDENT'),
+  ('ROLE_LECTURER'),
+  ('ROLE_ADMIN');
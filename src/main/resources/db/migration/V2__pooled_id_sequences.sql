@@ -0,0 +1,32 @@
+-- Moves id columns of baselined databases, created by Hibernate as IDENTITY or from the
+-- old schema.sql as SERIAL, to a plain sequence default incrementing by 50, the
+-- allocation size of the pooled generators on the entities. Does nothing on databases
+-- created by V1.
+DO $$
+DECLARE
+    target TEXT;
+    sequence_name TEXT;
+    last_id BIGINT;
+BEGIN
+    FOREACH target IN ARRAY ARRAY['users', 'roles', 'refresh_tokens', 'revoked_tokens'] LOOP
+        sequence_name := target || '_id_seq';
+        IF EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = target
+                     AND column_name = 'id' AND is_identity = 'YES') THEN
+            EXECUTE format('SELECT GREATEST(COALESCE(MAX(id), 0), COALESCE(pg_sequence_last_value(%L), 0)) FROM %I',
+                    pg_get_serial_sequence(target, 'id'), target) INTO last_id;
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY', target);
+            EXECUTE format('CREATE SEQUENCE %I INCREMENT BY 50 OWNED BY %I.id', sequence_name, target);
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', target, sequence_name);
+            IF last_id > 0 THEN
+                -- The pooled optimizer treats each value as the top of its block
+                PERFORM setval(sequence_name, last_id);
+            END IF;
+        ELSIF EXISTS (SELECT 1 FROM pg_sequences
+                      WHERE schemaname = current_schema() AND sequencename = sequence_name
+                        AND increment_by <> 50) THEN
+            EXECUTE format('ALTER SEQUENCE %I INCREMENT BY 50', sequence_name);
+        END IF;
+    END LOOP;
+END
+$$;
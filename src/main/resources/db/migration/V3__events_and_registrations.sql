@@ -0,0 +1,54 @@
+-- Events and the registration ledger. events.allocated counts seats that are either
+-- confirmed registrations or still held by a node in capacity_leases, so the CHECK
+-- constraint is what finally rules out overselling, whichever node registers.
+CREATE SEQUENCE events_id_seq INCREMENT BY 50;
+CREATE SEQUENCE registrations_id_seq INCREMENT BY 50;
+CREATE SEQUENCE capacity_leases_id_seq INCREMENT BY 50;
+
+CREATE TABLE events (
+  id BIGINT PRIMARY KEY DEFAULT nextval('events_id_seq'),
+  title VARCHAR(255) NOT NULL,
+  description TEXT,
+  category VARCHAR(50) NOT NULL,
+  location VARCHAR(255),
+  organizer_id BIGINT NOT NULL,
+  starts_at TIMESTAMP NOT NULL,
+  ends_at TIMESTAMP NOT NULL,
+  capacity INT NOT NULL,
+  allocated INT NOT NULL DEFAULT 0,
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  FOREIGN KEY (organizer_id) REFERENCES users(id),
+  CONSTRAINT chk_events_allocated CHECK (allocated >= 0 AND allocated <= capacity)
+);
+
+CREATE TABLE registrations (
+  id BIGINT PRIMARY KEY DEFAULT nextval('registrations_id_seq'),
+  event_id BIGINT NOT NULL,
+  user_id BIGINT NOT NULL,
+  status VARCHAR(16) NOT NULL,
+  registered_at TIMESTAMP NOT NULL,
+  cancelled_at TIMESTAMP,
+  CONSTRAINT uk_registrations_event_user UNIQUE (event_id, user_id),
+  FOREIGN KEY (event_id) REFERENCES events(id) ON DELETE CASCADE,
+  FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_registrations_user_id ON registrations (user_id);
+
+-- Seats a node has taken from events.allocated and not yet turned into registrations.
+-- Written only over JDBC; a node that stops renewing its leases has them reclaimed.
+CREATE TABLE capacity_leases (
+  id BIGINT PRIMARY KEY DEFAULT nextval('capacity_leases_id_seq'),
+  event_id BIGINT NOT NULL,
+  node_id VARCHAR(64) NOT NULL,
+  seats INT NOT NULL CHECK (seats >= 0),
+  expires_at TIMESTAMP NOT NULL,
+  FOREIGN KEY (event_id) REFERENCES events(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_capacity_leases_expires_at ON capacity_leases (expires_at);
+
+ALTER SEQUENCE events_id_seq OWNED BY events.id;
+ALTER SEQUENCE registrations_id_seq OWNED BY registrations.id;
+ALTER SEQUENCE capacity_leases_id_seq OWNED BY capacity_leases.id;
@@ -0,0 +1,12 @@
+-- Catalog listings seek on (filter, starts_at, id) and read only the INCLUDEd columns,
+-- so a page is an index-only scan whose cost does not grow with its depth.
+CREATE INDEX idx_events_starts_at ON events (starts_at, id)
+  INCLUDE (title, category, location, organizer_id, ends_at, capacity);
+CREATE INDEX idx_events_category_starts_at ON events (category, starts_at, id)
+  INCLUDE (title, location, organizer_id, ends_at, capacity);
+CREATE INDEX idx_events_organizer_starts_at ON events (organizer_id, starts_at, id)
+  INCLUDE (title, category, location, ends_at, capacity);
+
+-- events.allocated changes with every seat lease; free room on the page keeps those
+-- updates HOT, so they do not add index entries
+ALTER TABLE events SET (fillfactor = 90);
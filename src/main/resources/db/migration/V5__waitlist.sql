@@ -0,0 +1,39 @@
+-- Waitlist of full events. Only waiting users have a row: promotion deletes it in the
+-- same transaction that writes their registration, so nobody is promoted twice. The
+-- queue index orders each event's waiters by priority, then arrival.
+CREATE SEQUENCE waitlist_entries_id_seq INCREMENT BY 50;
+CREATE SEQUENCE notification_outbox_id_seq INCREMENT BY 50;
+
+CREATE TABLE waitlist_entries (
+  id BIGINT PRIMARY KEY DEFAULT nextval('waitlist_entries_id_seq'),
+  event_id BIGINT NOT NULL,
+  user_id BIGINT NOT NULL,
+  priority SMALLINT NOT NULL,
+  enqueued_at TIMESTAMP NOT NULL,
+  CONSTRAINT uk_waitlist_entries_event_user UNIQUE (event_id, user_id),
+  FOREIGN KEY (event_id) REFERENCES events(id) ON DELETE CASCADE,
+  FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_waitlist_entries_queue ON waitlist_entries (event_id, priority, id);
+
+-- Events that got seats back while users were waiting. Cancellations only mark the
+-- event here; the promotion pass drains the set in batches.
+CREATE TABLE waitlist_promotions_due (
+  event_id BIGINT PRIMARY KEY,
+  due_at TIMESTAMP NOT NULL DEFAULT now(),
+  FOREIGN KEY (event_id) REFERENCES events(id) ON DELETE CASCADE
+);
+
+-- Notifications written in the transaction that caused them and handed to the
+-- sender by the dispatcher, which deletes them in the transaction that claimed them.
+CREATE TABLE notification_outbox (
+  id BIGINT PRIMARY KEY DEFAULT nextval('notification_outbox_id_seq'),
+  kind VARCHAR(32) NOT NULL,
+  event_id BIGINT NOT NULL,
+  user_id BIGINT NOT NULL,
+  created_at TIMESTAMP NOT NULL
+);
+
+ALTER SEQUENCE waitlist_entries_id_seq OWNED BY waitlist_entries.id;
+ALTER SEQUENCE notification_outbox_id_seq OWNED BY notification_outbox.id;
@@ -0,0 +1,17 @@
+-- Who came to an event, merged from scanner uploads. A scan uploaded twice, or the
+-- same attendee scanned at two gates, lands on the same row, which keeps the earliest
+-- scan as the check-in time.
+CREATE SEQUENCE attendances_id_seq INCREMENT BY 50;
+
+CREATE TABLE attendances (
+  id BIGINT PRIMARY KEY DEFAULT nextval('attendances_id_seq'),
+  event_id BIGINT NOT NULL,
+  user_id BIGINT NOT NULL,
+  checked_in_at TIMESTAMP NOT NULL,
+  scanner_id VARCHAR(64),
+  CONSTRAINT uk_attendances_event_user UNIQUE (event_id, user_id),
+  FOREIGN KEY (event_id) REFERENCES events(id) ON DELETE CASCADE,
+  FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+ALTER SEQUENCE attendances_id_seq OWNED BY attendances.id;
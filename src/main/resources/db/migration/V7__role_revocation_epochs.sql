@@ -0,0 +1,13 @@
+-- Taking a role away, by whatever means, bumps the user's role_version, so access tokens
+-- issued with the old roles stop being trusted for their embedded authorities. Adding
+-- a role does not: a token with fewer roles than the user holds grants nothing extra.
+CREATE OR REPLACE FUNCTION bump_role_version() RETURNS trigger AS $$
+BEGIN
+    UPDATE users SET role_version = role_version + 1 WHERE id = OLD.user_id;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER user_roles_role_version
+    AFTER UPDATE OR DELETE ON user_roles
+    FOR EACH ROW EXECUTE FUNCTION bump_role_version();
@@ -0,0 +1,32 @@
+-- Every committed change to users, user_roles or roles sends 'table:id' on the
+-- entity_cache channel, whatever wrote the row, so each node's EntityCacheInvalidator
+-- can evict the matching second-level cache entries.
+CREATE FUNCTION notify_entity_cache() RETURNS trigger AS $$
+DECLARE
+    changed RECORD;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        changed := OLD;
+    ELSE
+        changed := NEW;
+    END IF;
+    IF TG_TABLE_NAME = 'user_roles' THEN
+        PERFORM pg_notify('entity_cache', 'user_roles:' || changed.user_id);
+    ELSE
+        PERFORM pg_notify('entity_cache', TG_TABLE_NAME || ':' || changed.id);
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER users_entity_cache
+    AFTER INSERT OR UPDATE OR DELETE ON users
+    FOR EACH ROW EXECUTE FUNCTION notify_entity_cache();
+
+CREATE TRIGGER user_roles_entity_cache
+    AFTER INSERT OR UPDATE OR DELETE ON user_roles
+    FOR EACH ROW EXECUTE FUNCTION notify_entity_cache();
+
+CREATE TRIGGER roles_entity_cache
+    AFTER INSERT OR UPDATE OR DELETE ON roles
+    FOR EACH ROW EXECUTE FUNCTION notify_entity_cache();
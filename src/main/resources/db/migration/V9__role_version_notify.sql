@@ -0,0 +1,15 @@
+-- The role version bump now announces the new version itself, as
+-- 'role_version:user_id:version' on the entity_cache channel. Nodes apply it without
+-- querying, and role grants, which do not bump the version, no longer cost a query.
+CREATE OR REPLACE FUNCTION bump_role_version() RETURNS trigger AS $$
+DECLARE
+    bumped INTEGER;
+BEGIN
+    UPDATE users SET role_version = role_version + 1 WHERE id = OLD.user_id
+        RETURNING role_version INTO bumped;
+    IF FOUND THEN
+        PERFORM pg_notify('entity_cache', 'role_version:' || OLD.user_id || ':' || bumped);
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,75 @@
+package swd392.eventmanagement.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditRingBufferTest {
+
+    @Test
+    void drainsInPublishOrder() {
+        AuditRingBuffer buffer = new AuditRingBuffer(8);
+        buffer.offer(AuditEventType.LOGIN_SUCCESS, 1, "a@fpt.edu.vn", null);
+        buffer.offer(AuditEventType.LOGOUT, 2, null, null);
+
+        List<String> drained = new ArrayList<>();
+        assertEquals(2, buffer.drain((type, ts, subject, detail) -> drained.add(type + "@" + ts), 10));
+        assertEquals(List.of("LOGIN_SUCCESS@1", "LOGOUT@2"), drained);
+        assertEquals(0, buffer.drain((type, ts, subject, detail) -> fail(), 10));
+    }
+
+    @Test
+    void rejectsWhenConsumerIsAFullRingBehind() {
+        AuditRingBuffer buffer = new AuditRingBuffer(4);
+        for (int i = 0; i < buffer.capacity(); i++) {
+            assertTrue(buffer.offer(AuditEventType.TOKEN_REJECTED, i, "EXPIRED", null));
+        }
+        assertFalse(buffer.offer(AuditEventType.TOKEN_REJECTED, 99, "EXPIRED", null));
+
+        buffer.drain((type, ts, subject, detail) -> { }, 1);
+        assertTrue(buffer.offer(AuditEventType.TOKEN_REJECTED, 100, "EXPIRED", null));
+    }
+
+    @Test
+    void deliversEveryEventFromConcurrentProducers() throws Exception {
+        int producers = 4;
+        int perProducer = 5000;
+        AuditRingBuffer buffer = new AuditRingBuffer(256);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    long id = (long) producer * perProducer + i;
+                    while (!buffer.offer(AuditEventType.LOGIN_SUCCESS, id, null, null)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        Set<Long> seen = new HashSet<>();
+        start.countDown();
+        while (seen.size() < producers * perProducer) {
+            buffer.drain((type, ts, subject, detail) -> assertTrue(seen.add(ts)), 64);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(producers * perProducer, seen.size());
+    }
+}
@@ -0,0 +1,52 @@
+package swd392.eventmanagement.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditSummarizerTest {
+    private final AuditSummarizer summarizer = new AuditSummarizer(1000, 2);
+    private final List<String> lines = new ArrayList<>();
+
+    @Test
+    void writesSuccessEventsUnsummarized() {
+        for (int i = 0; i < 5; i++) {
+            summarizer.accept(AuditEventType.LOGIN_SUCCESS, i, "a@fpt.edu.vn", null, lines::add);
+        }
+        assertEquals(5, lines.size());
+        assertTrue(lines.get(0).contains("LOGIN_SUCCESS subject=a@fpt.edu.vn"));
+    }
+
+    @Test
+    void collapsesRepeatedFailuresIntoOneSummaryPerWindow() {
+        for (int i = 0; i < 10; i++) {
+            summarizer.accept(AuditEventType.TOKEN_REJECTED, 100 + i, "EXPIRED", "JWT expired", lines::add);
+        }
+        summarizer.accept(AuditEventType.TOKEN_REJECTED, 200, "MALFORMED", "bad \"token\"", lines::add);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(2).contains("detail=\"bad 'token'\""));
+
+        summarizer.flush(500, lines::add);
+        assertEquals(3, lines.size());
+
+        summarizer.flush(1100, lines::add);
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(3).contains("TOKEN_REJECTED_SUMMARY subject=EXPIRED suppressed=8 total=10"));
+
+        // The next window starts from scratch
+        summarizer.accept(AuditEventType.TOKEN_REJECTED, 1200, "EXPIRED", "JWT expired", lines::add);
+        assertEquals(5, lines.size());
+    }
+
+    @Test
+    void flushAllReportsOpenWindows() {
+        for (int i = 0; i < 3; i++) {
+            summarizer.accept(AuditEventType.DOMAIN_DENIED, i, "x@evil.com", null, lines::add);
+        }
+        summarizer.flushAll(10, lines::add);
+        assertTrue(lines.get(lines.size() - 1).contains("DOMAIN_DENIED_SUMMARY subject=x@evil.com suppressed=1"));
+    }
+}
@@ -0,0 +1,177 @@
+package swd392.eventmanagement.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import swd392.eventmanagement.model.entity.User;
+import swd392.eventmanagement.repository.UserRepository;
+import swd392.eventmanagement.service.AuthService;
+import swd392.eventmanagement.service.RefreshTokenService;
+import swd392.eventmanagement.service.UserService;
+import swd392.eventmanagement.service.impl.RoleCache;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the SQL statements behind repeated logins and refreshes with a cold and a
+ * warm second-level cache, and checks that a write from outside Hibernate reaches
+ * the cache through NOTIFY. Needs a real Postgres; run with
+ * LOADTEST_DB_URL=jdbc:postgresql://localhost:5432/eventmanagement_load.
+ */
+@EnabledIfEnvironmentVariable(named = "LOADTEST_DB_URL", matches = ".+")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${LOADTEST_DB_URL}",
+        "spring.datasource.username=${LOADTEST_DB_USERNAME:postgres}",
+        "spring.datasource.password=${LOADTEST_DB_PASSWORD:root}",
+        "spring.security.oauth2.client.registration.google.client-id=load-test",
+        "spring.security.oauth2.client.registration.google.client-secret=load-test",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class SecondLevelCacheLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(SecondLevelCacheLoadTest.class);
+
+    private static final int ROUNDS = 200;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RoleCache roleCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SessionFactory sessionFactory;
+
+    @BeforeEach
+    void seedRoles() {
+        for (String role : List.of("ROLE_STUDENT", "ROLE_LECTURER", "ROLE_ADMIN")) {
+            jdbcTemplate.update("INSERT INTO roles (name) VALUES (?) ON CONFLICT (name) DO NOTHING", role);
+        }
+        roleCache.reload();
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    @Test
+    void warmCacheCutsStatementsForRepeatedLoginsAndRefreshes() {
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        String email = "cache-" + runId + "@fpt.edu.vn";
+        String providerUserId = "cache-" + runId;
+        User user = authService.createOrUpdateUser(email, "Cache Test", providerUserId);
+        String[] refreshToken = {refreshTokenService.createRefreshToken(user.getId()).getToken()};
+
+        Runnable loginAndRefresh = () -> {
+            authService.createOrUpdateUser(email, "Cache Test", providerUserId);
+            refreshToken[0] = refreshTokenService.rotateRefreshToken(refreshToken[0]).getToken();
+        };
+
+        long cold = countStatements(() -> {
+            sessionFactory.getCache().evictAllRegions();
+            loginAndRefresh.run();
+        });
+        long warm = countStatements(loginAndRefresh);
+
+        Statistics statistics = sessionFactory.getStatistics();
+        logger.info("statements per {} logins+refreshes: cold {}, warm {} (L2 hits {}, misses {})", ROUNDS, cold, warm,
+                statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount());
+        assertTrue(warm < cold, "warm " + warm + " should be below cold " + cold);
+    }
+
+    @Test
+    void writesOutsideHibernateAreEvictedThroughNotify() throws InterruptedException {
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        User user = authService.createOrUpdateUser("notify-" + runId + "@fpt.edu.vn", "Before", "notify-" + runId);
+        assertEquals("Before", userRepository.findById(user.getId()).orElseThrow().getFullName());
+
+        // Same path another node's write takes: plain SQL, then NOTIFY on commit
+        jdbcTemplate.update("UPDATE users SET full_name = 'After' WHERE id = ?", user.getId());
+
+        String fullName = null;
+        for (int i = 0; i < 50 && !"After".equals(fullName); i++) {
+            Thread.sleep(20);
+            fullName = userRepository.findById(user.getId()).orElseThrow().getFullName();
+        }
+        assertEquals("After", fullName);
+    }
+
+    @Test
+    void profileIsCachedUntilTheUserChanges() throws InterruptedException {
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        User user = authService.createOrUpdateUser("profile-" + runId + "@fpt.edu.vn", "Before", "profile-" + runId);
+        assertEquals("Before", userService.getProfile(user.getId()).orElseThrow().getFullName());
+        // The NOTIFYs for our own inserts evict the user and its roles whenever they arrive
+        long statements = -1;
+        for (int i = 0; i < 50 && statements != 0; i++) {
+            Thread.sleep(20);
+            statements = countStatements(() -> userService.getProfile(user.getId()));
+        }
+        assertEquals(0, statements);
+
+        jdbcTemplate.update("UPDATE users SET full_name = 'After' WHERE id = ?", user.getId());
+
+        String fullName = null;
+        for (int i = 0; i < 50 && !"After".equals(fullName); i++) {
+            Thread.sleep(20);
+            fullName = userService.getProfile(user.getId()).orElseThrow().getFullName();
+        }
+        assertEquals("After", fullName);
+    }
+
+    @Test
+    void emailLookupsFollowAnEmailChangedOutsideHibernate() throws InterruptedException {
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        String before = "before-" + runId + "@fpt.edu.vn";
+        String after = "after-" + runId + "@fpt.edu.vn";
+        User user = authService.createOrUpdateUser(before, "Email", "email-" + runId);
+        Thread.sleep(200);
+        assertEquals(user.getId(), userRepository.findByEmail(before).orElseThrow().getId());
+        assertEquals(0, countStatements(() -> userRepository.findByEmail(before)));
+
+        jdbcTemplate.update("UPDATE users SET email = ? WHERE id = ?", after, user.getId());
+
+        boolean moved = false;
+        for (int i = 0; i < 50 && !moved; i++) {
+            Thread.sleep(20);
+            moved = userRepository.findByEmail(before).isEmpty();
+        }
+        assertTrue(moved, "the old email still resolves to the user");
+        assertEquals(user.getId(), userRepository.findByEmail(after).orElseThrow().getId());
+
+        // The old address now belongs to someone else
+        User newcomer = authService.createOrUpdateUser(before, "Newcomer", "newcomer-" + runId);
+        assertEquals(newcomer.getId(), userRepository.findByEmail(before).orElseThrow().getId());
+    }
+
+    private long countStatements(Runnable round) {
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        for (int i = 0; i < ROUNDS; i++) {
+            round.run();
+        }
+        return statistics.getPrepareStatementCount();
+    }
+}
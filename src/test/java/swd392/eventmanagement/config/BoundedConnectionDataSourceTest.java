@@ -0,0 +1,54 @@
+package swd392.eventmanagement.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedConnectionDataSourceTest {
+    private static final long TIMEOUT_MS = 1000;
+
+    @Test
+    void waitingForAPermitCountsAgainstThePoolTimeout() throws Exception {
+        // Nothing listens on port 1, so every borrow waits out the pool's connectionTimeout
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:postgresql://localhost:1/none");
+        config.setMaximumPoolSize(1);
+        config.setConnectionTimeout(TIMEOUT_MS);
+        config.setInitializationFailTimeout(-1);
+        try (BoundedConnectionDataSource dataSource =
+                     new BoundedConnectionDataSource(new HikariDataSource(config), 1, TIMEOUT_MS)) {
+            CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> timeToFail(dataSource));
+            Thread.sleep(TIMEOUT_MS / 2);
+            long second = timeToFail(dataSource);
+
+            assertTrue(first.get() >= TIMEOUT_MS * 9 / 10, "first borrower failed after " + first.get() + " ms");
+            // Without the shared deadline: half a timeout for the permit plus a full one in the pool
+            assertTrue(second < TIMEOUT_MS * 5 / 4, "second borrower failed after " + second + " ms");
+        }
+    }
+
+    @Test
+    void closingTheGuardClosesThePool() throws Exception {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:postgresql://localhost:1/none");
+        new BoundedConnectionDataSource(pool, 1, TIMEOUT_MS).close();
+        assertTrue(pool.isClosed());
+    }
+
+    private static long timeToFail(BoundedConnectionDataSource dataSource) {
+        long start = System.nanoTime();
+        try (Connection ignored = dataSource.getConnection()) {
+            fail("connected to a closed port");
+        } catch (SQLException expected) {
+            // Timed out waiting for the permit or the pool
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,55 @@
+package swd392.eventmanagement.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Checks which server read-only and read-write transactions land on. Needs two
+ * Postgres instances on different ports, e.g.
+ * LOADTEST_DB_URL=jdbc:postgresql://localhost:5432/eventmanagement_load and
+ * LOADTEST_REPLICA_URL=jdbc:postgresql://localhost:5433/eventmanagement_load.
+ * They do not have to replicate, but the second one needs the schema, since startup
+ * reads go to it; a server that is not in recovery reports no lag.
+ */
+@EnabledIfEnvironmentVariable(named = "LOADTEST_REPLICA_URL", matches = ".+")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${LOADTEST_DB_URL}",
+        "spring.datasource.username=${LOADTEST_DB_USERNAME:postgres}",
+        "spring.datasource.password=${LOADTEST_DB_PASSWORD:root}",
+        "app.datasource.replicas.urls=${LOADTEST_REPLICA_URL}",
+        "spring.security.oauth2.client.registration.google.client-id=load-test",
+        "spring.security.oauth2.client.registration.google.client-secret=load-test"
+})
+class ReadReplicaRoutingTest {
+    private static final String SERVER_PORT_SQL = "SELECT inet_server_port()";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void routesReadOnlyTransactionsToTheReplica() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Integer primaryPort = readWrite.execute(status -> jdbcTemplate.queryForObject(SERVER_PORT_SQL, Integer.class));
+        Integer replicaPort = readOnly.execute(status -> jdbcTemplate.queryForObject(SERVER_PORT_SQL, Integer.class));
+        assertNotEquals(primaryPort, replicaPort);
+
+        try (PrimaryReads.Pin pin = PrimaryReads.pin()) {
+            assertEquals(primaryPort,
+                    readOnly.execute(status -> jdbcTemplate.queryForObject(SERVER_PORT_SQL, Integer.class)));
+        }
+    }
+}
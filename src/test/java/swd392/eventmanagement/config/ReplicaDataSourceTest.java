@@ -0,0 +1,127 @@
+package swd392.eventmanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaDataSourceTest {
+    private final FakePool primary = new FakePool("primary");
+    private final FakePool replicaA = new FakePool("replica-a");
+    private final FakePool replicaB = new FakePool("replica-b");
+    private final ReplicaDataSource dataSource =
+            new ReplicaDataSource(primary, List.of(replicaA, replicaB), 1000, new SimpleMeterRegistry());
+
+    @Test
+    void roundRobinsAcrossHealthyReplicas() throws Exception {
+        Set<Connection> seen = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            seen.add(dataSource.getConnection());
+        }
+        assertEquals(Set.of(replicaA.connection, replicaB.connection), seen);
+    }
+
+    @Test
+    void skipsReplicasThatAreDownOrLagging() throws Exception {
+        dataSource.setStatus(0, false, 0);
+        assertSame(replicaB.connection, dataSource.getConnection());
+        assertSame(replicaB.connection, dataSource.getConnection());
+
+        dataSource.setStatus(1, true, 5000);
+        assertSame(primary.connection, dataSource.getConnection());
+    }
+
+    @Test
+    void pinnedReadsGoToThePrimary() throws Exception {
+        try (PrimaryReads.Pin outer = PrimaryReads.pin()) {
+            try (PrimaryReads.Pin inner = PrimaryReads.pin()) {
+                assertSame(primary.connection, dataSource.getConnection());
+            }
+            assertSame(primary.connection, dataSource.getConnection());
+        }
+        assertFalse(PrimaryReads.isPinned());
+        assertNotSame(primary.connection, dataSource.getConnection());
+    }
+
+    @Test
+    void lagIsMeasuredAgainstThePrimaryPosition() {
+        primary.lsn = "0/3000148";
+        dataSource.checkReplicas();
+        assertEquals("0/3000148", replicaA.boundLsn);
+        assertEquals("0/3000148", replicaB.boundLsn);
+    }
+
+    @Test
+    void getConnectionWithCredentialsIsDelegated() throws Exception {
+        assertNotSame(primary.connection, dataSource.getConnection("reporting", "secret"));
+        try (PrimaryReads.Pin pin = PrimaryReads.pin()) {
+            assertSame(primary.connection, dataSource.getConnection("reporting", "secret"));
+        }
+    }
+
+    private static final class FakePool extends HikariDataSource {
+        private final String name;
+        private final Connection connection;
+        private volatile String lsn = "0/0";
+        private volatile String boundLsn;
+
+        private FakePool(String name) {
+            this.name = name;
+            ResultSet lag = proxy(ResultSet.class, (proxy, method, args) -> switch (method.getName()) {
+                case "next" -> true;
+                case "getLong" -> 0L;
+                case "getString" -> lsn;
+                case "wasNull" -> false;
+                default -> null;
+            });
+            PreparedStatement statement = proxy(PreparedStatement.class, (proxy, method, args) -> {
+                if ("setString".equals(method.getName())) {
+                    boundLsn = (String) args[1];
+                }
+                return "executeQuery".equals(method.getName()) ? lag : null;
+            });
+            this.connection = proxy(Connection.class, (proxy, method, args) -> switch (method.getName()) {
+                case "createStatement", "prepareStatement" -> statement;
+                case "toString" -> name;
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> null;
+            });
+        }
+
+        @Override
+        public Connection getConnection() {
+            return connection;
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+            return connection;
+        }
+
+        @Override
+        public String getPoolName() {
+            return name;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+}
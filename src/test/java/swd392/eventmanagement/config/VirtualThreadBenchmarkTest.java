@@ -0,0 +1,181 @@
+package swd392.eventmanagement.config;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import swd392.eventmanagement.EventManagementApplication;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares platform and virtual request threads end to end: the application is started
+ * on an embedded Tomcat once with {@code spring.threads.virtual.enabled=false} and once
+ * with {@code true}, and 5k HTTP clients hit the event catalog at once. Every request
+ * goes through the real connector, the security filter chain and a JDBC query on the
+ * 20-connection Hikari pool against a real Postgres. Throughput counts successful
+ * responses; requests that time out on the pool or lose their connection are reported
+ * as failed.
+ * <p>
+ * Run with {@code LOADTEST_DB_URL=jdbc:postgresql://localhost:5432/eventmanagement_load
+ * mvn test -Dtest=VirtualThreadBenchmarkTest -Dbenchmark=true}; tune with
+ * {@code -Dbenchmark.clients} and {@code -Dbenchmark.rounds}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@EnabledIfEnvironmentVariable(named = "LOADTEST_DB_URL", matches = ".+")
+class VirtualThreadBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadBenchmarkTest.class);
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 5000);
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 3);
+    private static final int WARM_UP_CLIENTS = 200;
+    private static final int EVENTS = 20;
+
+    private static final String RUN_ID = UUID.randomUUID().toString().substring(0, 8);
+    private static long organizerId;
+
+    @BeforeAll
+    static void seedCatalog() {
+        try (ConfigurableApplicationContext context = start(false)) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            organizerId = jdbcTemplate.queryForObject("""
+                    INSERT INTO users (email, full_name, provider_user_id, role_version, created_at, updated_at)
+                    VALUES (?, 'Benchmark organizer', ?, 0, now(), now()) RETURNING id
+                    """, Long.class, "vt-" + RUN_ID + "@fpt.edu.vn", "vt-" + RUN_ID);
+            LocalDateTime startsAt = LocalDateTime.now().plusDays(1);
+            for (int i = 0; i < EVENTS; i++) {
+                jdbcTemplate.update("""
+                        INSERT INTO events (title, category, organizer_id, starts_at, ends_at, capacity)
+                        VALUES (?, 'WORKSHOP', ?, ?, ?, 100)
+                        """, "vt-" + RUN_ID + "-" + i, organizerId,
+                        Timestamp.valueOf(startsAt.plusHours(i)), Timestamp.valueOf(startsAt.plusHours(i + 1)));
+            }
+        }
+    }
+
+    @AfterAll
+    static void dropCatalog() {
+        try (ConfigurableApplicationContext context = start(false)) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            jdbcTemplate.update("DELETE FROM events WHERE organizer_id = ?", organizerId);
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", organizerId);
+        }
+    }
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        Result platform = serve(false);
+        Result virtual = serve(true);
+
+        logger.info("{} concurrent clients on GET /api/events, best of {} rounds", CLIENTS, ROUNDS);
+        for (Result result : List.of(platform, virtual)) {
+            logger.info("{}: {} requests/s, {} failed, p50 {} ms, p99 {} ms", result.name,
+                    Math.round(result.throughput), result.errors, Math.round(result.p50Millis),
+                    Math.round(result.p99Millis));
+        }
+    }
+
+    private Result serve(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = start(virtualThreads)) {
+            URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + "/api/events?organizerId=" + organizerId);
+            String name = virtualThreads ? "virtual" : "platform";
+
+            // A small burst first warms up the JIT, the connector and the pool
+            load(name, uri, WARM_UP_CLIENTS);
+            Result best = null;
+            for (int round = 0; round < ROUNDS; round++) {
+                Result result = load(name, uri, CLIENTS);
+                if (best == null || result.throughput > best.throughput) {
+                    best = result;
+                }
+            }
+            return best;
+        }
+    }
+
+    private Result load(String name, URI uri, int count) throws Exception {
+        long[] latencies = new long[count];
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(30))
+                     .executor(clients)
+                     .build()) {
+            HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+            List<Future<?>> futures = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int n = i;
+                futures.add(clients.submit(() -> {
+                    go.await();
+                    long sent = System.nanoTime();
+                    try {
+                        // Pool timeouts come back as 500s; refused or reset connections throw
+                        if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies[n] = System.nanoTime() - sent;
+                    return null;
+                }));
+            }
+
+            long start = System.nanoTime();
+            go.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            Arrays.sort(latencies);
+            return new Result(name, (count - errors.get()) / (elapsed / 1e9), errors.get(),
+                    latencies[count / 2] / 1e6, latencies[(int) (count * 0.99)] / 1e6);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtualThreads) {
+        return new SpringApplicationBuilder(EventManagementApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=" + System.getenv("LOADTEST_DB_URL"),
+                        "--spring.datasource.username=" + env("LOADTEST_DB_USERNAME", "postgres"),
+                        "--spring.datasource.password=" + env("LOADTEST_DB_PASSWORD", "root"),
+                        "--spring.security.oauth2.client.registration.google.client-id=load-test",
+                        "--spring.security.oauth2.client.registration.google.client-secret=load-test",
+                        "--app.registration.node-id=vt-" + RUN_ID);
+    }
+
+    private static String env(String name, String fallback) {
+        return System.getenv().getOrDefault(name, fallback);
+    }
+
+    private record Result(String name, double throughput, int errors, double p50Millis, double p99Millis) {
+    }
+}
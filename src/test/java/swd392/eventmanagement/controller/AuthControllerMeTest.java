@@ -0,0 +1,90 @@
+package swd392.eventmanagement.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import swd392.eventmanagement.model.dto.response.UserProfileResponse;
+import swd392.eventmanagement.security.service.UserPrincipal;
+import swd392.eventmanagement.service.UserService;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthControllerMeTest {
+    private static final UserPrincipal PRINCIPAL = new UserPrincipal(42L, "student42@fpt.edu.vn", "Student 42",
+            List.of(new SimpleGrantedAuthority("ROLE_STUDENT")));
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private AuthController authController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(authController)
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(PRINCIPAL, null, PRINCIPAL.getAuthorities()));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void servesTheProfileFromTheTokenAndAnswersRepeatPollsWith304() throws Exception {
+        String etag = mockMvc.perform(get("/api/auth/me"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(42))
+                .andExpect(jsonPath("$.fullName").value("Student 42"))
+                .andExpect(jsonPath("$.roles[0]").value("STUDENT"))
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/auth/me").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void freshReadsTheStoredProfileAndChangesTheEtagWhenItDiffers() throws Exception {
+        String etag = mockMvc.perform(get("/api/auth/me"))
+                .andReturn().getResponse().getHeader("ETag");
+        when(userService.getProfile(42L)).thenReturn(Optional.of(new UserProfileResponse(
+                42L, "student42@fpt.edu.vn", "Student 42", List.of("ROLE_STUDENT", "ROLE_LECTURER"))));
+
+        mockMvc.perform(get("/api/auth/me").param("fresh", "true").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$.roles[0]").value("LECTURER"));
+    }
+
+    @Test
+    void rejectsAnonymousCallers() throws Exception {
+        SecurityContextHolder.clearContext();
+        mockMvc.perform(get("/api/auth/me")).andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,158 @@
+package swd392.eventmanagement.db;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import swd392.eventmanagement.model.entity.User;
+import swd392.eventmanagement.repository.JwtSigningKeyRepository;
+import swd392.eventmanagement.repository.UserRepository;
+import swd392.eventmanagement.security.jwt.SigningKeyRing;
+import swd392.eventmanagement.security.service.RoleEpochRegistry;
+import swd392.eventmanagement.service.impl.RoleCache;
+import swd392.eventmanagement.support.ScratchSchema;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Applies the migrations to an empty schema and starts Hibernate with
+ * ddl-auto=validate on top, so entities and migrations cannot drift apart; the prod
+ * profile relies on this instead of validating at startup. Needs a real Postgres; run
+ * with LOADTEST_DB_URL=jdbc:postgresql://localhost:5432/eventmanagement_load.
+ */
+@ScratchSchema("migration_check")
+@TestPropertySource(properties = "spring.jpa.hibernate.ddl-auto=validate")
+class MigrationSchemaTest {
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleCache roleCache;
+
+    @Autowired
+    private RoleEpochRegistry roleEpochRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtSigningKeyRepository signingKeyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void migrationsMatchTheEntitiesAndShareIdSequences() {
+        assertEquals(0, flyway.info().pending().length);
+        assertEquals(List.of("ROLE_ADMIN", "ROLE_LECTURER", "ROLE_STUDENT"),
+                jdbcTemplate.queryForList("SELECT name FROM roles ORDER BY name", String.class));
+
+        // Hibernate's pooled ids and the column default must never hand out the same id
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setEmail("migration-" + runId + "@fpt.edu.vn");
+        user.setProviderUserId("migration-" + runId);
+        user.setRoles(Set.of(roleCache.getRequired("ROLE_STUDENT")));
+        userRepository.insertAll(List.of(user));
+        Long nativeId = userRepository.upsertByProviderUserId("native-" + runId + "@fpt.edu.vn", null,
+                "native-" + runId, roleCache.getRequired("ROLE_STUDENT").getId(), LocalDateTime.now());
+        assertNotEquals(user.getId(), nativeId);
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_roles WHERE user_id IN (?, ?)",
+                Integer.class, user.getId(), nativeId));
+    }
+
+    @Test
+    void loginTakesOverAnAccountSeededUnderAnotherProviderId() {
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        String email = "seeded-" + runId + "@fpt.edu.vn";
+        Long seededId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (email, full_name, provider_user_id) VALUES (?, 'ADMIN', ?) RETURNING id",
+                Long.class, email, "ADMIN-TEST-" + runId);
+        Integer roleId = roleCache.getRequired("ROLE_STUDENT").getId();
+
+        Long loginId = userRepository.upsertByProviderUserId(email, "Admin", "google-" + runId, roleId,
+                LocalDateTime.now());
+        assertEquals(seededId, loginId);
+        assertEquals("google-" + runId, jdbcTemplate.queryForObject(
+                "SELECT provider_user_id FROM users WHERE id = ?", String.class, seededId));
+        // Seeded roles stay; the login's default role is only for new users
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM user_roles WHERE user_id = ?", Integer.class, seededId));
+
+        // The next login with nothing changed writes nothing and still finds the user
+        assertEquals(seededId, userRepository.upsertByProviderUserId(email, "Admin", "google-" + runId, roleId,
+                LocalDateTime.now()));
+    }
+
+    @Test
+    void revokingARoleOutdatesTokensOnEveryNode() throws InterruptedException {
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        Integer roleId = roleCache.getRequired("ROLE_STUDENT").getId();
+        Long userId = userRepository.upsertByProviderUserId("revoked-" + runId + "@fpt.edu.vn", null,
+                "revoked-" + runId, roleId, LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)",
+                userId, roleCache.getRequired("ROLE_LECTURER").getId());
+        // Granting roles leaves issued tokens alone
+        assertEquals(0, roleEpochRegistry.currentEpoch(userId));
+
+        // As an admin would, straight in the database
+        jdbcTemplate.update("DELETE FROM user_roles WHERE user_id = ? AND role_id = ?",
+                userId, roleCache.getRequired("ROLE_LECTURER").getId());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT role_version FROM users WHERE id = ?",
+                Integer.class, userId));
+        for (int i = 0; i < 50 && roleEpochRegistry.currentEpoch(userId) == 0; i++) {
+            Thread.sleep(100);
+        }
+        assertFalse(roleEpochRegistry.isCurrent(userId, 0));
+        assertTrue(roleEpochRegistry.isCurrent(userId, 1));
+    }
+
+    @Test
+    void nodesStartingOnAnEmptyKeyTableAgreeOnOneKey() throws Exception {
+        jdbcTemplate.update("DELETE FROM jwt_signing_keys");
+        ExecutorService nodes = Executors.newFixedThreadPool(4);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> kids = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                kids.add(nodes.submit(() -> {
+                    SigningKeyRing ring = new SigningKeyRing();
+                    ReflectionTestUtils.setField(ring, "algorithm", "ES256");
+                    ReflectionTestUtils.setField(ring, "rotationIntervalMs", 604800000L);
+                    ReflectionTestUtils.setField(ring, "publishAheadMs", 900000L);
+                    ReflectionTestUtils.setField(ring, "tokenLifetimeMs", 86400000L);
+                    ReflectionTestUtils.setField(ring, "keyEncryptionSecret", "migration-check-secret");
+                    ReflectionTestUtils.setField(ring, "legacySecret", "migration-check-secret-of-hmac-length-32");
+                    ReflectionTestUtils.setField(ring, "signingKeyRepository", signingKeyRepository);
+                    ReflectionTestUtils.setField(ring, "transactionManager", transactionManager);
+                    start.await();
+                    ReflectionTestUtils.invokeMethod(ring, "init");
+                    return ring.signingKey().kid();
+                }));
+            }
+            start.countDown();
+            Set<String> distinct = new HashSet<>();
+            for (Future<String> kid : kids) {
+                distinct.add(kid.get(30, TimeUnit.SECONDS));
+            }
+            assertEquals(1, distinct.size());
+            assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM jwt_signing_keys", Integer.class));
+        } finally {
+            nodes.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package swd392.eventmanagement.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowWriterTest {
+
+    @Test
+    void csvQuotesOnlyWhatNeedsIt() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RowWriter writer = ExportFormat.CSV.open(out, "Attendees", "Name", "Email");
+        writer.row("Nguyễn Văn A", "a@fpt.edu.vn");
+        writer.row("Tran, B \"Bee\"", null);
+        writer.row("line\nbreak", "");
+        writer.finish();
+
+        assertEquals("\uFEFFName,Email\r\n"
+                + "Nguyễn Văn A,a@fpt.edu.vn\r\n"
+                + "\"Tran, B \"\"Bee\"\"\",\r\n"
+                + "\"line\nbreak\",\r\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void csvCellsNeverRunAsFormulas() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RowWriter writer = ExportFormat.CSV.open(out, "Attendees", "Name");
+        writer.row("=HYPERLINK(\"http://evil\")");
+        writer.row("-1");
+        writer.finish();
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals("\"'=HYPERLINK(\"\"http://evil\"\")\"", lines[1]);
+        assertEquals("\"'-1\"", lines[2]);
+    }
+
+    @Test
+    void xlsxIsAWorkbookWithEscapedInlineStrings() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RowWriter writer = ExportFormat.XLSX.open(out, "Attendees", "Name", "Checked in at");
+        writer.row("A & <B>", null);
+        writer.row("bell\u0007", "2025-05-01 08:00:00");
+        writer.finish();
+
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry entry; (entry = zip.getNextEntry()) != null; ) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        assertEquals(List.of("[Content_Types].xml", "_rels/.rels", "xl/workbook.xml",
+                "xl/_rels/workbook.xml.rels", "xl/worksheets/sheet1.xml"), List.copyOf(entries.keySet()));
+        assertTrue(entries.get("xl/workbook.xml").contains("<sheet name=\"Attendees\""));
+        String sheet = entries.get("xl/worksheets/sheet1.xml");
+        assertTrue(sheet.contains("<row><c t=\"inlineStr\"><is><t xml:space=\"preserve\">A &amp; &lt;B&gt;</t></is></c><c/></row>"),
+                sheet);
+        assertTrue(sheet.contains(">bell</t>"), sheet);
+        assertTrue(sheet.endsWith("</sheetData></worksheet>"), sheet);
+    }
+
+    @Test
+    void unknownFormatsAreRejected() {
+        assertEquals(ExportFormat.XLSX, ExportFormat.parse("XLSX"));
+        assertThrows(IllegalArgumentException.class, () -> ExportFormat.parse("pdf"));
+    }
+}
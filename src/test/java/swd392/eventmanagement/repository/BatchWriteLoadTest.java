@@ -0,0 +1,172 @@
+package swd392.eventmanagement.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import swd392.eventmanagement.model.entity.RefreshToken;
+import swd392.eventmanagement.model.entity.Role;
+import swd392.eventmanagement.model.entity.User;
+import swd392.eventmanagement.service.impl.RoleCache;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Inserts 100k users (with their user_roles rows) and 100k refresh tokens through
+ * {@link BatchWriteRepository}, once with JDBC batching forced off - what IDENTITY ids
+ * used to cost, one round trip per row - and once as configured. Needs a real Postgres;
+ * run with LOADTEST_DB_URL=jdbc:postgresql://localhost:5432/eventmanagement_load.
+ */
+@EnabledIfEnvironmentVariable(named = "LOADTEST_DB_URL", matches = ".+")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${LOADTEST_DB_URL}",
+        "spring.datasource.username=${LOADTEST_DB_USERNAME:postgres}",
+        "spring.datasource.password=${LOADTEST_DB_PASSWORD:root}",
+        "spring.security.oauth2.client.registration.google.client-id=load-test",
+        "spring.security.oauth2.client.registration.google.client-secret=load-test",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class BatchWriteLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(BatchWriteLoadTest.class);
+
+    private static final int ROWS = 100_000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private RoleCache roleCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void seedRoles() {
+        for (String role : List.of("ROLE_STUDENT", "ROLE_LECTURER", "ROLE_ADMIN")) {
+            jdbcTemplate.update("INSERT INTO roles (name) VALUES (?) ON CONFLICT (name) DO NOTHING", role);
+        }
+        roleCache.reload();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void batchedInsertsBeatRowByRow() {
+        Role role = roleCache.getRequired("ROLE_STUDENT");
+
+        // Warm up connections and JIT on both paths
+        run("warm-up", 2000, 1, role);
+        run("warm-up", 2000, 0, role);
+
+        Result rowByRow = run("row-by-row", ROWS, 1, role);
+        Result batched = run("batched", ROWS, 0, role);
+
+        for (Result result : List.of(rowByRow, batched)) {
+            logger.info("{}: {} users/s, {} tokens/s, {} statements", result.name,
+                    Math.round(result.usersPerSecond), Math.round(result.tokensPerSecond), result.statements);
+        }
+        // users, user_roles and refresh_tokens: one statement per row unbatched, one per batch batched
+        assertTrue(rowByRow.statements >= 3L * ROWS);
+        assertTrue(batched.statements * 10 < rowByRow.statements);
+    }
+
+    /**
+     * Inserts {@code rows} users and tokens and checks they all arrived. A
+     * {@code jdbcBatchSize} of 0 keeps hibernate.jdbc.batch_size.
+     */
+    private Result run(String name, int rows, int jdbcBatchSize, Role role) {
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        LocalDateTime now = LocalDateTime.now();
+        List<User> users = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            User user = new User();
+            user.setEmail("batch-" + runId + "-" + i + "@fpt.edu.vn");
+            user.setFullName("Batch Test");
+            user.setProviderUserId("batch-" + runId + "-" + i);
+            user.setRoles(Set.of(role));
+            users.add(user);
+        }
+
+        statistics.clear();
+        long start = System.nanoTime();
+        inTransaction(jdbcBatchSize, () -> userRepository.insertAll(users));
+        double usersPerSecond = rows / ((System.nanoTime() - start) / 1e9);
+
+        List<RefreshToken> tokens = new ArrayList<>(rows);
+        for (User user : users) {
+            byte[] hash = new byte[32];
+            ThreadLocalRandom.current().nextBytes(hash);
+            RefreshToken token = new RefreshToken();
+            token.setTokenHash(hash);
+            token.setFamilyId(UUID.randomUUID());
+            token.setExpiryDate(now.plusDays(7));
+            token.setUser(user);
+            tokens.add(token);
+        }
+        start = System.nanoTime();
+        inTransaction(jdbcBatchSize, () -> refreshTokenRepository.insertAll(tokens));
+        double tokensPerSecond = rows / ((System.nanoTime() - start) / 1e9);
+        long statements = statistics.getPrepareStatementCount();
+
+        String pattern = "batch-" + runId + "-%";
+        assertEquals(rows, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE provider_user_id LIKE ?", Integer.class, pattern));
+        assertEquals(rows, jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM user_roles ur JOIN users u ON u.id = ur.user_id
+                WHERE u.provider_user_id LIKE ?""", Integer.class, pattern));
+        assertEquals(rows, jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM refresh_tokens t JOIN users u ON u.id = t.user_id
+                WHERE u.provider_user_id LIKE ?""", Integer.class, pattern));
+
+        jdbcTemplate.update("DELETE FROM refresh_tokens WHERE user_id IN "
+                + "(SELECT id FROM users WHERE provider_user_id LIKE ?)", pattern);
+        jdbcTemplate.update("DELETE FROM user_roles WHERE user_id IN "
+                + "(SELECT id FROM users WHERE provider_user_id LIKE ?)", pattern);
+        jdbcTemplate.update("DELETE FROM users WHERE provider_user_id LIKE ?", pattern);
+        return new Result(name, usersPerSecond, tokensPerSecond, statements);
+    }
+
+    private void inTransaction(int jdbcBatchSize, Runnable work) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (jdbcBatchSize > 0) {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            }
+            work.run();
+        });
+    }
+
+    private record Result(String name, double usersPerSecond, double tokensPerSecond, long statements) {
+    }
+}
@@ -0,0 +1,139 @@
+package swd392.eventmanagement.repository;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import swd392.eventmanagement.model.dto.response.EventPageResponse;
+import swd392.eventmanagement.service.EventService;
+import swd392.eventmanagement.support.ScratchSchema;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Seeds 1M events into a scratch schema and times catalog pages 1 to 10,000 through
+ * {@link EventService#listEvents}, next to the same pages read with LIMIT/OFFSET.
+ * Keyset pages should cost the same at any depth. Needs a real Postgres; run with
+ * LOADTEST_DB_URL=jdbc:postgresql://localhost:5432/eventmanagement_load.
+ */
+@ScratchSchema("catalog_load")
+class EventCatalogLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(EventCatalogLoadTest.class);
+
+    private static final int EVENTS = 1_000_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int[] PAGES = {1, 10, 100, 1000, 10_000};
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private static final String OFFSET_SQL = """
+            SELECT id, title, category, location, organizer_id, starts_at, ends_at, capacity FROM events
+            WHERE starts_at >= ? ORDER BY starts_at, id LIMIT ? OFFSET ?
+            """;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void keysetPagesCostTheSameAtAnyDepth() {
+        seed();
+
+        // Walk to page 10,000 once to collect the cursor of every measured page
+        Map<Integer, String> cursors = new HashMap<>();
+        Set<Long> seen = new HashSet<>();
+        String cursor = null;
+        for (int page = 1; page <= PAGES[PAGES.length - 1]; page++) {
+            cursors.put(page, cursor);
+            EventPageResponse response = eventService.listEvents(BASE, null, null, null, cursor, PAGE_SIZE);
+            assertEquals(PAGE_SIZE, response.getItems().size());
+            response.getItems().forEach(item -> assertTrue(seen.add(item.getId()), "repeated " + item.getId()));
+            cursor = response.getNextCursor();
+        }
+
+        double[] keyset = new double[PAGES.length];
+        double[] offset = new double[PAGES.length];
+        for (int i = 0; i < PAGES.length; i++) {
+            String pageCursor = cursors.get(PAGES[i]);
+            keyset[i] = medianMillis(200, () -> eventService.listEvents(BASE, null, null, null, pageCursor, PAGE_SIZE));
+            int skip = (PAGES[i] - 1) * PAGE_SIZE;
+            offset[i] = medianMillis(20, () -> jdbcTemplate.queryForList(OFFSET_SQL, Timestamp.valueOf(BASE),
+                    PAGE_SIZE + 1, skip));
+            logger.info("page {}: keyset p50 {} us, offset p50 {} us", PAGES[i],
+                    Math.round(keyset[i] * 1000), Math.round(offset[i] * 1000));
+        }
+
+        double first = keyset[0];
+        double deepest = keyset[PAGES.length - 1];
+        assertTrue(deepest < first * 3 + 0.5, "keyset page 1: " + first + " ms, page 10,000: " + deepest + " ms");
+        assertTrue(offset[PAGES.length - 1] > deepest * 5, "offset page 10,000 is not slower than keyset");
+
+        // Filtered listings seek on their own index, deep pages included
+        String categoryCursor = null;
+        for (int page = 1; page < 1000; page++) {
+            categoryCursor = eventService.listEvents(BASE, null, null, "CAT3", categoryCursor, PAGE_SIZE).getNextCursor();
+        }
+        String deepCategoryCursor = categoryCursor;
+        double categoryFirst = medianMillis(200, () -> eventService.listEvents(BASE, null, null, "CAT3", null, PAGE_SIZE));
+        double categoryDeep = medianMillis(200,
+                () -> eventService.listEvents(BASE, null, null, "CAT3", deepCategoryCursor, PAGE_SIZE));
+        logger.info("category page 1: {} us, page 1000: {} us",
+                Math.round(categoryFirst * 1000), Math.round(categoryDeep * 1000));
+        assertTrue(categoryDeep < categoryFirst * 3 + 0.5);
+
+        assertIndexOnly("WHERE (starts_at, id) > (?, ?) ORDER BY starts_at, id", "idx_events_starts_at",
+                Timestamp.valueOf(BASE.plusDays(30)), 1L);
+        assertIndexOnly("WHERE category = ? AND (starts_at, id) > (?, ?) ORDER BY starts_at, id",
+                "idx_events_category_starts_at", "CAT3", Timestamp.valueOf(BASE.plusDays(30)), 1L);
+        assertIndexOnly("WHERE organizer_id = ? AND starts_at >= ? ORDER BY starts_at, id",
+                "idx_events_organizer_starts_at", jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class),
+                Timestamp.valueOf(BASE));
+    }
+
+    private void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO users (email, full_name, provider_user_id, role_version, created_at, updated_at)
+                SELECT 'organizer-' || g || '@gmail.com', 'Organizer ' || g, 'organizer-' || g, 0, now(), now()
+                FROM generate_series(1, 100) g
+                """);
+        long start = System.nanoTime();
+        jdbcTemplate.update("""
+                INSERT INTO events (title, category, location, organizer_id, starts_at, ends_at, capacity)
+                SELECT 'Event ' || g, 'CAT' || (g % 10), 'Hall ' || (g % 20),
+                       (SELECT MIN(id) FROM users) + (g % 100) * 50,
+                       ?::timestamp + (g / 3) * interval '1 minute',
+                       ?::timestamp + (g / 3) * interval '1 minute' + interval '2 hours', 100
+                FROM generate_series(1, ?) g
+                """, Timestamp.valueOf(BASE), Timestamp.valueOf(BASE), EVENTS);
+        // Index-only scans need the visibility map, which autovacuum would set later on
+        jdbcTemplate.execute("VACUUM ANALYZE events");
+        logger.info("seeded {} events in {} ms", EVENTS, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void assertIndexOnly(String where, String index, Object... args) {
+        String plan = String.join("\n", jdbcTemplate.queryForList("""
+                EXPLAIN SELECT id, title, category, location, organizer_id, starts_at, ends_at, capacity
+                FROM events\s""" + where + " LIMIT 21", String.class, args));
+        assertTrue(plan.contains("Index Only Scan using " + index), plan);
+    }
+
+    private static double medianMillis(int runs, Runnable page) {
+        for (int i = 0; i < 20; i++) {
+            page.run();
+        }
+        long[] nanos = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            page.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos[runs / 2] / 1e6;
+    }
+}
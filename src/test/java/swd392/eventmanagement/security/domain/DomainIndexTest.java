@@ -0,0 +1,49 @@
+package swd392.eventmanagement.security.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainIndexTest {
+    private final DomainIndex index = new DomainIndex(List.of(
+            DomainRule.parse("fpt.edu.vn", "ROLE_STUDENT"),
+            DomainRule.parse("gmail.com", "ROLE_LECTURER"),
+            DomainRule.parse("*.partner.edu", "ROLE_STUDENT"),
+            DomainRule.parse("staff.partner.edu", "ROLE_LECTURER")));
+
+    @Test
+    void matchesExactDomains() {
+        assertEquals("ROLE_STUDENT", index.lookup("se180062@fpt.edu.vn").roleName());
+        assertEquals("ROLE_LECTURER", index.lookup("someone@gmail.com").roleName());
+    }
+
+    @Test
+    void exactRulesDoNotCoverSubdomains() {
+        assertNull(index.lookup("someone@mail.fpt.edu.vn"));
+        assertNull(index.lookup("someone@notfpt.edu.vn"));
+        assertNull(index.lookup("someone@edu.vn"));
+    }
+
+    @Test
+    void wildcardRulesCoverDomainAndSubdomains() {
+        assertEquals("ROLE_STUDENT", index.lookup("a@partner.edu").roleName());
+        assertEquals("ROLE_STUDENT", index.lookup("a@cs.partner.edu").roleName());
+        assertEquals("ROLE_STUDENT", index.lookup("a@x.y.partner.edu").roleName());
+        assertNull(index.lookup("a@notpartner.edu"));
+    }
+
+    @Test
+    void mostSpecificRuleWins() {
+        assertEquals("ROLE_LECTURER", index.lookup("a@staff.partner.edu").roleName());
+    }
+
+    @Test
+    void ignoresCaseAndRejectsNonEmails() {
+        assertEquals("ROLE_STUDENT", index.lookup("SE180062@FPT.EDU.VN").roleName());
+        assertNull(index.lookup("fpt.edu.vn"));
+        assertNull(index.lookup("user@"));
+        assertNull(index.lookup(null));
+    }
+}
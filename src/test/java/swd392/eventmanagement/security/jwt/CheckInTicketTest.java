@@ -0,0 +1,155 @@
+package swd392.eventmanagement.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.PrematureJwtException;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import swd392.eventmanagement.model.entity.JwtSigningKey;
+import swd392.eventmanagement.repository.JwtSigningKeyRepository;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckInTicketTest {
+    private static final String SECRET = "ZpnrQXGVyPJGhXMYy6BUyaWSt2vAGxqzU4bTYJcKXQH8SwCdPLbcKD9fNzJP3H4V";
+    private static final long DAY_MS = 86400000L;
+
+    private final Map<String, JwtSigningKey> table = new LinkedHashMap<>();
+    private SigningKeyRing ring;
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setUp() {
+        ring = new SigningKeyRing();
+        ReflectionTestUtils.setField(ring, "algorithm", "ES256");
+        ReflectionTestUtils.setField(ring, "rotationIntervalMs", 7 * DAY_MS);
+        ReflectionTestUtils.setField(ring, "publishAheadMs", 15 * 60000L);
+        ReflectionTestUtils.setField(ring, "tokenLifetimeMs", DAY_MS);
+        ReflectionTestUtils.setField(ring, "ticketUploadGraceMs", DAY_MS);
+        ReflectionTestUtils.setField(ring, "keyEncryptionSecret", SECRET);
+        ReflectionTestUtils.setField(ring, "legacySecret", SECRET);
+        ReflectionTestUtils.setField(ring, "signingKeyRepository", repository());
+        ReflectionTestUtils.setField(ring, "transactionManager", transactionManager());
+        ReflectionTestUtils.invokeMethod(ring, "init");
+
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", (int) DAY_MS);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheSize", 100);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedTicketCacheSize", 100);
+        ReflectionTestUtils.setField(jwtUtils, "uploadGraceMs", DAY_MS);
+        ReflectionTestUtils.setField(jwtUtils, "maxClockSkewMs", 300000L);
+        ReflectionTestUtils.setField(jwtUtils, "signingKeyRing", ring);
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+    }
+
+    @Test
+    void ticketVerifiesOfflineAgainstThePublishedJwks() {
+        String ticket = jwtUtils.generateCheckInTicket(42L, 7L, "Nguyen Van A", inHours(2));
+        // Small enough for a low-density QR code
+        assertTrue(ticket.length() < 400, "ticket is " + ticket.length() + " characters");
+
+        // All a scanner has: the JWKS it downloaded before going offline
+        JwkSet jwks = Jwks.setParser().build().parse(new String(ring.jwksJson(), StandardCharsets.UTF_8));
+        Claims claims = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(ProtectedHeader header) {
+                        return jwks.getKeys().stream().filter(jwk -> jwk.getId().equals(header.getKeyId()))
+                                .map(Jwk::toKey).findFirst().orElseThrow();
+                    }
+                })
+                .requireAudience(JwtUtils.TICKET_AUDIENCE)
+                .build()
+                .parseSignedClaims(ticket)
+                .getPayload();
+        assertEquals("7", claims.getSubject());
+        assertEquals(42L, claims.get(JwtUtils.CLAIM_EVENT_ID, Long.class));
+        assertEquals("Nguyen Van A", claims.get(JwtUtils.CLAIM_FULL_NAME, String.class));
+    }
+
+    @Test
+    void serverAcceptsTicketsExpiredWithinTheUploadGrace() {
+        String expired = jwtUtils.generateCheckInTicket(42L, 7L, "A", inHours(-2));
+        assertEquals("7", jwtUtils.parseCheckInTicket(expired).getSubject());
+
+        String longExpired = jwtUtils.generateCheckInTicket(42L, 7L, "A", inHours(-25));
+        assertThrows(ExpiredJwtException.class, () -> jwtUtils.parseCheckInTicket(longExpired));
+    }
+
+    @Test
+    void accessTokensAreNotTickets() {
+        String accessToken = jwtUtils.generateAccessToken(7L, "a@fpt.edu.vn", "A", List.of("ROLE_STUDENT"), 0);
+        assertThrows(JwtException.class, () -> jwtUtils.parseCheckInTicket(accessToken));
+    }
+
+    @Test
+    void tamperedTicketsAreRejected() {
+        String ticket = jwtUtils.generateCheckInTicket(42L, 7L, "A", inHours(2));
+        String forged = jwtUtils.generateCheckInTicket(43L, 7L, "A", inHours(2));
+        // Payload of one ticket with the signature of another
+        String[] parts = ticket.split("\\.");
+        String[] forgedParts = forged.split("\\.");
+        assertThrows(JwtException.class,
+                () -> jwtUtils.parseCheckInTicket(parts[0] + "." + forgedParts[1] + "." + parts[2]));
+    }
+
+    @Test
+    void ticketsIssuedInTheFutureAreRejected() {
+        // The upload grace is the parser's clock skew, which must not stretch to iat
+        SigningKeyRing.SigningKey key = ring.signingKey();
+        String ticket = Jwts.builder()
+                .header().keyId(key.kid()).and()
+                .audience().add(JwtUtils.TICKET_AUDIENCE).and()
+                .subject("7")
+                .claim(JwtUtils.CLAIM_EVENT_ID, 42L)
+                .issuedAt(inHours(2))
+                .expiration(inHours(4))
+                .signWith(key.privateKey())
+                .compact();
+        assertThrows(PrematureJwtException.class, () -> jwtUtils.parseCheckInTicket(ticket));
+    }
+
+    private static Date inHours(int hours) {
+        return new Date(System.currentTimeMillis() + hours * 3600000L);
+    }
+
+    private JwtSigningKeyRepository repository() {
+        return (JwtSigningKeyRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {JwtSigningKeyRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findByExpiresAtAfterOrderByActivatesAtAsc" -> table.values().stream()
+                            .filter(key -> key.getExpiresAt().isAfter((LocalDateTime) args[0]))
+                            .sorted(Comparator.comparing(JwtSigningKey::getActivatesAt))
+                            .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+                    case "save" -> {
+                        JwtSigningKey key = (JwtSigningKey) args[0];
+                        table.put(key.getKid(), key);
+                        yield key;
+                    }
+                    case "retireBefore", "deleteExpired", "lockKeyCreation" -> 0;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    // Key creation runs in a transaction; the in-memory table needs none
+    private static PlatformTransactionManager transactionManager() {
+        return (PlatformTransactionManager) Proxy.newProxyInstance(PlatformTransactionManager.class.getClassLoader(),
+                new Class<?>[] {PlatformTransactionManager.class},
+                (proxy, method, args) -> "getTransaction".equals(method.getName()) ? new SimpleTransactionStatus() : null);
+    }
+}
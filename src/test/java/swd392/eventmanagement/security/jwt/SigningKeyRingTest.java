@@ -0,0 +1,212 @@
+package swd392.eventmanagement.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import swd392.eventmanagement.model.entity.JwtSigningKey;
+import swd392.eventmanagement.repository.JwtSigningKeyRepository;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SigningKeyRingTest {
+    private static final String SECRET = "ZpnrQXGVyPJGhXMYy6BUyaWSt2vAGxqzU4bTYJcKXQH8SwCdPLbcKD9fNzJP3H4V";
+    private static final long DAY_MS = 86400000L;
+
+    private final Map<String, JwtSigningKey> table = new LinkedHashMap<>();
+    private SigningKeyRing ring;
+
+    @BeforeEach
+    void setUp() {
+        ring = newRing();
+    }
+
+    @Test
+    void firstStartCreatesAnActiveKey() {
+        assertEquals(1, table.size());
+        String kid = ring.signingKey().kid();
+        assertNotNull(ring.verificationKey(kid));
+        assertTrue(new String(ring.jwksJson(), StandardCharsets.UTF_8).contains("\"kid\":\"" + kid + "\""));
+        // Private keys are never stored in the clear
+        assertFalse(Arrays.equals(ring.signingKey().privateKey().getEncoded(), table.get(kid).getPrivateKey()));
+    }
+
+    @Test
+    void tokensVerifyThroughTheKeyLocator() {
+        SigningKeyRing.SigningKey key = ring.signingKey();
+        String token = Jwts.builder().header().keyId(key.kid()).and()
+                .subject("a@fpt.edu.vn").signWith(key.privateKey()).compact();
+
+        Claims claims = parser().parseSignedClaims(token).getPayload();
+        assertEquals("a@fpt.edu.vn", claims.getSubject());
+    }
+
+    @Test
+    void successorIsPublishedBeforeItSigns() {
+        String current = ring.signingKey().kid();
+        JwtSigningKey stored = table.get(current);
+        // Pretend the current key is almost due for rotation
+        stored.setActivatesAt(stored.getActivatesAt().minusDays(7).plusMinutes(5));
+
+        ring.refresh();
+
+        assertEquals(2, table.size());
+        String successor = table.keySet().stream().filter(kid -> !kid.equals(current)).findFirst().orElseThrow();
+        assertEquals(current, ring.signingKey().kid());
+        assertNotNull(ring.verificationKey(successor));
+        assertTrue(table.get(successor).getActivatesAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void otherNodesPickUpTheSameKeys() {
+        SigningKeyRing other = newRing();
+        assertEquals(ring.signingKey().kid(), other.signingKey().kid());
+        assertEquals(ring.jwksEtag(), other.jwksEtag());
+    }
+
+    @Test
+    void acceptsLegacyHmacTokensAndRejectsUnknownKeys() {
+        String legacy = Jwts.builder().subject("old@fpt.edu.vn")
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8))).compact();
+        assertEquals("old@fpt.edu.vn", parser().parseSignedClaims(legacy).getPayload().getSubject());
+
+        String unknown = Jwts.builder().header().keyId("unknown").and().subject("x")
+                .signWith(Jwts.SIG.ES256.keyPair().build().getPrivate()).compact();
+        assertThrows(SecurityException.class, () -> parser().parseSignedClaims(unknown));
+    }
+
+    @Test
+    void legacyHmacTokensAreRejectedByDefaultAndAfterTheCutoff() {
+        String legacy = Jwts.builder().subject("old@fpt.edu.vn")
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8))).compact();
+
+        ring = newRing(false, "");
+        assertThrows(SecurityException.class, () -> parser().parseSignedClaims(legacy));
+        ring = newRing(true, Instant.now().minusSeconds(1).toString());
+        assertThrows(SecurityException.class, () -> parser().parseSignedClaims(legacy));
+
+        // A cutoff further out than one token lifetime is pulled in
+        ring = newRing(true, Instant.now().plusSeconds(30 * 86400).toString());
+        long deadline = (long) ReflectionTestUtils.getField(ring, "legacyHmacDeadline");
+        assertTrue(deadline <= System.currentTimeMillis() + DAY_MS);
+        assertThrows(IllegalStateException.class, () -> newRing(true, ""));
+    }
+
+    @Test
+    void unknownKeyIdReloadsTheRingOnceBeforeRejecting() {
+        // Another node starts on an empty table and signs with a key this node has not loaded
+        String known = ring.signingKey().kid();
+        table.clear();
+        SigningKeyRing other = newRing();
+        SigningKeyRing.SigningKey key = other.signingKey();
+        assertNotEquals(known, key.kid());
+        String token = Jwts.builder().header().keyId(key.kid()).and()
+                .subject("a@fpt.edu.vn").signWith(key.privateKey()).compact();
+
+        assertEquals("a@fpt.edu.vn", parser().parseSignedClaims(token).getPayload().getSubject());
+
+        // Within the rate limit a further unknown kid is rejected without another reload
+        table.clear();
+        SigningKeyRing third = newRing();
+        String next = Jwts.builder().header().keyId(third.signingKey().kid()).and()
+                .subject("x").signWith(third.signingKey().privateKey()).compact();
+        assertThrows(SecurityException.class, () -> parser().parseSignedClaims(next));
+    }
+
+    @Test
+    void unknownKeyIdDoesNotWaitForARunningRefresh() throws Exception {
+        table.clear();
+        SigningKeyRing other = newRing();
+        String token = Jwts.builder().header().keyId(other.signingKey().kid()).and()
+                .subject("a@fpt.edu.vn").signWith(other.signingKey().privateKey()).compact();
+
+        // A scheduled refresh stuck on the database holds the lock
+        ReentrantLock refreshLock = (ReentrantLock) ReflectionTestUtils.getField(ring, "refreshLock");
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread refresher = new Thread(() -> {
+            refreshLock.lock();
+            try {
+                held.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                refreshLock.unlock();
+            }
+        });
+        refresher.start();
+        held.await();
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(1),
+                    () -> assertThrows(SecurityException.class, () -> parser().parseSignedClaims(token)));
+        } finally {
+            release.countDown();
+            refresher.join();
+        }
+    }
+
+    private JwtParser parser() {
+        return Jwts.parser().keyLocator(ring.keyLocator()).build();
+    }
+
+    private SigningKeyRing newRing() {
+        return newRing(true, Instant.now().plusSeconds(3600).toString());
+    }
+
+    private SigningKeyRing newRing(boolean acceptLegacyHmac, String legacyHmacUntil) {
+        SigningKeyRing keyRing = new SigningKeyRing();
+        ReflectionTestUtils.setField(keyRing, "algorithm", "ES256");
+        ReflectionTestUtils.setField(keyRing, "rotationIntervalMs", 7 * DAY_MS);
+        ReflectionTestUtils.setField(keyRing, "publishAheadMs", 15 * 60000L);
+        ReflectionTestUtils.setField(keyRing, "tokenLifetimeMs", DAY_MS);
+        ReflectionTestUtils.setField(keyRing, "keyEncryptionSecret", SECRET);
+        ReflectionTestUtils.setField(keyRing, "acceptLegacyHmac", acceptLegacyHmac);
+        ReflectionTestUtils.setField(keyRing, "legacyHmacUntil", legacyHmacUntil);
+        ReflectionTestUtils.setField(keyRing, "legacySecret", SECRET);
+        ReflectionTestUtils.setField(keyRing, "unknownKidRefreshMs", 60000L);
+        ReflectionTestUtils.setField(keyRing, "signingKeyRepository", repository());
+        ReflectionTestUtils.setField(keyRing, "transactionManager", transactionManager());
+        ReflectionTestUtils.invokeMethod(keyRing, "init");
+        return keyRing;
+    }
+
+    private JwtSigningKeyRepository repository() {
+        return (JwtSigningKeyRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {JwtSigningKeyRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findByExpiresAtAfterOrderByActivatesAtAsc" -> table.values().stream()
+                            .filter(key -> key.getExpiresAt().isAfter((LocalDateTime) args[0]))
+                            .sorted(Comparator.comparing(JwtSigningKey::getActivatesAt))
+                            .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+                    case "save" -> {
+                        JwtSigningKey key = (JwtSigningKey) args[0];
+                        table.put(key.getKid(), key);
+                        yield key;
+                    }
+                    case "retireBefore", "deleteExpired", "lockKeyCreation" -> 0;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    // Key creation runs in a transaction; the in-memory table needs none
+    private static PlatformTransactionManager transactionManager() {
+        return (PlatformTransactionManager) Proxy.newProxyInstance(PlatformTransactionManager.class.getClassLoader(),
+                new Class<?>[] {PlatformTransactionManager.class},
+                (proxy, method, args) -> "getTransaction".equals(method.getName()) ? new SimpleTransactionStatus() : null);
+    }
+}
@@ -0,0 +1,46 @@
+package swd392.eventmanagement.security.jwt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenIdBloomFilterTest {
+
+    @Test
+    void neverMissesAnAddedId() {
+        TokenIdBloomFilter filter = new TokenIdBloomFilter(10000, 0.01);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            String id = UUID.randomUUID().toString();
+            ids.add(id);
+            filter.add(id);
+        }
+        ids.forEach(id -> assertTrue(filter.mightContain(id)));
+    }
+
+    @Test
+    void keepsFalsePositivesNearTheConfiguredRate() {
+        TokenIdBloomFilter filter = new TokenIdBloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.add(UUID.randomUUID().toString());
+        }
+        int falsePositives = 0;
+        int probes = 100000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < probes * 0.02, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        TokenIdBloomFilter filter = new TokenIdBloomFilter(100, 0.01);
+        assertFalse(filter.mightContain(UUID.randomUUID().toString()));
+    }
+}
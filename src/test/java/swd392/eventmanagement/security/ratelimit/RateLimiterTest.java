@@ -0,0 +1,72 @@
+package swd392.eventmanagement.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsBurstThenRefillsAtTheConfiguredRate() {
+        RateLimiter limiter = new RateLimiter("test", 60, 5, 100);
+        long now = 1_000 * SECOND;
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("a", now));
+        }
+        long wait = limiter.tryAcquire("a", now);
+        assertTrue(wait > 0 && wait <= SECOND, "wait was " + wait);
+
+        assertEquals(0, limiter.tryAcquire("a", now + wait));
+        assertTrue(limiter.tryAcquire("a", now + wait) > 0);
+        // Other clients are unaffected
+        assertEquals(0, limiter.tryAcquire("b", now));
+    }
+
+    @Test
+    void evictsOnlyFullyRefilledBuckets() {
+        RateLimiter limiter = new RateLimiter("test", 60, 5, 100);
+        long now = 1_000 * SECOND;
+        limiter.tryAcquire("idle", now);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("busy", now + 30 * SECOND);
+        }
+
+        assertEquals(1, limiter.evictIdle(now + 31 * SECOND));
+        assertEquals(1, limiter.size());
+        // The busy client keeps its state: one refilled permit, then limited again
+        assertEquals(0, limiter.tryAcquire("busy", now + 31 * SECOND));
+        assertTrue(limiter.tryAcquire("busy", now + 31 * SECOND) > 0);
+    }
+
+    @Test
+    void sharesAnOverflowBucketOnceFull() {
+        RateLimiter limiter = new RateLimiter("test", 60, 1, 2);
+        long now = 1_000 * SECOND;
+        assertEquals(0, limiter.tryAcquire("a", now));
+        assertEquals(0, limiter.tryAcquire("b", now));
+
+        assertEquals(0, limiter.tryAcquire("c", now));
+        assertTrue(limiter.tryAcquire("d", now) > 0);
+        assertEquals(3, limiter.size());
+    }
+
+    @Test
+    void unseenKeysWaitForTheScheduledEviction() {
+        RateLimiter limiter = new RateLimiter("test", 60, 1, 2);
+        long now = 1_000 * SECOND;
+        limiter.tryAcquire("a", now);
+        limiter.tryAcquire("b", now);
+
+        // Both buckets have refilled, but a request does not evict them itself
+        assertEquals(0, limiter.tryAcquire("c", now + 2 * SECOND));
+        assertEquals(3, limiter.size());
+
+        assertEquals(3, limiter.evictIdle(now + 4 * SECOND));
+        assertEquals(0, limiter.tryAcquire("c", now + 4 * SECOND));
+        assertEquals(0, limiter.tryAcquire("d", now + 4 * SECOND));
+        assertEquals(2, limiter.size());
+    }
+}
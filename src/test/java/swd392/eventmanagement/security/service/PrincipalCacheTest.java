@@ -0,0 +1,75 @@
+package swd392.eventmanagement.security.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import swd392.eventmanagement.model.entity.User;
+import swd392.eventmanagement.repository.UserRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrincipalCacheTest {
+    private final AtomicInteger reads = new AtomicInteger();
+
+    @Test
+    void readsThroughWhenDisabled() {
+        PrincipalCache cache = cache(0);
+        cache.getUser(1L);
+        cache.getUser(1L);
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    void aRisingRoleVersionEvictsTheCachedUser() {
+        PrincipalCache cache = cache(60000);
+        RoleEpochRegistry roleEpochRegistry = new RoleEpochRegistry();
+        ReflectionTestUtils.setField(roleEpochRegistry, "principalCache", cache);
+
+        assertTrue(cache.getUser(1L).isPresent());
+        cache.getUser(1L);
+        assertEquals(1, reads.get());
+
+        // The periodic reload re-applies versions it already holds; those keep the entry
+        roleEpochRegistry.apply(1L, 1);
+        cache.getUser(1L);
+        assertEquals(2, reads.get());
+        roleEpochRegistry.apply(1L, 1);
+        cache.getUser(1L);
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    void missingUsersAreNotCached() {
+        PrincipalCache cache = cache(60000);
+        assertTrue(cache.getUser(404L).isEmpty());
+        assertTrue(cache.getUser(404L).isEmpty());
+        assertEquals(2, reads.get());
+    }
+
+    private PrincipalCache cache(long ttlMs) {
+        PrincipalCache cache = new PrincipalCache();
+        ReflectionTestUtils.setField(cache, "ttlMs", ttlMs);
+        ReflectionTestUtils.setField(cache, "maxSize", 100);
+        ReflectionTestUtils.setField(cache, "userRepository", userRepository());
+        return cache;
+    }
+
+    private UserRepository userRepository() {
+        return (UserRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {UserRepository.class}, (proxy, method, args) -> {
+                    if (!"findById".equals(method.getName())) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    reads.incrementAndGet();
+                    if (args[0].equals(404L)) {
+                        return Optional.empty();
+                    }
+                    User user = new User();
+                    user.setId((Long) args[0]);
+                    return Optional.of(user);
+                });
+    }
+}
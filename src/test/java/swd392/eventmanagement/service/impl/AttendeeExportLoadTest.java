@@ -0,0 +1,228 @@
+package swd392.eventmanagement.service.impl;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import swd392.eventmanagement.exception.RateLimitExceededException;
+import swd392.eventmanagement.exception.ResourceNotFoundException;
+import swd392.eventmanagement.export.ExportFormat;
+import swd392.eventmanagement.service.AttendeeExportService;
+import swd392.eventmanagement.support.ScratchSchema;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exports a 1,000,000-attendee event and samples the heap while it streams: it has to
+ * stay flat, where loading the rows first would take hundreds of megabytes. Also checks
+ * that a client going away mid-export frees the connection and the cursor. Needs a real
+ * Postgres; run with LOADTEST_DB_URL=jdbc:postgresql://localhost:5432/eventmanagement_load.
+ */
+@ScratchSchema("export_load")
+class AttendeeExportLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(AttendeeExportLoadTest.class);
+
+    private static final int ATTENDEES = 1_000_000;
+    private static final long MAX_HEAP_GROWTH = 32L * 1024 * 1024;
+
+    @Autowired
+    private AttendeeExportService attendeeExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void exportsAMillionAttendeesInConstantMemory() throws Exception {
+        long start = System.nanoTime();
+        long[] event = seed(ATTENDEES);
+        long eventId = event[0];
+        long organizerId = event[1];
+        logger.info("seeded {} attendees in {} ms", ATTENDEES, (System.nanoTime() - start) / 1_000_000);
+
+        long baseline = usedHeapAfterGc();
+        HeapSamplingSink sink = new HeapSamplingSink();
+        start = System.nanoTime();
+        long rows;
+        try (AttendeeExportService.Export export = attendeeExportService.open(eventId, organizerId, false, ExportFormat.CSV)) {
+            rows = export.writeTo(new GZIPOutputStream(sink, 8192));
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        logger.info("exported {} rows in {} ms ({} rows/s), {} KB gzipped; live heap {} MB before, at most {} MB during ({} samples)",
+                rows, Math.round(seconds * 1000), Math.round(rows / seconds), sink.bytes / 1024,
+                baseline >> 20, sink.peak >> 20, sink.samples);
+
+        assertEquals(ATTENDEES, rows);
+        assertTrue(sink.closed);
+        assertTrue(sink.samples >= 10, "samples: " + sink.samples);
+        assertTrue(sink.peak - baseline < MAX_HEAP_GROWTH, "heap grew by " + (sink.peak - baseline) + " bytes");
+    }
+
+    @Test
+    void clientGoingAwayEndsTheExport() throws Exception {
+        long[] event = seed(200_000);
+        long written;
+        try (AttendeeExportService.Export export = attendeeExportService.open(event[0], event[1], false, ExportFormat.CSV)) {
+            written = export.writeTo(new DisconnectingSink(256 * 1024));
+        }
+        assertTrue(written > 0 && written < 200_000, "rows written: " + written);
+
+        // The connection is back in the pool and its transaction, and with it the cursor, is gone
+        assertEquals(0, dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean().getActiveConnections());
+        assertEquals(0, jdbcTemplate.queryForObject("""
+                SELECT count(*) FROM pg_stat_activity
+                WHERE datname = current_database() AND backend_type = 'client backend'
+                  AND pid <> pg_backend_pid() AND state <> 'idle'
+                """, Integer.class));
+
+        // Every slot was given back: as many exports as allowed can run, one more cannot
+        List<AttendeeExportService.Export> running = new ArrayList<>();
+        try {
+            for (int i = 0; i < 4; i++) {
+                running.add(attendeeExportService.open(event[0], event[1], false, ExportFormat.CSV));
+            }
+            assertThrows(RateLimitExceededException.class,
+                    () -> attendeeExportService.open(event[0], event[1], false, ExportFormat.CSV));
+        } finally {
+            running.forEach(AttendeeExportService.Export::close);
+        }
+    }
+
+    @Test
+    void exportsNamesRolesAndCheckInTimes() {
+        long[] event = seed(3);
+        long eventId = event[0];
+        assertThrows(AccessDeniedException.class,
+                () -> attendeeExportService.open(eventId, event[1] + 1, false, ExportFormat.CSV));
+        assertThrows(ResourceNotFoundException.class,
+                () -> attendeeExportService.open(-1L, event[1], true, ExportFormat.CSV));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (AttendeeExportService.Export export = attendeeExportService.open(eventId, event[1] + 1, true, ExportFormat.CSV)) {
+            assertEquals(3, export.writeTo(out));
+        }
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals("\uFEFFName,Email,Roles,Checked in at", lines[0]);
+        // Every third attendee checked in, starting with the first
+        assertTrue(lines[1].matches("Attendee 1,export-\\w+-1@fpt\\.edu\\.vn,STUDENT,2025-05-01 08:00:00"), lines[1]);
+        assertTrue(lines[2].matches("Attendee 2,export-\\w+-2@fpt\\.edu\\.vn,STUDENT,"), lines[2]);
+    }
+
+    /**
+     * Seeds an event with the given number of confirmed attendees and returns its id and
+     * its organizer's id.
+     */
+    private long[] seed(int attendees) {
+        String prefix = "export-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        jdbcTemplate.update("""
+                INSERT INTO users (email, full_name, provider_user_id, role_version, created_at, updated_at)
+                SELECT ? || g || '@fpt.edu.vn', 'Attendee ' || g, ? || g, 0, now(), now()
+                FROM generate_series(1, ?) g
+                """, prefix, prefix, attendees);
+        jdbcTemplate.update("""
+                INSERT INTO user_roles (user_id, role_id)
+                SELECT u.id, r.id FROM users u, roles r WHERE u.provider_user_id LIKE ? AND r.name = 'ROLE_STUDENT'
+                """, prefix + "%");
+        Long organizerId = jdbcTemplate.queryForObject("""
+                INSERT INTO users (email, full_name, provider_user_id, role_version, created_at, updated_at)
+                VALUES (? || 'organizer@fpt.edu.vn', 'Organizer', ? || 'organizer', 0, now(), now()) RETURNING id
+                """, Long.class, prefix, prefix);
+        LocalDateTime startsAt = LocalDateTime.of(2025, 5, 1, 8, 0);
+        Long eventId = jdbcTemplate.queryForObject("""
+                INSERT INTO events (title, category, organizer_id, starts_at, ends_at, capacity, allocated)
+                VALUES ('Graduation', 'CEREMONY', ?, ?, ?, ?, ?) RETURNING id
+                """, Long.class, organizerId, Timestamp.valueOf(startsAt), Timestamp.valueOf(startsAt.plusHours(3)),
+                attendees, attendees);
+        jdbcTemplate.update("""
+                INSERT INTO registrations (event_id, user_id, status, registered_at)
+                SELECT ?, id, 'CONFIRMED', now() FROM users WHERE provider_user_id ~ ?
+                """, eventId, "^" + prefix + "[0-9]+$");
+        jdbcTemplate.update("""
+                INSERT INTO attendances (event_id, user_id, checked_in_at, scanner_id)
+                SELECT ?, id, ?, 'gate-1' FROM users
+                WHERE provider_user_id ~ ? AND substr(provider_user_id, ?)::int % 3 = 1
+                """, eventId, Timestamp.valueOf(startsAt), "^" + prefix + "[0-9]+$", prefix.length() + 1);
+        jdbcTemplate.execute("ANALYZE");
+        return new long[] {eventId, organizerId};
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Discards the export, measuring the live heap after every 256 KB.
+     */
+    private static final class HeapSamplingSink extends OutputStream {
+        private static final long SAMPLE_EVERY = 256 * 1024;
+
+        private long bytes;
+        private long nextSample = SAMPLE_EVERY;
+        private long peak;
+        private int samples;
+        private boolean closed;
+
+        @Override
+        public void write(int b) {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            if (bytes >= nextSample) {
+                nextSample += SAMPLE_EVERY;
+                samples++;
+                peak = Math.max(peak, usedHeapAfterGc());
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    /**
+     * A client that hangs up after reading the given number of bytes.
+     */
+    private static final class DisconnectingSink extends OutputStream {
+        private long remaining;
+
+        DisconnectingSink(long bytes) {
+            this.remaining = bytes;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            remaining -= len;
+            if (remaining < 0) {
+                throw new IOException("Broken pipe");
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package swd392.eventmanagement.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import swd392.eventmanagement.model.dto.request.ScanBatchRequest;
+import swd392.eventmanagement.model.dto.request.ScanRequest;
+import swd392.eventmanagement.model.dto.response.ScanBatchResponse;
+import swd392.eventmanagement.model.dto.response.ScanRejection;
+import swd392.eventmanagement.security.jwt.JwtUtils;
+import swd392.eventmanagement.service.CheckInService;
+import swd392.eventmanagement.support.ScratchSchema;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Doors-open at a 20,000-seat event: eight gate scanners upload batches of scans in
+ * parallel, with attendees scanned at more than one gate and batches uploaded twice.
+ * Checks the ingestion rate, that everyone is checked in once at their earliest scan,
+ * and that a node which forgot its in-memory state still spots the duplicates. Needs a
+ * real Postgres; run with LOADTEST_DB_URL=jdbc:postgresql://localhost:5432/eventmanagement_load.
+ */
+@ScratchSchema("checkin_load")
+class CheckInScanLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(CheckInScanLoadTest.class);
+
+    private static final int ATTENDEES = 20_000;
+    private static final int SCANNERS = 8;
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private CheckInService checkInService;
+
+    @Autowired
+    private CheckInDeduplicator deduplicator;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void ingestsDoorsOpenScansIdempotently() throws Exception {
+        long eventId = seed();
+        long otherEventId = seed();
+        List<Long> attendees = jdbcTemplate.queryForList(
+                "SELECT user_id FROM registrations WHERE event_id = ? ORDER BY user_id", Long.class, eventId);
+
+        long start = System.nanoTime();
+        Map<Long, String> tickets = new ConcurrentHashMap<>();
+        parallel(attendees, userId -> tickets.put(userId, checkInService.issueTicket(eventId, userId).getTicket()));
+        logger.info("issued {} tickets in {} ms", ATTENDEES, (System.nanoTime() - start) / 1_000_000);
+        // A ticket is no access token
+        assertNull(jwtUtils.validateAndGetClaims(tickets.get(attendees.get(0))));
+
+        // Everyone once, every third attendee again at another gate, up to five minutes apart.
+        // Scans can only follow the tickets' issue, give or take the clock skew allowed.
+        LocalDateTime doorsOpen = LocalDateTime.now().minusMinutes(2).truncatedTo(ChronoUnit.SECONDS);
+        Random random = new Random(11);
+        List<ScanRequest> scans = new ArrayList<>();
+        Map<Long, LocalDateTime> earliest = new HashMap<>();
+        for (int i = 0; i < attendees.size(); i++) {
+            Long userId = attendees.get(i);
+            for (int s = 0; s < (i % 3 == 0 ? 2 : 1); s++) {
+                LocalDateTime at = doorsOpen.plusSeconds(random.nextInt(300));
+                scans.add(scan(tickets.get(userId), at));
+                earliest.merge(userId, at, (a, b) -> a.isBefore(b) ? a : b);
+            }
+        }
+        Collections.shuffle(scans, random);
+        List<ScanBatchRequest> batches = new ArrayList<>();
+        for (int i = 0; i < scans.size(); i += BATCH_SIZE) {
+            batches.add(batch("gate-" + (batches.size() % SCANNERS), scans.subList(i, Math.min(i + BATCH_SIZE, scans.size()))));
+        }
+        // Every fifth batch uploaded again, as a scanner does when the answer got lost
+        List<ScanBatchRequest> uploads = new ArrayList<>(batches);
+        for (int i = 0; i < batches.size(); i += 5) {
+            uploads.add(batches.get(i));
+        }
+        int scanCount = uploads.stream().mapToInt(b -> b.getScans().size()).sum();
+
+        AtomicInteger checkedIn = new AtomicInteger();
+        AtomicInteger duplicates = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        start = System.nanoTime();
+        ExecutorService scanners = Executors.newFixedThreadPool(SCANNERS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (ScanBatchRequest upload : uploads) {
+                futures.add(scanners.submit(() -> {
+                    ScanBatchResponse response = checkInService.ingestScans(eventId, upload);
+                    checkedIn.addAndGet(response.getCheckedIn());
+                    duplicates.addAndGet(response.getDuplicates());
+                    rejected.addAndGet(response.getRejected().size());
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            scanners.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double perMinute = scanCount / seconds * 60;
+        logger.info("ingested {} scans in {} ms: {} scans/min, {} checked in, {} duplicates",
+                scanCount, Math.round(seconds * 1000), Math.round(perMinute), checkedIn.get(), duplicates.get());
+
+        assertEquals(0, rejected.get());
+        assertEquals(ATTENDEES, checkedIn.get());
+        assertEquals(scanCount, checkedIn.get() + duplicates.get());
+        assertTrue(perMinute >= 30_000, "scans/min: " + perMinute);
+
+        // One attendance row per attendee, at their earliest scan
+        Map<Long, LocalDateTime> recorded = new HashMap<>();
+        jdbcTemplate.query("SELECT user_id, checked_in_at FROM attendances WHERE event_id = ?",
+                rs -> {
+                    recorded.put(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime());
+                }, eventId);
+        assertEquals(earliest, recorded);
+
+        // A node without the in-memory state reloads it and still sees the duplicates
+        ReflectionTestUtils.setField(deduplicator, "idleMs", 0L);
+        deduplicator.evictIdle();
+        ReflectionTestUtils.setField(deduplicator, "idleMs", 21_600_000L);
+        ScanBatchResponse again = checkInService.ingestScans(eventId, batches.get(0));
+        assertEquals(0, again.getCheckedIn());
+        assertEquals(batches.get(0).getScans().size(), again.getDuplicates());
+
+        // An earlier scan uploaded late still moves the check-in time back
+        Long late = attendees.get(1);
+        LocalDateTime beforeDoors = doorsOpen.minusMinutes(1);
+        checkInService.ingestScans(eventId, batch("gate-late", List.of(scan(tickets.get(late), beforeDoors))));
+        assertEquals(beforeDoors, jdbcTemplate.queryForObject(
+                "SELECT checked_in_at FROM attendances WHERE event_id = ? AND user_id = ?",
+                Timestamp.class, eventId, late).toLocalDateTime());
+
+        String ticket = tickets.get(attendees.get(2));
+        String otherTicket = checkInService.issueTicket(otherEventId, jdbcTemplate.queryForObject(
+                "SELECT MIN(user_id) FROM registrations WHERE event_id = ?", Long.class, otherEventId)).getTicket();
+        String tampered = ticket.substring(0, ticket.length() - 4) + (ticket.endsWith("AAAA") ? "BBBB" : "AAAA");
+        Long cancelled = attendees.get(3);
+        jdbcTemplate.update("UPDATE registrations SET status = 'CANCELLED' WHERE event_id = ? AND user_id = ?",
+                eventId, cancelled);
+        ScanBatchResponse bad = checkInService.ingestScans(eventId, batch("gate-bad", List.of(
+                scan(otherTicket, doorsOpen),
+                scan(tampered, doorsOpen),
+                scan("not-a-ticket", doorsOpen),
+                scan(ticket, LocalDateTime.now().plusHours(1)),
+                scan(tickets.get(cancelled), doorsOpen.minusMinutes(2)),
+                // A scanner whose clock was reset
+                scan(ticket, LocalDateTime.of(1970, 1, 1, 0, 0)))));
+        assertEquals(List.of("WRONG_EVENT", "INVALID", "INVALID", "SCANNED_IN_FUTURE", "NOT_REGISTERED",
+                        "SCANNED_TOO_EARLY"),
+                bad.getRejected().stream().map(ScanRejection::getReason).toList());
+        assertEquals(0, bad.getCheckedIn());
+        // Neither moved anybody's check-in time
+        assertEquals(earliest.get(cancelled), jdbcTemplate.queryForObject(
+                "SELECT checked_in_at FROM attendances WHERE event_id = ? AND user_id = ?",
+                Timestamp.class, eventId, cancelled).toLocalDateTime());
+        assertEquals(earliest.get(attendees.get(2)), jdbcTemplate.queryForObject(
+                "SELECT checked_in_at FROM attendances WHERE event_id = ? AND user_id = ?",
+                Timestamp.class, eventId, attendees.get(2)).toLocalDateTime());
+    }
+
+    private long seed() {
+        String prefix = "checkin-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        List<Long> users = jdbcTemplate.queryForList("""
+                INSERT INTO users (email, full_name, provider_user_id, role_version, created_at, updated_at)
+                SELECT ? || g || '@fpt.edu.vn', 'Attendee ' || g, ? || g, 0, now(), now()
+                FROM generate_series(1, ?) g
+                RETURNING id
+                """, Long.class, prefix, prefix, ATTENDEES);
+        LocalDateTime startsAt = LocalDateTime.now().minusHours(1);
+        Long eventId = jdbcTemplate.queryForObject("""
+                INSERT INTO events (title, category, organizer_id, starts_at, ends_at, capacity, allocated)
+                VALUES ('Doors open', 'CONFERENCE', ?, ?, ?, ?, ?) RETURNING id
+                """, Long.class, users.get(0), Timestamp.valueOf(startsAt), Timestamp.valueOf(startsAt.plusHours(4)),
+                ATTENDEES, ATTENDEES);
+        jdbcTemplate.update("""
+                INSERT INTO registrations (event_id, user_id, status, registered_at)
+                SELECT ?, id, 'CONFIRMED', now() FROM users WHERE provider_user_id LIKE ?
+                """, eventId, prefix + "%");
+        return eventId;
+    }
+
+    private static ScanRequest scan(String ticket, LocalDateTime scannedAt) {
+        ScanRequest scan = new ScanRequest();
+        scan.setTicket(ticket);
+        scan.setScannedAt(scannedAt);
+        return scan;
+    }
+
+    private static ScanBatchRequest batch(String scannerId, List<ScanRequest> scans) {
+        ScanBatchRequest batch = new ScanBatchRequest();
+        batch.setScannerId(scannerId);
+        batch.setScans(new ArrayList<>(scans));
+        return batch;
+    }
+
+    private static void parallel(List<Long> userIds, java.util.function.Consumer<Long> action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<>(userIds.size());
+            for (Long userId : userIds) {
+                futures.add(executor.submit(() -> action.accept(userId)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
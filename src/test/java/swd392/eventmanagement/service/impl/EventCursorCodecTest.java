@@ -0,0 +1,36 @@
+package swd392.eventmanagement.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventCursorCodecTest {
+
+    @Test
+    void roundTripsTheKeyToTheMicrosecond() {
+        LocalDateTime startsAt = LocalDateTime.of(2031, 5, 17, 9, 30, 15, 123_456_000);
+        EventCursorCodec.Cursor cursor = EventCursorCodec.decode(EventCursorCodec.encode(startsAt, 4242L));
+        assertEquals(startsAt, cursor.startsAt());
+        assertEquals(4242L, cursor.id());
+    }
+
+    @Test
+    void rejectsTamperedOrForeignCursors() {
+        assertThrows(IllegalArgumentException.class, () -> EventCursorCodec.decode("not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> EventCursorCodec.decode("AAAA"));
+        String cursor = EventCursorCodec.encode(LocalDateTime.of(2031, 1, 1, 0, 0), 1L);
+        assertThrows(IllegalArgumentException.class, () -> EventCursorCodec.decode("B" + cursor.substring(1)));
+    }
+
+    @Test
+    void rejectsCursorsWithAnOutOfRangeTimestamp() {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + Long.BYTES + Long.BYTES);
+        buffer.put((byte) 1).putLong(Long.MAX_VALUE).putLong(1L);
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+        assertThrows(IllegalArgumentException.class, () -> EventCursorCodec.decode(cursor));
+    }
+}
@@ -0,0 +1,90 @@
+package swd392.eventmanagement.service.impl;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken.Payload;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.json.webtoken.JsonWebSignature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import swd392.eventmanagement.security.google.GoogleKeySet;
+import swd392.eventmanagement.security.google.GoogleKeySource;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GoogleTokenVerifierServiceImplTest {
+    private static final String CLIENT_ID = "test-client-id";
+
+    private final JsonFactory jsonFactory = GsonFactory.getDefaultInstance();
+    private final AtomicInteger fetches = new AtomicInteger();
+    private KeyPair keyPair;
+    private GoogleTokenVerifierServiceImpl verifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+
+        verifier = new GoogleTokenVerifierServiceImpl();
+        ReflectionTestUtils.setField(verifier, "clientId", CLIENT_ID);
+        ReflectionTestUtils.setField(verifier, "refreshAheadMs", 300000L);
+        ReflectionTestUtils.setField(verifier, "unknownKeyRefreshIntervalMs", 60000L);
+        ReflectionTestUtils.setField(verifier, "jsonFactory", jsonFactory);
+        ReflectionTestUtils.setField(verifier, "keySource", (GoogleKeySource) () -> {
+            fetches.incrementAndGet();
+            return new GoogleKeySet(List.of(keyPair.getPublic()), System.currentTimeMillis() + 3600000);
+        });
+        ReflectionTestUtils.invokeMethod(verifier, "init");
+        verifier.warmUp();
+    }
+
+    @Test
+    void verifiesTokensLocallyAfterWarmUp() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            Payload payload = verifier.verifyGoogleIdToken(signedToken(CLIENT_ID));
+            assertNotNull(payload);
+            assertEquals("student@fpt.edu.vn", payload.getEmail());
+        }
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    void rejectsTokenForAnotherAudience() throws Exception {
+        assertNull(verifier.verifyGoogleIdToken(signedToken("someone-else")));
+    }
+
+    @Test
+    void rejectsTokenSignedByUnknownKey() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        String token = signedToken(CLIENT_ID, generator.generateKeyPair());
+
+        assertNull(verifier.verifyGoogleIdToken(token));
+        // one forced refresh for the unknown key, then rate limited
+        assertNull(verifier.verifyGoogleIdToken(token));
+        assertEquals(2, fetches.get());
+    }
+
+    private String signedToken(String audience) throws Exception {
+        return signedToken(audience, keyPair);
+    }
+
+    private String signedToken(String audience, KeyPair signingKeys) throws Exception {
+        long now = System.currentTimeMillis() / 1000;
+        JsonWebSignature.Header header = new JsonWebSignature.Header().setAlgorithm("RS256").setKeyId("test");
+        Payload payload = new Payload();
+        payload.setIssuer("https://accounts.google.com");
+        payload.setAudience(audience);
+        payload.setSubject("1234567890");
+        payload.setEmail("student@fpt.edu.vn");
+        payload.setIssuedAtTimeSeconds(now);
+        payload.setExpirationTimeSeconds(now + 3600);
+        return JsonWebSignature.signUsingRsaSha256(signingKeys.getPrivate(), jsonFactory, header, payload);
+    }
+}
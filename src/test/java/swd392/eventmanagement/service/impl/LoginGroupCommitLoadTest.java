@@ -0,0 +1,187 @@
+package swd392.eventmanagement.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import swd392.eventmanagement.model.entity.User;
+import swd392.eventmanagement.service.AuthService;
+import swd392.eventmanagement.service.RefreshTokenService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares login provisioning with and without group commit against a real Postgres.
+ * Run with LOADTEST_DB_URL=jdbc:postgresql://localhost:5432/eventmanagement_load
+ * (and LOADTEST_DB_USERNAME / LOADTEST_DB_PASSWORD if they differ from the defaults).
+ */
+@EnabledIfEnvironmentVariable(named = "LOADTEST_DB_URL", matches = ".+")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${LOADTEST_DB_URL}",
+        "spring.datasource.username=${LOADTEST_DB_USERNAME:postgres}",
+        "spring.datasource.password=${LOADTEST_DB_PASSWORD:root}",
+        "spring.jpa.show-sql=false",
+        "spring.security.oauth2.client.registration.google.client-id=load-test",
+        "spring.security.oauth2.client.registration.google.client-secret=load-test",
+        "app.auth.group-commit.enabled=true"
+})
+class LoginGroupCommitLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(LoginGroupCommitLoadTest.class);
+
+    private static final int LOGINS = 5000;
+    private static final int CONCURRENCY = 200;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private LoginBatchWriter loginBatchWriter;
+
+    @Autowired
+    private RoleCache roleCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seedRoles() {
+        for (String role : List.of("ROLE_STUDENT", "ROLE_LECTURER", "ROLE_ADMIN")) {
+            jdbcTemplate.update("INSERT INTO roles (name) VALUES (?) ON CONFLICT (name) DO NOTHING", role);
+        }
+        roleCache.reload();
+    }
+
+    @Test
+    void compareLoginThroughput() throws Exception {
+        Integer roleId = roleCache.getRequired("ROLE_STUDENT").getId();
+
+        // Warm up connections and JIT on both paths
+        run("warm-up direct", 500, (email, sub) -> {
+            User user = authService.createOrUpdateUser(email, "Warm Up", sub);
+            refreshTokenService.createRefreshToken(user.getId());
+        });
+        run("warm-up group", 500, (email, sub) -> loginBatchWriter.provision(email, "Warm Up", sub, roleId));
+
+        Result direct = run("direct", LOGINS, (email, sub) -> {
+            User user = authService.createOrUpdateUser(email, "Load Test", sub);
+            refreshTokenService.createRefreshToken(user.getId());
+        });
+        Result grouped = run("group-commit", LOGINS,
+                (email, sub) -> loginBatchWriter.provision(email, "Load Test", sub, roleId));
+
+        for (Result result : List.of(direct, grouped)) {
+            logger.info("{}: {} logins/s, p50 {} us, p99 {} us", result.name, Math.round(result.throughput),
+                    Math.round(result.p50Millis * 1000), Math.round(result.p99Millis * 1000));
+        }
+        assertEquals(LOGINS, direct.completed);
+        assertEquals(LOGINS, grouped.completed);
+    }
+
+    @Test
+    void oneBadLoginFailsAlone() throws Exception {
+        Integer roleId = roleCache.getRequired("ROLE_STUDENT").getId();
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        // An account seeded under another provider id is taken over, not a constraint violation
+        Long seededId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (email, full_name, provider_user_id) VALUES (?, 'Seeded', ?) RETURNING id",
+                Long.class, "seeded-" + runId + "@fpt.edu.vn", "SEEDED-" + runId);
+
+        ExecutorService executor = Executors.newFixedThreadPool(50);
+        try {
+            List<Future<LoginBatchWriter.ProvisionedLogin>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> loginBatchWriter.provision(
+                    "seeded-" + runId + "@fpt.edu.vn", "Seeded", "google-seeded-" + runId, roleId)));
+            // Longer than users.email allows
+            futures.add(executor.submit(() -> loginBatchWriter.provision(
+                    "x".repeat(300) + "@fpt.edu.vn", "Too Long", "google-bad-" + runId, roleId)));
+            for (int i = 0; i < 48; i++) {
+                int n = i;
+                futures.add(executor.submit(() -> loginBatchWriter.provision(
+                        "batch-" + runId + "-" + n + "@fpt.edu.vn", "Batch", "batch-" + runId + "-" + n, roleId)));
+            }
+
+            assertEquals(seededId, futures.get(0).get().userId());
+            Exception bad = assertThrows(Exception.class, () -> futures.get(1).get());
+            assertFalse(bad.getCause() instanceof TimeoutException);
+            for (Future<LoginBatchWriter.ProvisionedLogin> future : futures.subList(2, futures.size())) {
+                assertNotNull(future.get().refreshToken());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void loginWhoseCallerGaveUpLeavesNoRefreshToken() throws Exception {
+        Integer roleId = roleCache.getRequired("ROLE_STUDENT").getId();
+        String sub = "timeout-" + UUID.randomUUID().toString().substring(0, 8);
+        long waitTimeoutMs = (long) ReflectionTestUtils.getField(loginBatchWriter, "waitTimeoutMs");
+        ReflectionTestUtils.setField(loginBatchWriter, "waitTimeoutMs", 0L);
+        try {
+            assertThrows(TimeoutException.class,
+                    () -> loginBatchWriter.provision(sub + "@fpt.edu.vn", "Timeout", sub, roleId));
+        } finally {
+            ReflectionTestUtils.setField(loginBatchWriter, "waitTimeoutMs", waitTimeoutMs);
+        }
+        // Either never written, or its token deleted right after its batch committed
+        Thread.sleep(500);
+        assertEquals(0, jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM refresh_tokens t JOIN users u ON u.id = t.user_id
+                WHERE u.provider_user_id = ?
+                """, Integer.class, sub));
+    }
+
+    private Result run(String name, int logins, Login login) throws Exception {
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        long[] latencies = new long[logins];
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            List<Future<?>> futures = new ArrayList<>(logins);
+            long start = System.nanoTime();
+            for (int i = 0; i < logins; i++) {
+                int n = i;
+                futures.add(executor.submit((Callable<Void>) () -> {
+                    long begin = System.nanoTime();
+                    login.run("load-" + runId + "-" + n + "@fpt.edu.vn", "load-" + runId + "-" + n);
+                    latencies[n] = System.nanoTime() - begin;
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            Arrays.sort(latencies);
+            return new Result(name, logins, logins / (elapsed / 1e9),
+                    latencies[logins / 2] / 1e6, latencies[(int) (logins * 0.99)] / 1e6);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Login {
+        void run(String email, String providerUserId) throws Exception;
+    }
+
+    private record Result(String name, int completed, double throughput, double p50Millis, double p99Millis) {
+    }
+}
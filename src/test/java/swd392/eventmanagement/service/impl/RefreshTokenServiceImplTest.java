@@ -0,0 +1,42 @@
+package swd392.eventmanagement.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import swd392.eventmanagement.repository.RefreshTokenRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefreshTokenServiceImplTest {
+    private final AtomicInteger deletes = new AtomicInteger();
+
+    @Test
+    void logoutWithoutARefreshTokenDeletesNothing() {
+        RefreshTokenServiceImpl service = service();
+        assertFalse(service.deleteByToken(null));
+        assertFalse(service.deleteByToken(" "));
+        assertEquals(0, deletes.get());
+
+        assertTrue(service.deleteByToken("presented"));
+        assertEquals(1, deletes.get());
+    }
+
+    private RefreshTokenServiceImpl service() {
+        RefreshTokenServiceImpl service = new RefreshTokenServiceImpl();
+        ReflectionTestUtils.setField(service, "refreshTokenRepository", repository());
+        return service;
+    }
+
+    private RefreshTokenRepository repository() {
+        return (RefreshTokenRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {RefreshTokenRepository.class}, (proxy, method, args) -> {
+                    if (!"deleteFamilyByTokenHash".equals(method.getName())) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    deletes.incrementAndGet();
+                    return 1;
+                });
+    }
+}
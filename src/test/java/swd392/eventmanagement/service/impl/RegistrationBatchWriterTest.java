@@ -0,0 +1,103 @@
+package swd392.eventmanagement.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegistrationBatchWriterTest {
+    private static final long USER_ID = 42L;
+
+    private final AtomicInteger inserts = new AtomicInteger();
+    private RegistrationBatchWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(writer, "stop");
+    }
+
+    @Test
+    void commitsAndConsumesTheReservedSeat() throws Exception {
+        writer = writer(5000, 1);
+        SeatLeaseManager.Lease lease = new SeatLeaseManager.Lease(1, 7L, 5, 1);
+        assertTrue(lease.tryTake());
+
+        assertNotNull(writer.write(lease, USER_ID));
+        awaitSettled(lease);
+        assertEquals(1, inserts.get());
+        assertEquals(4, lease.available());
+    }
+
+    @Test
+    void aTimedOutRegistrationIsWithdrawnAndItsSeatReturned() throws Exception {
+        // The flusher lingers for more registrations well past the caller's patience
+        writer = writer(50, 500);
+        SeatLeaseManager.Lease lease = new SeatLeaseManager.Lease(1, 7L, 5, 1);
+        assertTrue(lease.tryTake());
+
+        assertThrows(TimeoutException.class, () -> writer.write(lease, USER_ID));
+        awaitSettled(lease);
+        assertEquals(0, inserts.get());
+        assertEquals(5, lease.available());
+    }
+
+    // The writer settles the lease just after answering the caller
+    private static void awaitSettled(SeatLeaseManager.Lease lease) throws InterruptedException {
+        for (int i = 0; i < 100 && lease.inFlight() > 0; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, lease.inFlight());
+    }
+
+    private RegistrationBatchWriter writer(long waitTimeoutMs, long flushIntervalMs) {
+        RegistrationBatchWriter batchWriter = new RegistrationBatchWriter();
+        ReflectionTestUtils.setField(batchWriter, "maxBatchSize", 10);
+        ReflectionTestUtils.setField(batchWriter, "flushIntervalMs", flushIntervalMs);
+        ReflectionTestUtils.setField(batchWriter, "queueCapacity", 100);
+        ReflectionTestUtils.setField(batchWriter, "waitTimeoutMs", waitTimeoutMs);
+        ReflectionTestUtils.setField(batchWriter, "jdbcTemplate", jdbcTemplate());
+        ReflectionTestUtils.setField(batchWriter, "transactionManager", transactionManager());
+        ReflectionTestUtils.invokeMethod(batchWriter, "start");
+        return batchWriter;
+    }
+
+    // Every insert creates the registration of USER_ID; every lease update succeeds
+    private JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate() {
+            @Override
+            public void query(PreparedStatementCreator psc, RowCallbackHandler rch) {
+                inserts.incrementAndGet();
+                try {
+                    rch.processRow((ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                            new Class<?>[] {ResultSet.class},
+                            (proxy, method, args) -> "getLong".equals(method.getName()) ? USER_ID : null));
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            @Override
+            public int update(String sql, Object... args) {
+                return 1;
+            }
+        };
+    }
+
+    private static PlatformTransactionManager transactionManager() {
+        return (PlatformTransactionManager) Proxy.newProxyInstance(PlatformTransactionManager.class.getClassLoader(),
+                new Class<?>[] {PlatformTransactionManager.class},
+                (proxy, method, args) -> "getTransaction".equals(method.getName()) ? new SimpleTransactionStatus() : null);
+    }
+}
@@ -0,0 +1,270 @@
+package swd392.eventmanagement.service.impl;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import swd392.eventmanagement.EventManagementApplication;
+import swd392.eventmanagement.exception.EventFullException;
+import swd392.eventmanagement.model.dto.response.RegistrationResponse;
+import swd392.eventmanagement.service.RegistrationService;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Registration storms against a real Postgres, served by two application nodes that
+ * share it, as two Spring contexts in this JVM. Checks that no event is ever oversold,
+ * that nobody is registered twice and that seats leased by one node end up sold or
+ * returned, then compares throughput with a plain per-registration transaction.
+ * Run with LOADTEST_DB_URL=jdbc:postgresql://localhost:5432/eventmanagement_load.
+ */
+@EnabledIfEnvironmentVariable(named = "LOADTEST_DB_URL", matches = ".+")
+class RegistrationStressLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(RegistrationStressLoadTest.class);
+
+    private static final int CONCURRENCY = 200;
+    private static final int NODES = 2;
+
+    private static final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private static final String RUN_ID = UUID.randomUUID().toString().substring(0, 8);
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void startNodes() {
+        for (int i = 0; i < NODES; i++) {
+            nodes.add(new SpringApplicationBuilder(EventManagementApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run("--spring.datasource.url=" + System.getenv("LOADTEST_DB_URL"),
+                            "--spring.datasource.username=" + env("LOADTEST_DB_USERNAME", "postgres"),
+                            "--spring.datasource.password=" + env("LOADTEST_DB_PASSWORD", "root"),
+                            "--spring.security.oauth2.client.registration.google.client-id=load-test",
+                            "--spring.security.oauth2.client.registration.google.client-secret=load-test",
+                            "--app.registration.node-id=stress-" + RUN_ID + "-" + i));
+        }
+        jdbcTemplate = nodes.get(0).getBean(JdbcTemplate.class);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (jdbcTemplate != null) {
+            jdbcTemplate.update("DELETE FROM events WHERE title LIKE ?", "stress-" + RUN_ID + "%");
+            jdbcTemplate.update("DELETE FROM users WHERE provider_user_id LIKE ?", "stress-" + RUN_ID + "%");
+        }
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void neverOversellsAcrossNodes() throws Exception {
+        int capacity = 1000;
+        List<Long> users = createUsers("oversell", 4000);
+        long eventId = createEvent("oversell", capacity, users.get(0));
+
+        // Every user once, and the first thousand a second time on the other node
+        List<Request> requests = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            requests.add(new Request(users.get(i), i % NODES));
+            if (i < 1000) {
+                requests.add(new Request(users.get(i), (i + 1) % NODES));
+            }
+        }
+        Collections.shuffle(requests, new Random(42));
+        Outcome storm = run(eventId, requests);
+        assertLedgerConsistent(eventId, capacity);
+        assertEquals(storm.created, confirmed(eventId));
+        assertEquals(requests.size(), storm.created + storm.existing + storm.full);
+
+        // Seats still leased by a node with no more demand go back within two maintenance runs
+        Thread.sleep(3000);
+        List<Request> retries = new ArrayList<>();
+        for (Long userId : storm.rejected) {
+            retries.add(new Request(userId, retries.size() % NODES));
+        }
+        Outcome retry = run(eventId, retries);
+        assertEquals(capacity, confirmed(eventId));
+        assertEquals(capacity, storm.created + retry.created);
+        assertLedgerConsistent(eventId, capacity);
+
+        // Cancellations free seats that a second wave takes, still without overselling
+        List<Long> registered = jdbcTemplate.queryForList(
+                "SELECT user_id FROM registrations WHERE event_id = ? AND status = 'CONFIRMED' LIMIT 100",
+                Long.class, eventId);
+        RegistrationService node0 = nodes.get(0).getBean(RegistrationService.class);
+        for (Long userId : registered) {
+            assertTrue(node0.cancel(eventId, userId));
+        }
+        List<Request> secondWave = new ArrayList<>();
+        for (Long userId : retry.rejected) {
+            secondWave.add(new Request(userId, secondWave.size() % NODES));
+        }
+        Outcome wave = run(eventId, secondWave);
+        logger.info("storm: {} created, {} already registered, {} full; retry: {} created; "
+                        + "after 100 cancellations: {} created",
+                storm.created, storm.existing, storm.full, retry.created, wave.created);
+        assertTrue(wave.created <= 100);
+        assertLedgerConsistent(eventId, capacity);
+    }
+
+    @Test
+    void sustainsThousandsOfRegistrationsPerSecond() throws Exception {
+        int registrations = 20_000;
+        List<Long> users = createUsers("throughput", registrations);
+
+        // Warm up both paths
+        long warmUp = createEvent("warm-up", 2000, users.get(0));
+        run(warmUp, requests(users.subList(0, 2000)));
+        long warmUpNaive = createEvent("warm-up-naive", 2000, users.get(0));
+        runNaive(warmUpNaive, users.subList(0, 2000));
+
+        long naiveEvent = createEvent("naive", registrations, users.get(0));
+        long start = System.nanoTime();
+        int naiveCreated = runNaive(naiveEvent, users);
+        double naivePerSecond = registrations / ((System.nanoTime() - start) / 1e9);
+
+        long leasedEvent = createEvent("leased", registrations, users.get(0));
+        start = System.nanoTime();
+        Outcome leased = run(leasedEvent, requests(users));
+        double leasedPerSecond = registrations / ((System.nanoTime() - start) / 1e9);
+
+        logger.info("row lock per request: {} registrations/s", Math.round(naivePerSecond));
+        logger.info("leases + group commit: {} registrations/s", Math.round(leasedPerSecond));
+        assertEquals(registrations, naiveCreated);
+        assertEquals(registrations, leased.created);
+        assertEquals(registrations, confirmed(leasedEvent));
+        assertLedgerConsistent(leasedEvent, registrations);
+        assertTrue(leasedPerSecond >= 1000, "registrations/s: " + leasedPerSecond);
+        assertTrue(leasedPerSecond > naivePerSecond, "leased " + leasedPerSecond + " vs naive " + naivePerSecond);
+    }
+
+    private Outcome run(long eventId, List<Request> requests) throws Exception {
+        List<RegistrationService> services = nodes.stream().map(node -> node.getBean(RegistrationService.class)).toList();
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger existing = new AtomicInteger();
+        Queue<Long> rejected = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            List<Future<?>> futures = new ArrayList<>(requests.size());
+            for (Request request : requests) {
+                futures.add(executor.submit((Callable<Void>) () -> {
+                    try {
+                        RegistrationResponse response = services.get(request.node).register(eventId, request.userId);
+                        (response.isCreated() ? created : existing).incrementAndGet();
+                    } catch (EventFullException e) {
+                        rejected.add(request.userId);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Outcome(created.get(), existing.get(), rejected.size(), new ArrayList<>(rejected));
+    }
+
+    /**
+     * What registration costs without leases: every request locks the event row to
+     * take its seat and commits on its own.
+     */
+    private int runNaive(long eventId, List<Long> users) throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            List<Future<?>> futures = new ArrayList<>(users.size());
+            for (Long userId : users) {
+                futures.add(executor.submit((Callable<Void>) () -> {
+                    Integer inserted = jdbcTemplate.queryForObject("""
+                            WITH seat AS (
+                                UPDATE events SET allocated = allocated + 1
+                                WHERE id = ? AND allocated < capacity RETURNING id
+                            ),
+                            registered AS (
+                                INSERT INTO registrations (event_id, user_id, status, registered_at)
+                                SELECT id, ?, 'CONFIRMED', now() FROM seat RETURNING 1
+                            )
+                            SELECT COUNT(*) FROM registered
+                            """, Integer.class, eventId, userId);
+                    created.addAndGet(inserted);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return created.get();
+    }
+
+    private static void assertLedgerConsistent(long eventId, int capacity) {
+        Map<String, Object> row = jdbcTemplate.queryForMap("""
+                SELECT e.allocated,
+                       (SELECT COUNT(*) FROM registrations r WHERE r.event_id = e.id AND r.status = 'CONFIRMED') AS confirmed,
+                       (SELECT COALESCE(SUM(l.seats), 0) FROM capacity_leases l WHERE l.event_id = e.id) AS leased
+                FROM events e WHERE e.id = ?
+                """, eventId);
+        int allocated = ((Number) row.get("allocated")).intValue();
+        int confirmed = ((Number) row.get("confirmed")).intValue();
+        int leased = ((Number) row.get("leased")).intValue();
+        assertTrue(confirmed <= capacity, "oversold: " + confirmed + " of " + capacity);
+        assertEquals(allocated, confirmed + leased, "allocated vs confirmed + leased");
+    }
+
+    private static int confirmed(long eventId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM registrations WHERE event_id = ? AND status = 'CONFIRMED'",
+                Integer.class, eventId);
+    }
+
+    private static List<Long> createUsers(String name, int count) {
+        String prefix = "stress-" + RUN_ID + "-" + name + "-";
+        return jdbcTemplate.queryForList("""
+                INSERT INTO users (email, full_name, provider_user_id, role_version, created_at, updated_at)
+                SELECT ? || g || '@fpt.edu.vn', 'Stress ' || g, ? || g, 0, now(), now()
+                FROM generate_series(1, ?) g
+                RETURNING id
+                """, Long.class, prefix, prefix, count);
+    }
+
+    private static long createEvent(String name, int capacity, Long organizerId) {
+        LocalDateTime startsAt = LocalDateTime.now().plusDays(1);
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO events (title, category, organizer_id, starts_at, ends_at, capacity)
+                VALUES (?, 'WORKSHOP', ?, ?, ?, ?) RETURNING id
+                """, Long.class, "stress-" + RUN_ID + "-" + name, organizerId,
+                Timestamp.valueOf(startsAt), Timestamp.valueOf(startsAt.plusHours(2)), capacity);
+    }
+
+    private static List<Request> requests(List<Long> users) {
+        List<Request> requests = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            requests.add(new Request(users.get(i), i % NODES));
+        }
+        return requests;
+    }
+
+    private static String env(String name, String fallback) {
+        return System.getenv().getOrDefault(name, fallback);
+    }
+
+    private record Request(Long userId, int node) {
+    }
+
+    private record Outcome(int created, int existing, int full, List<Long> rejected) {
+    }
+}
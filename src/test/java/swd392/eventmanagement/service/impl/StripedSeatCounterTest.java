@@ -0,0 +1,70 @@
+package swd392.eventmanagement.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedSeatCounterTest {
+
+    @Test
+    void roundsStripesUpToAPowerOfTwo() {
+        assertEquals(1, new StripedSeatCounter(1).stripes());
+        assertEquals(8, new StripedSeatCounter(5).stripes());
+        assertEquals(16, new StripedSeatCounter(16).stripes());
+    }
+
+    @Test
+    void handsOutEverySeatExactlyOnceUnderContention() throws Exception {
+        StripedSeatCounter counter = new StripedSeatCounter(8);
+        counter.add(100_003);
+        AtomicInteger taken = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (counter.tryTake()) {
+                    taken.incrementAndGet();
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(100_003, taken.get());
+        assertEquals(0, counter.available());
+        assertFalse(counter.tryTake());
+    }
+
+    @Test
+    void takesFromOtherStripesWhenItsOwnIsEmpty() {
+        StripedSeatCounter counter = new StripedSeatCounter(16);
+        // Fewer seats than stripes, so most stripes start empty
+        counter.add(3);
+        assertTrue(counter.tryTake());
+        assertTrue(counter.tryTake());
+        assertTrue(counter.tryTake());
+        assertFalse(counter.tryTake());
+    }
+
+    @Test
+    void drainEmptiesTheCounter() {
+        StripedSeatCounter counter = new StripedSeatCounter(4);
+        counter.add(10);
+        assertTrue(counter.tryTake());
+        counter.giveBack();
+        assertEquals(10, counter.drain());
+        assertEquals(0, counter.available());
+        assertFalse(counter.tryTake());
+    }
+}
@@ -0,0 +1,253 @@
+package swd392.eventmanagement.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import swd392.eventmanagement.model.dto.response.RegistrationResponse;
+import swd392.eventmanagement.model.entity.RegistrationStatus;
+import swd392.eventmanagement.notification.Notification;
+import swd392.eventmanagement.notification.NotificationSender;
+import swd392.eventmanagement.service.RegistrationService;
+import swd392.eventmanagement.service.WaitlistService;
+import swd392.eventmanagement.support.ScratchSchema;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fills an event, queues three thousand users behind it and cancels registrations in
+ * bursts of a thousand and more, the way they arrive right before an event starts.
+ * Checks that the background pass promotes exactly the head of the queue, home-domain
+ * students first, in a handful of per-event transactions, that the event is never
+ * oversold and that every promoted user is handed to the sender once. Needs a real
+ * Postgres; run with LOADTEST_DB_URL=jdbc:postgresql://localhost:5432/eventmanagement_load.
+ */
+@ScratchSchema("waitlist_load")
+@TestPropertySource(properties = "app.auth.student-domain=fpt.edu.vn")
+class WaitlistBurstLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistBurstLoadTest.class);
+
+    private static final int CAPACITY = 2000;
+    private static final int CONCURRENCY = 200;
+
+    @Autowired
+    private RegistrationService registrationService;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RecordingNotificationSender notificationSender;
+
+    @TestConfiguration
+    static class RecordingSenderConfig {
+        @Bean
+        @Primary
+        RecordingNotificationSender recordingNotificationSender() {
+            return new RecordingNotificationSender();
+        }
+    }
+
+    @Test
+    void burstsOfCancellationsPromoteTheHeadOfTheQueueOnce() throws Exception {
+        List<Long> holders = createUsers("holder", "fpt.edu.vn", "ROLE_STUDENT", CAPACITY);
+        List<Long> homeStudents = createUsers("home", "fpt.edu.vn", "ROLE_STUDENT", 1000);
+        List<Long> otherStudents = createUsers("other", "gmail.com", "ROLE_STUDENT", 1000);
+        List<Long> lecturers = createUsers("lecturer", "fpt.edu.vn", "ROLE_LECTURER", 1000);
+        long eventId = createEvent(holders.get(0));
+
+        parallel(holders, userId -> assertTrue(registrationService.register(eventId, userId).isCreated()));
+        assertEquals(CAPACITY, confirmed(eventId));
+
+        List<Long> waiters = new ArrayList<>(homeStudents);
+        waiters.addAll(otherStudents);
+        waiters.addAll(lecturers);
+        Collections.shuffle(waiters, new Random(7));
+        parallel(waiters, userId -> {
+            RegistrationResponse response = registrationService.registerOrWaitlist(eventId, userId);
+            assertEquals(RegistrationStatus.WAITLISTED.name(), response.getStatus());
+            assertTrue(response.isCreated());
+        });
+        // Joining twice keeps the place
+        assertFalse(registrationService.registerOrWaitlist(eventId, waiters.get(0)).isCreated());
+
+        List<Long> queue = jdbcTemplate.queryForList(
+                "SELECT user_id FROM waitlist_entries WHERE event_id = ? ORDER BY priority, id", Long.class, eventId);
+        assertEquals(waiters.size(), queue.size());
+        assertEquals(new HashSet<>(homeStudents), new HashSet<>(queue.subList(0, homeStudents.size())));
+
+        double eventsBefore = meterRegistry.counter("waitlist.promotion.events").count();
+        Set<Long> registered = new HashSet<>(holders);
+        int promotedSoFar = 0;
+        int cancelled = 0;
+        for (int burst : new int[]{1500, 1000}) {
+            List<Long> leaving = new ArrayList<>(registered).subList(0, burst);
+            long start = System.nanoTime();
+            parallel(leaving, userId -> assertTrue(registrationService.cancel(eventId, userId)));
+            logger.info("burst of {} cancellations in {} ms", burst, (System.nanoTime() - start) / 1_000_000);
+            leaving.forEach(registered::remove);
+            cancelled += burst;
+
+            int expected = promotedSoFar + burst;
+            awaitTrue(() -> waitlisted(eventId) == waiters.size() - expected && confirmed(eventId) == CAPACITY);
+            logger.info("promoted {} waiting users {} ms after the burst", burst,
+                    (System.nanoTime() - start) / 1_000_000);
+
+            // This burst's seats went to the next users in the queue and to nobody behind them
+            List<Long> promoted = queue.subList(promotedSoFar, expected);
+            assertEquals(burst, confirmedAmong(eventId, promoted));
+            assertEquals(0, confirmedAmong(eventId, queue.subList(expected, queue.size())));
+            registered.addAll(promoted);
+            promotedSoFar = expected;
+            assertLedgerConsistent(eventId);
+        }
+
+        double promotionTransactions = meterRegistry.counter("waitlist.promotion.events").count() - eventsBefore;
+        logger.info("{} cancellations promoted {} users in {} per-event transactions",
+                cancelled, promotedSoFar, Math.round(promotionTransactions));
+        assertTrue(promotionTransactions <= 20, "promotion transactions: " + promotionTransactions);
+
+        // Every promoted user handed to the sender exactly once
+        int promotions = promotedSoFar;
+        awaitTrue(() -> notificationSender.received().size() >= promotions);
+        Thread.sleep(1500);
+        List<Notification> received = notificationSender.received();
+        assertEquals(promotions, received.size());
+        assertEquals(promotions, received.stream().map(Notification::id).distinct().count());
+        assertEquals(new HashSet<>(queue.subList(0, promotions)),
+                received.stream().map(Notification::userId).collect(HashSet::new, Set::add, Set::addAll));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notification_outbox", Integer.class));
+
+        // Running the pass again for the same event changes nothing
+        jdbcTemplate.update("INSERT INTO waitlist_promotions_due (event_id) VALUES (?) ON CONFLICT DO NOTHING", eventId);
+        WaitlistService.PromotionRun rerun = waitlistService.promoteDueEvents();
+        assertEquals(0, rerun.promoted());
+        assertEquals(CAPACITY, confirmed(eventId));
+        assertEquals(waiters.size() - promotions, waitlisted(eventId));
+        assertLedgerConsistent(eventId);
+
+        // The event is full again, so new registrations still queue behind the waiters
+        Long lastWaiter = queue.get(queue.size() - 1);
+        assertTrue(waitlistService.leave(eventId, lastWaiter));
+        assertFalse(waitlistService.leave(eventId, lastWaiter));
+        assertEquals(RegistrationStatus.WAITLISTED.name(),
+                registrationService.registerOrWaitlist(eventId, lastWaiter).getStatus());
+    }
+
+    private List<Long> createUsers(String name, String domain, String role, int count) {
+        String prefix = "waitlist-" + name + "-";
+        List<Long> ids = jdbcTemplate.queryForList("""
+                INSERT INTO users (email, full_name, provider_user_id, role_version, created_at, updated_at)
+                SELECT ? || g || '@' || ?, 'Waitlist ' || g, ? || g, 0, now(), now()
+                FROM generate_series(1, ?) g
+                RETURNING id
+                """, Long.class, prefix, domain, prefix, count);
+        jdbcTemplate.update("""
+                INSERT INTO user_roles (user_id, role_id)
+                SELECT u.id, r.id FROM users u, roles r WHERE u.provider_user_id LIKE ? AND r.name = ?
+                """, prefix + "%", role);
+        return ids;
+    }
+
+    private long createEvent(Long organizerId) {
+        LocalDateTime startsAt = LocalDateTime.now().plusDays(1);
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO events (title, category, organizer_id, starts_at, ends_at, capacity)
+                VALUES ('Waitlist burst', 'WORKSHOP', ?, ?, ?, ?) RETURNING id
+                """, Long.class, organizerId, Timestamp.valueOf(startsAt), Timestamp.valueOf(startsAt.plusHours(2)),
+                CAPACITY);
+    }
+
+    private void assertLedgerConsistent(long eventId) {
+        Map<String, Object> row = jdbcTemplate.queryForMap("""
+                SELECT e.allocated,
+                       (SELECT COUNT(*) FROM registrations r WHERE r.event_id = e.id AND r.status = 'CONFIRMED') AS confirmed,
+                       (SELECT COALESCE(SUM(l.seats), 0) FROM capacity_leases l WHERE l.event_id = e.id) AS leased
+                FROM events e WHERE e.id = ?
+                """, eventId);
+        int allocated = ((Number) row.get("allocated")).intValue();
+        int confirmed = ((Number) row.get("confirmed")).intValue();
+        int leased = ((Number) row.get("leased")).intValue();
+        assertTrue(confirmed <= CAPACITY, "oversold: " + confirmed + " of " + CAPACITY);
+        assertEquals(allocated, confirmed + leased, "allocated vs confirmed + leased");
+    }
+
+    private int confirmed(long eventId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM registrations WHERE event_id = ? AND status = 'CONFIRMED'", Integer.class, eventId);
+    }
+
+    private int confirmedAmong(long eventId, List<Long> userIds) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM registrations WHERE event_id = ? AND status = 'CONFIRMED' AND user_id = ANY(?)",
+                Integer.class, eventId, userIds.toArray(Long[]::new));
+    }
+
+    private int waitlisted(long eventId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM waitlist_entries WHERE event_id = ?", Integer.class, eventId);
+    }
+
+    private static void parallel(List<Long> userIds, ThrowingConsumer action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            List<Future<?>> futures = new ArrayList<>(userIds.size());
+            for (Long userId : userIds) {
+                futures.add(executor.submit((Callable<Void>) () -> {
+                    action.accept(userId);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(50);
+        }
+    }
+
+    private interface ThrowingConsumer {
+        void accept(Long userId) throws Exception;
+    }
+
+    static class RecordingNotificationSender implements NotificationSender {
+        private final List<Notification> received = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void send(List<Notification> notifications) {
+            received.addAll(notifications);
+        }
+
+        List<Notification> received() {
+            synchronized (received) {
+                return new ArrayList<>(received);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package swd392.eventmanagement.support;
+
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.annotation.*;
+
+/**
+ * Runs a {@code @SpringBootTest} against its own schema on the real Postgres named by
+ * LOADTEST_DB_URL (LOADTEST_DB_USERNAME, LOADTEST_DB_PASSWORD), e.g.
+ * jdbc:postgresql://localhost:5432/eventmanagement_load. Flyway migrates the empty
+ * schema on startup and it is dropped when the context closes; without the variable
+ * the test is skipped.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+@EnabledIfEnvironmentVariable(named = "LOADTEST_DB_URL", matches = ".+")
+@SpringBootTest(properties = {
+        "spring.datasource.username=${LOADTEST_DB_USERNAME:postgres}",
+        "spring.datasource.password=${LOADTEST_DB_PASSWORD:root}",
+        "spring.flyway.locations=classpath:db/migration",
+        "spring.security.oauth2.client.registration.google.client-id=load-test",
+        "spring.security.oauth2.client.registration.google.client-secret=load-test"
+})
+public @interface ScratchSchema {
+    /**
+     * Schema name prefix; a random suffix keeps concurrent runs apart.
+     */
+    String value();
+}
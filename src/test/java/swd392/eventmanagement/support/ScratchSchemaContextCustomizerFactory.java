@@ -0,0 +1,64 @@
+package swd392.eventmanagement.support;
+
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.test.context.ContextConfigurationAttributes;
+import org.springframework.test.context.ContextCustomizer;
+import org.springframework.test.context.ContextCustomizerFactory;
+import org.springframework.test.context.MergedContextConfiguration;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Points the datasource and Flyway of a {@link ScratchSchema} test at a fresh schema.
+ * Each test class gets its own schema and therefore its own cached context, and the
+ * schema lives exactly as long as that context.
+ */
+public class ScratchSchemaContextCustomizerFactory implements ContextCustomizerFactory {
+
+    @Override
+    public ContextCustomizer createContextCustomizer(Class<?> testClass,
+                                                     List<ContextConfigurationAttributes> configAttributes) {
+        ScratchSchema scratchSchema = AnnotatedElementUtils.findMergedAnnotation(testClass, ScratchSchema.class);
+        if (scratchSchema == null || System.getenv("LOADTEST_DB_URL") == null) {
+            return null;
+        }
+        return new Customizer(scratchSchema.value() + "_" + UUID.randomUUID().toString().substring(0, 8));
+    }
+
+    private record Customizer(String schema) implements ContextCustomizer {
+
+        @Override
+        public void customizeContext(ConfigurableApplicationContext context, MergedContextConfiguration mergedConfig) {
+            String url = System.getenv("LOADTEST_DB_URL");
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("scratchSchema", Map.of(
+                    "spring.datasource.url", url + (url.contains("?") ? "&" : "?") + "currentSchema=" + schema,
+                    "spring.flyway.schemas", schema)));
+            context.addApplicationListener((ApplicationListener<ContextClosedEvent>) event -> {
+                if (event.getApplicationContext() == context) {
+                    dropSchema();
+                }
+            });
+        }
+
+        private void dropSchema() {
+            try (Connection connection = DriverManager.getConnection(System.getenv("LOADTEST_DB_URL"),
+                    System.getenv().getOrDefault("LOADTEST_DB_USERNAME", "postgres"),
+                    System.getenv().getOrDefault("LOADTEST_DB_PASSWORD", "root"));
+                 Statement statement = connection.createStatement()) {
+                statement.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not drop scratch schema " + schema, e);
+            }
+        }
+    }
+}